@@ -3,20 +3,70 @@ package com.busreservation;
 import com.busreservation.console.ConsoleUI;
 import com.busreservation.database.DatabaseManager;
 import com.busreservation.gui.BusReservationGUI;
+import com.busreservation.server.ReservationServer;
+import com.busreservation.service.BookingArchiver;
+import com.busreservation.service.BookingLedger;
+import com.busreservation.service.BookingPipeline;
+import com.busreservation.service.DynamicPricingService;
+import com.busreservation.service.RegistrationIndex;
+import com.busreservation.service.SeatCountReconciler;
 
 import javax.swing.SwingUtilities;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Main {
     public static void main(String[] args) {
-        // Initialize database
+        long startupStart = System.nanoTime();
+        
+        // Initialize database; DDL and seeding only run when the stored versions are behind
         DatabaseManager dbManager = DatabaseManager.getInstance();
         dbManager.insertSampleData();
+        Map<String, Long> startupTimings = new LinkedHashMap<>(dbManager.getStartupTimings());
+        
+        // Periodically repair any drift in the incrementally maintained seat counters
+        SeatCountReconciler seatCountReconciler = new SeatCountReconciler();
+        seatCountReconciler.start(15);
+        
+        // Hourly, move finished bookings past the retention period out of the live table
+        BookingArchiver bookingArchiver = new BookingArchiver();
+        bookingArchiver.start(60);
+        
+        // Load trip occupancy once so fare quotes never need an aggregate query
+        long phaseStart = System.nanoTime();
+        DynamicPricingService.getInstance().warmUp();
+        startupTimings.put("pricing warm-up", System.nanoTime() - phaseStart);
+        
+        // Rebuild booking views from the latest snapshot plus the event tail, then snapshot periodically
+        phaseStart = System.nanoTime();
+        BookingLedger.getInstance().start(5);
+        startupTimings.put("booking ledger", System.nanoTime() - phaseStart);
+        
+        // Bloom filters of taken usernames and emails let most registrations skip both lookups
+        phaseStart = System.nanoTime();
+        RegistrationIndex.getInstance();
+        startupTimings.put("registration index", System.nanoTime() - phaseStart);
+        
+        printStartupTimings(startupTimings, System.nanoTime() - startupStart);
+        
+        if (args.length > 0 && "--server".equals(args[0])) {
+            startServer();
+            return;
+        }
         
         System.out.println("Bus Reservation System initialized!");
         System.out.println("Choose interface type:");
         System.out.println("1. Console Interface");
         System.out.println("2. GUI Interface");
-        System.out.print("Enter your choice (1 or 2): ");
+        System.out.println("3. Headless HTTP Server");
+        System.out.print("Enter your choice (1, 2 or 3): ");
         
         try {
             java.util.Scanner scanner = new java.util.Scanner(System.in);
@@ -33,6 +83,9 @@ public class Main {
                         new BusReservationGUI();
                     });
                     break;
+                case 3:
+                    startServer();
+                    break;
                 default:
                     System.out.println("Invalid choice. Starting console interface...");
                     ConsoleUI consoleUI2 = new ConsoleUI();
@@ -45,4 +98,49 @@ public class Main {
             consoleUI.start();
         }
     }
-}
\ No newline at end of file
+
+    // Port, backlog and worker count come from -Dserver.port, -Dserver.backlog and -Dserver.threads;
+    // server.threads=0 uses an unbounded cached pool instead of a fixed one
+    private static void startServer() {
+        int port = Integer.getInteger("server.port", 8080);
+        int backlog = Integer.getInteger("server.backlog", 512);
+        int threads = Integer.getInteger("server.threads", Runtime.getRuntime().availableProcessors() * 2);
+
+        AtomicInteger workerCount = new AtomicInteger();
+        ThreadFactory workerFactory = runnable -> new Thread(runnable, "http-worker-" + workerCount.incrementAndGet());
+        ExecutorService executor = threads > 0
+            ? Executors.newFixedThreadPool(threads, workerFactory)
+            : Executors.newCachedThreadPool(workerFactory);
+
+        try {
+            ReservationServer server = new ReservationServer(new InetSocketAddress(port), backlog, executor);
+            server.start();
+            System.out.println("HTTP server listening on port " + server.getAddress().getPort()
+                + " with " + (threads > 0 ? threads + " worker threads" : "a cached worker pool"));
+
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.stop(1);
+                executor.shutdown();
+                try {
+                    executor.awaitTermination(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                BookingPipeline.getInstance().shutdown();
+                DatabaseManager.getInstance().closeConnection();
+            }, "http-shutdown"));
+        } catch (IOException e) {
+            System.out.println("Error starting HTTP server: " + e.getMessage());
+            executor.shutdown();
+        }
+    }
+
+    private static void printStartupTimings(Map<String, Long> timings, long totalNanos) {
+        StringBuilder line = new StringBuilder("Startup:");
+        for (Map.Entry<String, Long> timing : timings.entrySet()) {
+            line.append(String.format(" %s %.1f ms,", timing.getKey(), timing.getValue() / 1_000_000.0));
+        }
+        line.append(String.format(" total %.1f ms", totalNanos / 1_000_000.0));
+        System.out.println(line);
+    }
+}
@@ -1,13 +1,30 @@
 package com.busreservation.console;
 
+import com.busreservation.database.SqlTracer;
+import com.busreservation.metrics.MetricsRegistry;
 import com.busreservation.model.Bus;
 import com.busreservation.model.Booking;
+import com.busreservation.model.Departure;
+import com.busreservation.model.Itinerary;
 import com.busreservation.model.User;
+import com.busreservation.report.ReportWriter;
 import com.busreservation.service.AuthenticationService;
+import com.busreservation.service.BookingAnalytics;
 import com.busreservation.service.BusService;
 import com.busreservation.service.BookingService;
-
+import com.busreservation.service.CityAutocompleteService;
+import com.busreservation.service.FareQuoteEngine;
+import com.busreservation.service.JourneyPlannerService;
+import com.busreservation.service.RouteSearchService;
+import com.busreservation.service.SummaryService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Scanner;
@@ -17,6 +34,12 @@ public class ConsoleUI {
     private AuthenticationService authService;
     private BusService busService;
     private BookingService bookingService;
+    private RouteSearchService routeSearchService;
+    private JourneyPlannerService journeyPlannerService;
+    private CityAutocompleteService cityAutocompleteService;
+    private FareQuoteEngine fareQuoteEngine;
+    private SummaryService summaryService;
+    private BookingAnalytics bookingAnalytics;
     private boolean running;
 
     public ConsoleUI() {
@@ -24,6 +47,12 @@ public class ConsoleUI {
         this.authService = new AuthenticationService();
         this.busService = new BusService();
         this.bookingService = new BookingService();
+        this.routeSearchService = RouteSearchService.getInstance();
+        this.journeyPlannerService = JourneyPlannerService.getInstance();
+        this.cityAutocompleteService = CityAutocompleteService.getInstance();
+        this.fareQuoteEngine = FareQuoteEngine.getInstance();
+        this.summaryService = new SummaryService();
+        this.bookingAnalytics = BookingAnalytics.getInstance();
         this.running = true;
     }
 
@@ -52,7 +81,8 @@ public class ConsoleUI {
         System.out.println("1. Login");
         System.out.println("2. Register");
         System.out.println("3. View Available Buses");
-        System.out.println("4. Exit");
+        System.out.println("4. Search Routes");
+        System.out.println("5. Exit");
         System.out.print("Enter your choice: ");
 
         int choice = getIntInput();
@@ -68,6 +98,9 @@ public class ConsoleUI {
                 showAvailableBuses();
                 break;
             case 4:
+                handleSearchRoutes();
+                break;
+            case 5:
                 running = false;
                 System.out.println("Thank you for using Bus Reservation System!");
                 break;
@@ -79,11 +112,12 @@ public class ConsoleUI {
     private void showCustomerMenu() {
         System.out.println("\n=== Customer Menu ===");
         System.out.println("1. View Available Buses");
-        System.out.println("2. Book a Ticket");
-        System.out.println("3. View My Bookings");
-        System.out.println("4. Cancel Booking");
-        System.out.println("5. Update Profile");
-        System.out.println("6. Logout");
+        System.out.println("2. Search Routes");
+        System.out.println("3. Book a Ticket");
+        System.out.println("4. View My Bookings");
+        System.out.println("5. Cancel Booking");
+        System.out.println("6. Update Profile");
+        System.out.println("7. Logout");
         System.out.print("Enter your choice: ");
 
         int choice = getIntInput();
@@ -93,18 +127,21 @@ public class ConsoleUI {
                 showAvailableBuses();
                 break;
             case 2:
-                handleBooking();
+                handleSearchRoutes();
                 break;
             case 3:
-                showUserBookings();
+                handleBooking();
                 break;
             case 4:
-                handleCancelBooking();
+                showUserBookings();
                 break;
             case 5:
-                handleUpdateProfile();
+                handleCancelBooking();
                 break;
             case 6:
+                handleUpdateProfile();
+                break;
+            case 7:
                 authService.logoutUser();
                 break;
             default:
@@ -121,7 +158,10 @@ public class ConsoleUI {
         System.out.println("5. View All Bookings");
         System.out.println("6. View Bus Seat Layout");
         System.out.println("7. Create Admin User");
-        System.out.println("8. Logout");
+        System.out.println("8. View Performance Metrics");
+        System.out.println("9. Revenue & Occupancy Report");
+        System.out.println("10. Booking Analytics");
+        System.out.println("11. Logout");
         System.out.print("Enter your choice: ");
 
         int choice = getIntInput();
@@ -149,6 +189,15 @@ public class ConsoleUI {
                 handleCreateAdmin();
                 break;
             case 8:
+                showMetrics();
+                break;
+            case 9:
+                showSummaryReport();
+                break;
+            case 10:
+                showBookingAnalytics();
+                break;
+            case 11:
                 authService.logoutUser();
                 break;
             default:
@@ -211,6 +260,124 @@ public class ConsoleUI {
         System.out.println("=" + "=".repeat(90) + "\n");
     }
 
+    private void handleSearchRoutes() {
+        String source = readCity("From: ");
+        String destination = readCity("To: ");
+        
+        System.out.print("Travel date (yyyy-MM-dd): ");
+        String dateStr = scanner.nextLine();
+        
+        LocalDate travelDate;
+        try {
+            travelDate = LocalDate.parse(dateStr.trim());
+        } catch (Exception e) {
+            System.out.println("Invalid date format!");
+            return;
+        }
+
+        System.out.print("Departure window (HH:mm-HH:mm, or press Enter for all day): ");
+        String window = scanner.nextLine().trim();
+        
+        List<Departure> departures;
+        if (window.isEmpty()) {
+            departures = routeSearchService.search(source, destination, travelDate);
+        } else {
+            String[] bounds = window.split("-");
+            try {
+                departures = routeSearchService.searchBetween(source, destination, travelDate,
+                    LocalTime.parse(bounds[0].trim()), LocalTime.parse(bounds[1].trim()));
+            } catch (Exception e) {
+                System.out.println("Invalid time window!");
+                return;
+            }
+        }
+
+        if (departures.isEmpty()) {
+            showConnections(source, destination, travelDate);
+            return;
+        }
+
+        double[] fares = fareQuoteEngine.quoteAll(departures);
+
+        System.out.println("\n=== Departures on " + travelDate + " (" + travelDate.getDayOfWeek() + ") ===");
+        System.out.printf("%-10s %-8s %-20s %-20s %-10s %-10s %-8s%n", 
+                         "Schedule", "Bus ID", "From", "To", "Departs", "Arrives", "Fare");
+        System.out.println("=" + "=".repeat(90));
+
+        for (int i = 0; i < departures.size(); i++) {
+            Departure departure = departures.get(i);
+            System.out.printf("%-10d %-8d %-20s %-20s %-10s %-10s $%-7.2f%n",
+                             departure.getScheduleId(),
+                             departure.getBusId(),
+                             departure.getSource(),
+                             departure.getDestination(),
+                             departure.getDepartureTime(),
+                             departure.getArrivalTime(),
+                             fares[i]);
+        }
+        System.out.println("=" + "=".repeat(90) + "\n");
+    }
+
+    private String readCity(String prompt) {
+        System.out.print(prompt);
+        String city = scanner.nextLine();
+        if (cityAutocompleteService.isKnownCity(city)) {
+            return city;
+        }
+
+        List<String> suggestions = cityAutocompleteService.suggest(city, 5);
+        if (suggestions.isEmpty()) {
+            return city;
+        }
+
+        System.out.println("Did you mean:");
+        for (int i = 0; i < suggestions.size(); i++) {
+            System.out.println("  " + (i + 1) + ". " + suggestions.get(i));
+        }
+        System.out.print("Choose a number (or press Enter to keep \"" + city + "\"): ");
+        String choice = scanner.nextLine().trim();
+        try {
+            int index = Integer.parseInt(choice) - 1;
+            if (index >= 0 && index < suggestions.size()) {
+                return suggestions.get(index);
+            }
+        } catch (NumberFormatException e) {
+            // Keep what the user typed
+        }
+        return city;
+    }
+
+    private void showConnections(String source, String destination, LocalDate travelDate) {
+        List<Itinerary> itineraries = journeyPlannerService.plan(source, destination, travelDate, null, 2, 30);
+        if (itineraries.isEmpty()) {
+            System.out.println("No departures found from " + source + " to " + destination + " on " + travelDate + ".");
+            return;
+        }
+
+        System.out.println("\nNo direct departures. Connections on " + travelDate + ":");
+        int option = 1;
+        for (Itinerary itinerary : itineraries) {
+            System.out.printf("%nOption %d: %s -> %s, %d transfer(s), %dh %02dm, $%.2f%n",
+                             option++,
+                             itinerary.getDepartureTime(),
+                             itinerary.getArrivalTime(),
+                             itinerary.getTransfers(),
+                             itinerary.getDurationMinutes() / 60,
+                             itinerary.getDurationMinutes() % 60,
+                             itinerary.getTotalFare());
+            for (Departure leg : itinerary.getLegs()) {
+                System.out.printf("  Bus %-5d %-20s %s -> %-20s %s (schedule %d)%n",
+                                 leg.getBusId(),
+                                 leg.getSource(),
+                                 leg.getDepartureTime(),
+                                 leg.getDestination(),
+                                 leg.getArrivalTime(),
+                                 leg.getScheduleId());
+            }
+        }
+        System.out.println();
+    }
+
     private void showAllBuses() {
         List<Bus> buses = busService.getAllBuses();
         
@@ -275,7 +442,7 @@ public class ConsoleUI {
         }
 
         // Calculate fare
-        double fare = bookingService.calculateFare(busId, 1, bus.getBusType());
+        double fare = bookingService.calculateFare(busId, 1, 1, travelDate);
         
         System.out.println("Fare: $" + String.format("%.2f", fare));
         System.out.print("Confirm booking? (y/n): ");
@@ -296,7 +463,21 @@ public class ConsoleUI {
     }
 
     private void showAllBookings() {
-        bookingService.displayAllBookings();
+        System.out.print("Save to file (leave blank to print): ");
+        String fileName = scanner.nextLine().trim();
+        if (fileName.isEmpty()) {
+            bookingService.displayAllBookings();
+            return;
+        }
+
+        Path path = Paths.get(fileName);
+        try (ReportWriter out = ReportWriter.toFile(path)) {
+            bookingService.displayAllBookings(out);
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Could not write " + path + ": " + e.getMessage());
+            return;
+        }
+        System.out.println("Bookings saved to " + path.toAbsolutePath());
     }
 
     private void handleCancelBooking() {
@@ -306,7 +487,7 @@ public class ConsoleUI {
         System.out.print("Enter booking ID to cancel: ");
         int bookingId = getIntInput();
         
-        bookingService.cancelBooking(bookingId, currentUser.getId());
+        bookingService.cancelBooking(authService.getCurrentSession(), bookingId);
     }
 
     private void handleUpdateProfile() {
@@ -458,6 +639,83 @@ public class ConsoleUI {
         authService.createAdminUser(username, email, password, fullName, phoneNumber);
     }
 
+    private void showSummaryReport() {
+        LocalDate today = LocalDate.now();
+        LocalDate from = readDate("From date (yyyy-MM-dd, Enter for 30 days ago): ", today.minusDays(30));
+        if (from == null) {
+            return;
+        }
+        LocalDate to = readDate("To date (yyyy-MM-dd, Enter for 30 days ahead): ", today.plusDays(30));
+        if (to == null) {
+            return;
+        }
+        if (to.isBefore(from)) {
+            System.out.println("To date must not be before from date!");
+            return;
+        }
+        summaryService.displaySummaryReport(from, to);
+    }
+
+    private void showBookingAnalytics() {
+        BookingAnalytics.Dimension[] dimensions = BookingAnalytics.Dimension.values();
+        System.out.println("\nGroup bookings by:");
+        for (int i = 0; i < dimensions.length; i++) {
+            System.out.println((i + 1) + ". " + dimensions[i].getTitle());
+        }
+        System.out.print("Enter your choice: ");
+        int choice = getIntInput();
+        if (choice < 1 || choice > dimensions.length) {
+            System.out.println("Invalid choice!");
+            return;
+        }
+        
+        LocalDate from = readDate("From travel date (yyyy-MM-dd, Enter for no limit): ", LocalDate.MIN);
+        if (from == null) {
+            return;
+        }
+        LocalDate to = readDate("To travel date (yyyy-MM-dd, Enter for no limit): ", LocalDate.MAX);
+        if (to == null) {
+            return;
+        }
+        if (to.isBefore(from)) {
+            System.out.println("To date must not be before from date!");
+            return;
+        }
+        bookingAnalytics.displayReport(dimensions[choice - 1],
+                                       from.equals(LocalDate.MIN) ? null : from,
+                                       to.equals(LocalDate.MAX) ? null : to);
+    }
+
+    // Blank input gives the default; null means the input was not a date
+    private LocalDate readDate(String prompt, LocalDate defaultDate) {
+        System.out.print(prompt);
+        String input = scanner.nextLine().trim();
+        if (input.isEmpty()) {
+            return defaultDate;
+        }
+        try {
+            return LocalDate.parse(input);
+        } catch (Exception e) {
+            System.out.println("Invalid date format!");
+            return null;
+        }
+    }
+
+    private void showMetrics() {
+        System.out.println("\n=== Performance Metrics (latencies in ms) ===");
+        System.out.print(MetricsRegistry.getInstance().formatReport());
+        
+        System.out.println("\n=== Most Expensive SQL Statements ===");
+        System.out.print(SqlTracer.getInstance().formatTopStatements(10));
+        
+        System.out.print("Reset counters? (y/n): ");
+        if ("y".equalsIgnoreCase(scanner.nextLine().trim())) {
+            MetricsRegistry.getInstance().reset();
+            SqlTracer.getInstance().reset();
+            System.out.println("Metrics reset.");
+        }
+    }
+
     private int getIntInput() {
         while (true) {
             try {
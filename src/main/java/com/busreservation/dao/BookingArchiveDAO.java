@@ -0,0 +1,167 @@
+package com.busreservation.dao;
+
+import com.busreservation.metrics.MetricsRegistry;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+// Moves finished bookings out of the live table into one archive table per travel month, on a caller-managed
+// transaction. The booking_archives catalog lists the partitions and the booking_history view unions them
+// with the live table; BookingDAO reads history through both.
+public class BookingArchiveDAO {
+    private static final String COLUMNS = "id, user_id, bus_id, schedule_id, seat_number, passenger_name, passenger_phone, " +
+                                  "fare, status, booking_date, travel_date, created_at, updated_at";
+    // Only bookings that can no longer change are archived
+    private static final String FINISHED = "status IN ('COMPLETED', 'CANCELLED')";
+
+    private MetricsRegistry metrics;
+
+    public BookingArchiveDAO() {
+        this.metrics = MetricsRegistry.getInstance();
+    }
+
+    // Travel months that hold finished bookings from before the cutoff, oldest first
+    public List<YearMonth> findArchivableMonths(Connection conn, LocalDateTime cutoff) throws SQLException {
+        long start = System.nanoTime();
+        String sql = "SELECT DISTINCT strftime('%Y-%m', travel_date / 1000, 'unixepoch', 'localtime') AS month " +
+                     "FROM bookings WHERE travel_date < ? AND " + FINISHED + " ORDER BY month";
+        List<YearMonth> months = new ArrayList<>();
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setTimestamp(1, Timestamp.valueOf(cutoff));
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                months.add(YearMonth.parse(rs.getString("month")));
+            }
+            return months;
+        } catch (SQLException e) {
+            metrics.recordError("BookingArchiveDAO.findArchivableMonths");
+            throw e;
+        } finally {
+            metrics.record("BookingArchiveDAO.findArchivableMonths", start);
+        }
+    }
+
+    // Moves the month's finished bookings from before the cutoff into its partition; returns how many moved
+    public int archiveMonth(Connection conn, YearMonth month, LocalDateTime cutoff) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return moveMonth(conn, month, cutoff);
+        } catch (SQLException e) {
+            metrics.recordError("BookingArchiveDAO.archiveMonth");
+            throw e;
+        } finally {
+            metrics.record("BookingArchiveDAO.archiveMonth", start);
+        }
+    }
+
+    // Archive tables in month order
+    static List<String> partitionTables(Connection conn) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT table_name FROM booking_archives ORDER BY partition_month")) {
+            while (rs.next()) {
+                tables.add(rs.getString("table_name"));
+            }
+        }
+        return tables;
+    }
+
+    private int moveMonth(Connection conn, YearMonth month, LocalDateTime cutoff) throws SQLException {
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime monthEnd = month.plusMonths(1).atDay(1).atStartOfDay();
+        LocalDateTime to = cutoff.isBefore(monthEnd) ? cutoff : monthEnd;
+        String table = "bookings_archive_" + month.toString().replace('-', '_');
+        boolean newPartition = createPartition(conn, month, table);
+
+        String range = " WHERE travel_date >= ? AND travel_date < ? AND " + FINISHED;
+        int copied;
+        int deleted;
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("INSERT INTO booking_archive_guard (id) VALUES (1)");
+        }
+        try (PreparedStatement copy = conn.prepareStatement(
+                 "INSERT INTO " + table + " (" + COLUMNS + ") SELECT " + COLUMNS + " FROM bookings" + range);
+             PreparedStatement delete = conn.prepareStatement("DELETE FROM bookings" + range)) {
+            copy.setTimestamp(1, Timestamp.valueOf(from));
+            copy.setTimestamp(2, Timestamp.valueOf(to));
+            copied = copy.executeUpdate();
+            delete.setTimestamp(1, Timestamp.valueOf(from));
+            delete.setTimestamp(2, Timestamp.valueOf(to));
+            deleted = delete.executeUpdate();
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM booking_archive_guard");
+        }
+        if (copied != deleted) {
+            throw new SQLException("Archived " + copied + " bookings for " + month + " but removed " + deleted);
+        }
+
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                 "UPDATE booking_archives SET booking_count = booking_count + ?, archived_at = ? WHERE partition_month = ?")) {
+            pstmt.setInt(1, copied);
+            pstmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+            pstmt.setString(3, month.toString());
+            pstmt.executeUpdate();
+        }
+        if (newPartition) {
+            rebuildHistoryView(conn);
+        }
+        return copied;
+    }
+
+    // Creates the month's table and catalog entry if needed; true when the partition is new
+    private boolean createPartition(Connection conn, YearMonth month, String table) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                 "INSERT OR IGNORE INTO booking_archives (partition_month, table_name) VALUES (?, ?)")) {
+            pstmt.setString(1, month.toString());
+            pstmt.setString(2, table);
+            if (pstmt.executeUpdate() == 0) {
+                return false;
+            }
+        }
+
+        String[] ddl = {
+            "CREATE TABLE IF NOT EXISTS " + table + " (" +
+            "id INTEGER PRIMARY KEY," +
+            "user_id INTEGER NOT NULL," +
+            "bus_id INTEGER NOT NULL," +
+            "schedule_id INTEGER NOT NULL," +
+            "seat_number INTEGER NOT NULL," +
+            "passenger_name VARCHAR(100) NOT NULL," +
+            "passenger_phone VARCHAR(20) NOT NULL," +
+            "fare DECIMAL(10,2) NOT NULL," +
+            "status VARCHAR(20)," +
+            "booking_date TIMESTAMP," +
+            "travel_date TIMESTAMP NOT NULL," +
+            "created_at TIMESTAMP," +
+            "updated_at TIMESTAMP" +
+            ")",
+            // The same orderings as the live table, so paged history reads stay index-driven
+            "CREATE INDEX IF NOT EXISTS idx_" + table + "_user ON " + table + " (user_id)",
+            "CREATE INDEX IF NOT EXISTS idx_" + table + "_bus ON " + table + " (bus_id)",
+            "CREATE INDEX IF NOT EXISTS idx_" + table + "_travel_date ON " + table + " (travel_date)"
+        };
+        try (Statement stmt = conn.createStatement()) {
+            for (String statement : ddl) {
+                stmt.execute(statement);
+            }
+        }
+        return true;
+    }
+
+    private void rebuildHistoryView(Connection conn) throws SQLException {
+        StringBuilder sql = new StringBuilder("CREATE VIEW booking_history AS SELECT ")
+            .append(COLUMNS).append(" FROM bookings");
+        for (String table : partitionTables(conn)) {
+            sql.append(" UNION ALL SELECT ").append(COLUMNS).append(" FROM ").append(table);
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP VIEW IF EXISTS booking_history");
+            stmt.execute(sql.toString());
+        }
+    }
+}
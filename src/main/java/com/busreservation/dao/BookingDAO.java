@@ -1,25 +1,42 @@
 package com.busreservation.dao;
 
 import com.busreservation.database.DatabaseManager;
+import com.busreservation.metrics.MetricsRegistry;
 import com.busreservation.model.Booking;
+import com.busreservation.model.TripOccupancy;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class BookingDAO {
     private DatabaseManager dbManager;
+    private MetricsRegistry metrics;
 
     public BookingDAO() {
         this.dbManager = DatabaseManager.getInstance();
+        this.metrics = MetricsRegistry.getInstance();
     }
 
     public boolean createBooking(Booking booking) {
+        long start = System.nanoTime();
+        try (Connection conn = dbManager.getConnection()) {
+            return createBooking(conn, booking);
+        } catch (SQLException e) {
+            metrics.recordError("BookingDAO.createBooking");
+            System.err.println("Error creating booking: " + e.getMessage());
+        } finally {
+            metrics.record("BookingDAO.createBooking", start);
+        }
+        return false;
+    }
+
+    public boolean createBooking(Connection conn, Booking booking) throws SQLException {
         String sql = "INSERT INTO bookings (user_id, bus_id, schedule_id, seat_number, passenger_name, passenger_phone, fare, status, booking_date, travel_date, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
         
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             pstmt.setInt(1, booking.getUserId());
             pstmt.setInt(2, booking.getBusId());
@@ -44,17 +61,27 @@ public class BookingDAO {
                 }
                 return true;
             }
-        } catch (SQLException e) {
-            System.err.println("Error creating booking: " + e.getMessage());
         }
         return false;
     }
 
     public Booking getBookingById(int id) {
-        String sql = "SELECT * FROM bookings WHERE id = ?";
+        long start = System.nanoTime();
+        try (Connection conn = dbManager.getConnection()) {
+            return getBookingById(conn, id);
+        } catch (SQLException e) {
+            metrics.recordError("BookingDAO.getBookingById");
+            System.err.println("Error getting booking by ID: " + e.getMessage());
+        } finally {
+            metrics.record("BookingDAO.getBookingById", start);
+        }
+        return null;
+    }
+
+    public Booking getBookingById(Connection conn, int id) throws SQLException {
+        String sql = "SELECT * FROM booking_history WHERE id = ?";
         
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, id);
             ResultSet rs = pstmt.executeQuery();
@@ -62,14 +89,13 @@ public class BookingDAO {
             if (rs.next()) {
                 return mapResultSetToBooking(rs);
             }
-        } catch (SQLException e) {
-            System.err.println("Error getting booking by ID: " + e.getMessage());
         }
         return null;
     }
 
     public List<Booking> getBookingsByUserId(int userId) {
-        String sql = "SELECT * FROM bookings WHERE user_id = ? ORDER BY created_at DESC";
+        long start = System.nanoTime();
+        String sql = "SELECT * FROM booking_history WHERE user_id = ? ORDER BY created_at DESC";
         List<Booking> bookings = new ArrayList<>();
         
         try (Connection conn = dbManager.getConnection();
@@ -82,13 +108,17 @@ public class BookingDAO {
                 bookings.add(mapResultSetToBooking(rs));
             }
         } catch (SQLException e) {
+            metrics.recordError("BookingDAO.getBookingsByUserId");
             System.err.println("Error getting bookings by user ID: " + e.getMessage());
+        } finally {
+            metrics.record("BookingDAO.getBookingsByUserId", start);
         }
         return bookings;
     }
 
     public List<Booking> getAllBookings() {
-        String sql = "SELECT * FROM bookings ORDER BY created_at DESC";
+        long start = System.nanoTime();
+        String sql = "SELECT * FROM booking_history ORDER BY created_at DESC";
         List<Booking> bookings = new ArrayList<>();
         
         try (Connection conn = dbManager.getConnection();
@@ -99,13 +129,113 @@ public class BookingDAO {
                 bookings.add(mapResultSetToBooking(rs));
             }
         } catch (SQLException e) {
+            metrics.recordError("BookingDAO.getAllBookings");
             System.err.println("Error getting all bookings: " + e.getMessage());
+        } finally {
+            metrics.record("BookingDAO.getAllBookings", start);
+        }
+        return bookings;
+    }
+
+    // Streams every booking in id order without holding the whole table in memory; returns how many were read
+    public int forEachBooking(Consumer<Booking> action) {
+        long start = System.nanoTime();
+        String sql = "SELECT * FROM booking_history ORDER BY id";
+        int count = 0;
+        
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            
+            while (rs.next()) {
+                action.accept(mapResultSetToBooking(rs));
+                count++;
+            }
+        } catch (SQLException e) {
+            metrics.recordError("BookingDAO.forEachBooking");
+            System.err.println("Error scanning bookings: " + e.getMessage());
+        } finally {
+            metrics.record("BookingDAO.forEachBooking", start);
+        }
+        return count;
+    }
+
+    // Number of bookings, for one user or for everyone when userId is null
+    public int countBookings(Integer userId) {
+        long start = System.nanoTime();
+        String sql = "SELECT COUNT(*) FROM booking_history" + (userId != null ? " WHERE user_id = ?" : "");
+        
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            if (userId != null) {
+                pstmt.setInt(1, userId);
+            }
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            metrics.recordError("BookingDAO.countBookings");
+            System.err.println("Error counting bookings: " + e.getMessage());
+        } finally {
+            metrics.record("BookingDAO.countBookings", start);
+        }
+        return 0;
+    }
+
+    // One page of bookings in the given order, across the live table and every archive partition. Each
+    // partition contributes its own first offset + limit ids from its index, only those are merged and
+    // sorted, and only the page's rows are read, so a deep offset skips index entries rather than whole bookings.
+    public List<Booking> getBookingPage(Integer userId, BookingSort sort, boolean descending, int offset, int limit) {
+        long start = System.nanoTime();
+        String orderBy = sort.orderBy(descending);
+        String filter = userId != null ? " WHERE user_id = ?" : "";
+        List<Booking> bookings = new ArrayList<>();
+        
+        try (Connection conn = dbManager.getConnection()) {
+            List<String> partitions = new ArrayList<>();
+            partitions.add("bookings");
+            partitions.addAll(BookingArchiveDAO.partitionTables(conn));
+            
+            StringBuilder candidates = new StringBuilder();
+            for (String table : partitions) {
+                if (candidates.length() > 0) {
+                    candidates.append(" UNION ALL ");
+                }
+                candidates.append("SELECT * FROM (SELECT id, user_id, bus_id, travel_date FROM ").append(table)
+                          .append(filter).append(" ORDER BY ").append(orderBy).append(" LIMIT ?)");
+            }
+            // Materialized so the view's partitions share one list of page ids instead of each re-running the merge
+            String sql = "WITH page AS MATERIALIZED (SELECT id FROM (" + candidates + ") ORDER BY " + orderBy +
+                         " LIMIT ? OFFSET ?) SELECT * FROM booking_history WHERE id IN (SELECT id FROM page) ORDER BY " + orderBy;
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                int index = 1;
+                for (int i = 0; i < partitions.size(); i++) {
+                    if (userId != null) {
+                        pstmt.setInt(index++, userId);
+                    }
+                    pstmt.setInt(index++, offset + limit);
+                }
+                pstmt.setInt(index++, limit);
+                pstmt.setInt(index, offset);
+                ResultSet rs = pstmt.executeQuery();
+                
+                while (rs.next()) {
+                    bookings.add(mapResultSetToBooking(rs));
+                }
+            }
+        } catch (SQLException e) {
+            metrics.recordError("BookingDAO.getBookingPage");
+            System.err.println("Error getting booking page: " + e.getMessage());
+        } finally {
+            metrics.record("BookingDAO.getBookingPage", start);
         }
         return bookings;
     }
 
     public List<Booking> getBookingsByBusId(int busId) {
-        String sql = "SELECT * FROM bookings WHERE bus_id = ? ORDER BY created_at DESC";
+        long start = System.nanoTime();
+        String sql = "SELECT * FROM booking_history WHERE bus_id = ? ORDER BY created_at DESC";
         List<Booking> bookings = new ArrayList<>();
         
         try (Connection conn = dbManager.getConnection();
@@ -118,12 +248,16 @@ public class BookingDAO {
                 bookings.add(mapResultSetToBooking(rs));
             }
         } catch (SQLException e) {
+            metrics.recordError("BookingDAO.getBookingsByBusId");
             System.err.println("Error getting bookings by bus ID: " + e.getMessage());
+        } finally {
+            metrics.record("BookingDAO.getBookingsByBusId", start);
         }
         return bookings;
     }
 
     public boolean updateBooking(Booking booking) {
+        long start = System.nanoTime();
         String sql = "UPDATE bookings SET user_id = ?, bus_id = ?, schedule_id = ?, seat_number = ?, passenger_name = ?, passenger_phone = ?, fare = ?, status = ?, booking_date = ?, travel_date = ?, updated_at = ? WHERE id = ?";
         
         try (Connection conn = dbManager.getConnection();
@@ -144,28 +278,41 @@ public class BookingDAO {
             
             return pstmt.executeUpdate() > 0;
         } catch (SQLException e) {
+            metrics.recordError("BookingDAO.updateBooking");
             System.err.println("Error updating booking: " + e.getMessage());
+        } finally {
+            metrics.record("BookingDAO.updateBooking", start);
         }
         return false;
     }
 
     public boolean cancelBooking(int bookingId) {
+        long start = System.nanoTime();
+        try (Connection conn = dbManager.getConnection()) {
+            return cancelBooking(conn, bookingId);
+        } catch (SQLException e) {
+            metrics.recordError("BookingDAO.cancelBooking");
+            System.err.println("Error cancelling booking: " + e.getMessage());
+        } finally {
+            metrics.record("BookingDAO.cancelBooking", start);
+        }
+        return false;
+    }
+
+    public boolean cancelBooking(Connection conn, int bookingId) throws SQLException {
         String sql = "UPDATE bookings SET status = 'CANCELLED', updated_at = ? WHERE id = ?";
         
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
             pstmt.setInt(2, bookingId);
             
             return pstmt.executeUpdate() > 0;
-        } catch (SQLException e) {
-            System.err.println("Error cancelling booking: " + e.getMessage());
         }
-        return false;
     }
 
     public boolean deleteBooking(int id) {
+        long start = System.nanoTime();
         String sql = "DELETE FROM bookings WHERE id = ?";
         
         try (Connection conn = dbManager.getConnection();
@@ -174,16 +321,31 @@ public class BookingDAO {
             pstmt.setInt(1, id);
             return pstmt.executeUpdate() > 0;
         } catch (SQLException e) {
+            metrics.recordError("BookingDAO.deleteBooking");
             System.err.println("Error deleting booking: " + e.getMessage());
+        } finally {
+            metrics.record("BookingDAO.deleteBooking", start);
         }
         return false;
     }
 
     public boolean isSeatAvailable(int busId, int seatNumber, LocalDateTime travelDate) {
+        long start = System.nanoTime();
+        try (Connection conn = dbManager.getConnection()) {
+            return isSeatAvailable(conn, busId, seatNumber, travelDate);
+        } catch (SQLException e) {
+            metrics.recordError("BookingDAO.isSeatAvailable");
+            System.err.println("Error checking seat availability: " + e.getMessage());
+        } finally {
+            metrics.record("BookingDAO.isSeatAvailable", start);
+        }
+        return false;
+    }
+
+    public boolean isSeatAvailable(Connection conn, int busId, int seatNumber, LocalDateTime travelDate) throws SQLException {
         String sql = "SELECT COUNT(*) FROM bookings WHERE bus_id = ? AND seat_number = ? AND travel_date = ? AND status = 'CONFIRMED'";
         
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, busId);
             pstmt.setInt(2, seatNumber);
@@ -193,12 +355,38 @@ public class BookingDAO {
             if (rs.next()) {
                 return rs.getInt(1) == 0;
             }
-        } catch (SQLException e) {
-            System.err.println("Error checking seat availability: " + e.getMessage());
         }
         return false;
     }
 
+    public List<TripOccupancy> getConfirmedSeatCountsByTrip(LocalDateTime fromTravelDate) {
+        long start = System.nanoTime();
+        String sql = "SELECT bus_id, schedule_id, travel_date, COUNT(*) AS booked FROM bookings " +
+                     "WHERE status = 'CONFIRMED' AND travel_date >= ? GROUP BY bus_id, schedule_id, travel_date";
+        List<TripOccupancy> trips = new ArrayList<>();
+        
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setTimestamp(1, Timestamp.valueOf(fromTravelDate));
+            ResultSet rs = pstmt.executeQuery();
+            
+            while (rs.next()) {
+                Timestamp travelDate = rs.getTimestamp("travel_date");
+                if (travelDate != null) {
+                    trips.add(new TripOccupancy(rs.getInt("bus_id"), rs.getInt("schedule_id"),
+                                                travelDate.toLocalDateTime().toLocalDate(), rs.getInt("booked")));
+                }
+            }
+        } catch (SQLException e) {
+            metrics.recordError("BookingDAO.getConfirmedSeatCountsByTrip");
+            System.err.println("Error getting seat counts by trip: " + e.getMessage());
+        } finally {
+            metrics.record("BookingDAO.getConfirmedSeatCountsByTrip", start);
+        }
+        return trips;
+    }
+
     private Booking mapResultSetToBooking(ResultSet rs) throws SQLException {
         Booking booking = new Booking();
         booking.setId(rs.getInt("id"));
@@ -0,0 +1,174 @@
+package com.busreservation.dao;
+
+import com.busreservation.database.DatabaseManager;
+import com.busreservation.metrics.MetricsRegistry;
+import com.busreservation.model.Booking;
+import com.busreservation.model.BookingEvent;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BookingEventDAO {
+    private DatabaseManager dbManager;
+    private MetricsRegistry metrics;
+
+    public BookingEventDAO() {
+        this.dbManager = DatabaseManager.getInstance();
+        this.metrics = MetricsRegistry.getInstance();
+    }
+
+    public List<BookingEvent> getEventsAfter(long seq, int limit) {
+        long start = System.nanoTime();
+        String sql = "SELECT * FROM booking_events WHERE seq > ? ORDER BY seq LIMIT ?";
+        List<BookingEvent> events = new ArrayList<>();
+
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setLong(1, seq);
+            pstmt.setInt(2, limit);
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                events.add(mapResultSetToEvent(rs));
+            }
+        } catch (SQLException e) {
+            metrics.recordError("BookingEventDAO.getEventsAfter");
+            System.err.println("Error getting booking events: " + e.getMessage());
+        } finally {
+            metrics.record("BookingEventDAO.getEventsAfter", start);
+        }
+        return events;
+    }
+
+    // Sequence number of the newest event, or 0 when the log is empty
+    public long getLastSeq() {
+        long start = System.nanoTime();
+        String sql = "SELECT COALESCE(MAX(seq), 0) FROM booking_events";
+
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            if (rs.next()) {
+                return rs.getLong(1);
+            }
+        } catch (SQLException e) {
+            metrics.recordError("BookingEventDAO.getLastSeq");
+            System.err.println("Error getting last booking event: " + e.getMessage());
+        } finally {
+            metrics.record("BookingEventDAO.getLastSeq", start);
+        }
+        return 0;
+    }
+
+    public List<BookingEvent> getEventsForBooking(int bookingId) {
+        long start = System.nanoTime();
+        String sql = "SELECT * FROM booking_events WHERE booking_id = ? ORDER BY seq";
+        List<BookingEvent> events = new ArrayList<>();
+
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, bookingId);
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                events.add(mapResultSetToEvent(rs));
+            }
+        } catch (SQLException e) {
+            metrics.recordError("BookingEventDAO.getEventsForBooking");
+            System.err.println("Error getting booking history: " + e.getMessage());
+        } finally {
+            metrics.record("BookingEventDAO.getEventsForBooking", start);
+        }
+        return events;
+    }
+
+    // The most recent snapshot, or null when none has been taken yet
+    public Snapshot getLatestSnapshot() {
+        long start = System.nanoTime();
+        String sql = "SELECT last_seq, data FROM booking_snapshots ORDER BY id DESC LIMIT 1";
+
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            if (rs.next()) {
+                return new Snapshot(rs.getLong("last_seq"), rs.getBytes("data"));
+            }
+        } catch (SQLException e) {
+            metrics.recordError("BookingEventDAO.getLatestSnapshot");
+            System.err.println("Error getting booking snapshot: " + e.getMessage());
+        } finally {
+            metrics.record("BookingEventDAO.getLatestSnapshot", start);
+        }
+        return null;
+    }
+
+    // Saves the snapshot and drops all but the previous one
+    public boolean saveSnapshot(long lastSeq, int bookingCount, byte[] data) {
+        long start = System.nanoTime();
+        String insertSql = "INSERT INTO booking_snapshots (last_seq, booking_count, data) VALUES (?, ?, ?)";
+        String pruneSql = "DELETE FROM booking_snapshots WHERE id < (SELECT MAX(id) FROM booking_snapshots) - 1";
+
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement insert = conn.prepareStatement(insertSql);
+             PreparedStatement prune = conn.prepareStatement(pruneSql)) {
+
+            insert.setLong(1, lastSeq);
+            insert.setInt(2, bookingCount);
+            insert.setBytes(3, data);
+            insert.executeUpdate();
+            prune.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            metrics.recordError("BookingEventDAO.saveSnapshot");
+            System.err.println("Error saving booking snapshot: " + e.getMessage());
+        } finally {
+            metrics.record("BookingEventDAO.saveSnapshot", start);
+        }
+        return false;
+    }
+
+    private BookingEvent mapResultSetToEvent(ResultSet rs) throws SQLException {
+        Booking booking = new Booking();
+        booking.setId(rs.getInt("booking_id"));
+        booking.setUserId(rs.getInt("user_id"));
+        booking.setBusId(rs.getInt("bus_id"));
+        booking.setScheduleId(rs.getInt("schedule_id"));
+        booking.setSeatNumber(rs.getInt("seat_number"));
+        booking.setPassengerName(rs.getString("passenger_name"));
+        booking.setPassengerPhone(rs.getString("passenger_phone"));
+        booking.setFare(rs.getDouble("fare"));
+        booking.setStatus(rs.getString("status"));
+
+        Timestamp bookingDate = rs.getTimestamp("booking_date");
+        if (bookingDate != null) {
+            booking.setBookingDate(bookingDate.toLocalDateTime());
+        }
+
+        Timestamp travelDate = rs.getTimestamp("travel_date");
+        if (travelDate != null) {
+            booking.setTravelDate(travelDate.toLocalDateTime());
+        }
+
+        Timestamp occurredAt = rs.getTimestamp("occurred_at");
+        return new BookingEvent(rs.getLong("seq"), booking.getId(), rs.getString("event_type"),
+                                occurredAt != null ? occurredAt.toLocalDateTime() : null, booking);
+    }
+
+    public static final class Snapshot {
+        private final long lastSeq;
+        private final byte[] data;
+
+        Snapshot(long lastSeq, byte[] data) {
+            this.lastSeq = lastSeq;
+            this.data = data;
+        }
+
+        public long getLastSeq() { return lastSeq; }
+        public byte[] getData() { return data; }
+    }
+}
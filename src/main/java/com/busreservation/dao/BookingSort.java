@@ -0,0 +1,20 @@
+package com.busreservation.dao;
+
+// Booking orderings the database can serve from an index; id breaks ties so pages never overlap
+public enum BookingSort {
+    ID("id"),
+    USER("user_id"),
+    BUS("bus_id"),
+    TRAVEL_DATE("travel_date");
+
+    private final String column;
+
+    BookingSort(String column) {
+        this.column = column;
+    }
+
+    String orderBy(boolean descending) {
+        String direction = descending ? " DESC" : " ASC";
+        return this == ID ? "id" + direction : column + direction + ", id" + direction;
+    }
+}
@@ -0,0 +1,101 @@
+package com.busreservation.dao;
+
+import com.busreservation.metrics.MetricsRegistry;
+import com.busreservation.model.Booking;
+import com.busreservation.model.BookingResult;
+
+import java.sql.*;
+
+// Booking and cancellation as single units of work on a caller-managed transaction
+public class BookingWriteDAO {
+    private BookingDAO bookingDAO;
+    private BusDAO busDAO;
+    private MetricsRegistry metrics;
+
+    public BookingWriteDAO() {
+        this.bookingDAO = new BookingDAO();
+        this.busDAO = new BusDAO();
+        this.metrics = MetricsRegistry.getInstance();
+    }
+
+    public BookingResult applyBooking(Connection conn, Booking booking) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return book(conn, booking);
+        } catch (SQLException e) {
+            metrics.recordError("BookingWriteDAO.applyBooking");
+            throw e;
+        } finally {
+            metrics.record("BookingWriteDAO.applyBooking", start);
+        }
+    }
+
+    public BookingResult applyCancellation(Connection conn, int bookingId, int userId) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return cancel(conn, bookingId, userId);
+        } catch (SQLException e) {
+            metrics.recordError("BookingWriteDAO.applyCancellation");
+            throw e;
+        } finally {
+            metrics.record("BookingWriteDAO.applyCancellation", start);
+        }
+    }
+
+    private BookingResult book(Connection conn, Booking booking) throws SQLException {
+        if (!bookingDAO.isSeatAvailable(conn, booking.getBusId(), booking.getSeatNumber(), booking.getTravelDate())) {
+            return new BookingResult(BookingResult.Status.CONFLICT, 0,
+                "Seat " + booking.getSeatNumber() + " is not available for the selected date!");
+        }
+        if (!bookingDAO.createBooking(conn, booking)) {
+            return new BookingResult(BookingResult.Status.ERROR, 0, "Failed to create booking.");
+        }
+        busDAO.updateSeatStatus(conn, booking.getBusId(), booking.getSeatNumber(), "OCCUPIED", booking.getId());
+
+        BookingResult result = new BookingResult(BookingResult.Status.CONFIRMED, booking.getId(),
+            "Booking created successfully! Booking ID: " + booking.getId());
+        result.setBooking(booking);
+        return result;
+    }
+
+    private BookingResult cancel(Connection conn, int bookingId, int userId) throws SQLException {
+        Booking booking = bookingDAO.getBookingById(conn, bookingId);
+        if (booking == null) {
+            return new BookingResult(BookingResult.Status.REJECTED, bookingId, "Booking not found!");
+        }
+        if (booking.getUserId() != userId) {
+            return new BookingResult(BookingResult.Status.REJECTED, bookingId, "You can only cancel your own bookings!");
+        }
+        if ("CANCELLED".equals(booking.getStatus())) {
+            return new BookingResult(BookingResult.Status.REJECTED, bookingId, "Booking is already cancelled!");
+        }
+        if ("COMPLETED".equals(booking.getStatus())) {
+            return new BookingResult(BookingResult.Status.REJECTED, bookingId, "Cannot cancel a completed booking!");
+        }
+        if (!bookingDAO.cancelBooking(conn, bookingId)) {
+            return new BookingResult(BookingResult.Status.ERROR, bookingId, "Failed to cancel booking.");
+        }
+        busDAO.updateSeatStatus(conn, booking.getBusId(), booking.getSeatNumber(), "AVAILABLE", -1);
+
+        BookingResult result = new BookingResult(BookingResult.Status.CANCELLED, bookingId, "Booking cancelled successfully!");
+        result.setBooking(booking);
+        return result;
+    }
+
+    public long getAppliedJournalSeq(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT applied_seq FROM journal_state WHERE id = 1")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    public void setAppliedJournalSeq(Connection conn, long seq) throws SQLException {
+        String sql = "INSERT INTO journal_state (id, applied_seq) VALUES (1, ?) " +
+                     "ON CONFLICT(id) DO UPDATE SET applied_seq = MAX(applied_seq, excluded.applied_seq)";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, seq);
+            pstmt.executeUpdate();
+        }
+    }
+}
@@ -1,22 +1,29 @@
 package com.busreservation.dao;
 
+import com.busreservation.database.DataChangeListener;
 import com.busreservation.database.DatabaseManager;
+import com.busreservation.metrics.MetricsRegistry;
 import com.busreservation.model.Bus;
 import com.busreservation.model.Seat;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class BusDAO {
     private DatabaseManager dbManager;
+    private MetricsRegistry metrics;
 
     public BusDAO() {
         this.dbManager = DatabaseManager.getInstance();
+        this.metrics = MetricsRegistry.getInstance();
     }
 
     public boolean createBus(Bus bus) {
+        long start = System.nanoTime();
         String sql = "INSERT INTO buses (bus_number, bus_name, bus_type, total_seats, available_seats, base_fare, status, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
         
         try (Connection conn = dbManager.getConnection();
@@ -41,15 +48,20 @@ public class BusDAO {
                         initializeSeatsForBus(bus.getId(), bus.getTotalSeats());
                     }
                 }
+                dbManager.fireDataChanged("buses", DataChangeListener.ChangeType.INSERT, bus.getId());
                 return true;
             }
         } catch (SQLException e) {
+            metrics.recordError("BusDAO.createBus");
             System.err.println("Error creating bus: " + e.getMessage());
+        } finally {
+            metrics.record("BusDAO.createBus", start);
         }
         return false;
     }
 
     public Bus getBusById(int id) {
+        long start = System.nanoTime();
         String sql = "SELECT * FROM buses WHERE id = ?";
         
         try (Connection conn = dbManager.getConnection();
@@ -64,12 +76,16 @@ public class BusDAO {
                 return bus;
             }
         } catch (SQLException e) {
+            metrics.recordError("BusDAO.getBusById");
             System.err.println("Error getting bus by ID: " + e.getMessage());
+        } finally {
+            metrics.record("BusDAO.getBusById", start);
         }
         return null;
     }
 
     public List<Bus> getAllBuses() {
+        long start = System.nanoTime();
         String sql = "SELECT * FROM buses ORDER BY created_at DESC";
         List<Bus> buses = new ArrayList<>();
         
@@ -83,12 +99,16 @@ public class BusDAO {
                 buses.add(bus);
             }
         } catch (SQLException e) {
+            metrics.recordError("BusDAO.getAllBuses");
             System.err.println("Error getting all buses: " + e.getMessage());
+        } finally {
+            metrics.record("BusDAO.getAllBuses", start);
         }
         return buses;
     }
 
     public List<Bus> getActiveBuses() {
+        long start = System.nanoTime();
         String sql = "SELECT * FROM buses WHERE status = 'ACTIVE' ORDER BY created_at DESC";
         List<Bus> buses = new ArrayList<>();
         
@@ -102,12 +122,37 @@ public class BusDAO {
                 buses.add(bus);
             }
         } catch (SQLException e) {
+            metrics.recordError("BusDAO.getActiveBuses");
             System.err.println("Error getting active buses: " + e.getMessage());
+        } finally {
+            metrics.record("BusDAO.getActiveBuses", start);
+        }
+        return buses;
+    }
+
+    public List<Bus> getAllBusesWithoutSeats() {
+        long start = System.nanoTime();
+        String sql = "SELECT * FROM buses ORDER BY id";
+        List<Bus> buses = new ArrayList<>();
+        
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            
+            while (rs.next()) {
+                buses.add(mapResultSetToBus(rs));
+            }
+        } catch (SQLException e) {
+            metrics.recordError("BusDAO.getAllBusesWithoutSeats");
+            System.err.println("Error getting buses: " + e.getMessage());
+        } finally {
+            metrics.record("BusDAO.getAllBusesWithoutSeats", start);
         }
         return buses;
     }
 
     public boolean updateBus(Bus bus) {
+        long start = System.nanoTime();
         String sql = "UPDATE buses SET bus_number = ?, bus_name = ?, bus_type = ?, total_seats = ?, available_seats = ?, base_fare = ?, status = ?, updated_at = ? WHERE id = ?";
         
         try (Connection conn = dbManager.getConnection();
@@ -123,28 +168,44 @@ public class BusDAO {
             pstmt.setTimestamp(8, Timestamp.valueOf(LocalDateTime.now()));
             pstmt.setInt(9, bus.getId());
             
-            return pstmt.executeUpdate() > 0;
+            boolean updated = pstmt.executeUpdate() > 0;
+            if (updated) {
+                dbManager.fireDataChanged("buses", DataChangeListener.ChangeType.UPDATE, bus.getId());
+            }
+            return updated;
         } catch (SQLException e) {
+            metrics.recordError("BusDAO.updateBus");
             System.err.println("Error updating bus: " + e.getMessage());
+        } finally {
+            metrics.record("BusDAO.updateBus", start);
         }
         return false;
     }
 
     public boolean deleteBus(int id) {
+        long start = System.nanoTime();
         String sql = "DELETE FROM buses WHERE id = ?";
         
         try (Connection conn = dbManager.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, id);
-            return pstmt.executeUpdate() > 0;
+            boolean deleted = pstmt.executeUpdate() > 0;
+            if (deleted) {
+                dbManager.fireDataChanged("buses", DataChangeListener.ChangeType.DELETE, id);
+            }
+            return deleted;
         } catch (SQLException e) {
+            metrics.recordError("BusDAO.deleteBus");
             System.err.println("Error deleting bus: " + e.getMessage());
+        } finally {
+            metrics.record("BusDAO.deleteBus", start);
         }
         return false;
     }
 
     public List<Seat> getSeatsForBus(int busId) {
+        long start = System.nanoTime();
         String sql = "SELECT * FROM seats WHERE bus_id = ? ORDER BY seat_number";
         List<Seat> seats = new ArrayList<>();
         
@@ -162,33 +223,40 @@ public class BusDAO {
                 seats.add(seat);
             }
         } catch (SQLException e) {
+            metrics.recordError("BusDAO.getSeatsForBus");
             System.err.println("Error getting seats for bus: " + e.getMessage());
+        } finally {
+            metrics.record("BusDAO.getSeatsForBus", start);
         }
         return seats;
     }
 
     public boolean updateSeatStatus(int busId, int seatNumber, String status, int bookingId) {
+        long start = System.nanoTime();
+        try (Connection conn = dbManager.getConnection()) {
+            return updateSeatStatus(conn, busId, seatNumber, status, bookingId);
+        } catch (SQLException e) {
+            metrics.recordError("BusDAO.updateSeatStatus");
+            System.err.println("Error updating seat status: " + e.getMessage());
+        } finally {
+            metrics.record("BusDAO.updateSeatStatus", start);
+        }
+        return false;
+    }
+
+    public boolean updateSeatStatus(Connection conn, int busId, int seatNumber, String status, int bookingId) throws SQLException {
         String sql = "UPDATE seats SET status = ?, booking_id = ? WHERE bus_id = ? AND seat_number = ?";
         
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, status);
             pstmt.setInt(2, bookingId);
             pstmt.setInt(3, busId);
             pstmt.setInt(4, seatNumber);
             
-            boolean result = pstmt.executeUpdate() > 0;
-            
-            if (result) {
-                updateAvailableSeatsCount(busId);
-            }
-            
-            return result;
-        } catch (SQLException e) {
-            System.err.println("Error updating seat status: " + e.getMessage());
+            // available_seats is adjusted by trg_seats_available_count within this statement
+            return pstmt.executeUpdate() > 0;
         }
-        return false;
     }
 
     private void initializeSeatsForBus(int busId, int totalSeats) {
@@ -208,7 +276,31 @@ public class BusDAO {
         }
     }
 
-    private void updateAvailableSeatsCount(int busId) {
+    public Map<Integer, int[]> findAvailableSeatsDrift() {
+        long start = System.nanoTime();
+        String sql = "SELECT b.id, b.available_seats, COUNT(s.id) AS actual FROM buses b " +
+                     "LEFT JOIN seats s ON s.bus_id = b.id AND s.status = 'AVAILABLE' " +
+                     "GROUP BY b.id, b.available_seats HAVING b.available_seats <> COUNT(s.id)";
+        Map<Integer, int[]> drift = new LinkedHashMap<>();
+        
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            
+            while (rs.next()) {
+                drift.put(rs.getInt("id"), new int[] {rs.getInt("available_seats"), rs.getInt("actual")});
+            }
+        } catch (SQLException e) {
+            metrics.recordError("BusDAO.findAvailableSeatsDrift");
+            System.err.println("Error checking available seats drift: " + e.getMessage());
+        } finally {
+            metrics.record("BusDAO.findAvailableSeatsDrift", start);
+        }
+        return drift;
+    }
+
+    public boolean recountAvailableSeats(int busId) {
+        long start = System.nanoTime();
         String sql = "UPDATE buses SET available_seats = (SELECT COUNT(*) FROM seats WHERE bus_id = ? AND status = 'AVAILABLE') WHERE id = ?";
         
         try (Connection conn = dbManager.getConnection();
@@ -216,10 +308,14 @@ public class BusDAO {
             
             pstmt.setInt(1, busId);
             pstmt.setInt(2, busId);
-            pstmt.executeUpdate();
+            return pstmt.executeUpdate() > 0;
         } catch (SQLException e) {
+            metrics.recordError("BusDAO.recountAvailableSeats");
             System.err.println("Error updating available seats count: " + e.getMessage());
+        } finally {
+            metrics.record("BusDAO.recountAvailableSeats", start);
         }
+        return false;
     }
 
     private Bus mapResultSetToBus(ResultSet rs) throws SQLException {
@@ -1,6 +1,8 @@
 package com.busreservation.dao;
 
+import com.busreservation.database.DataChangeListener;
 import com.busreservation.database.DatabaseManager;
+import com.busreservation.metrics.MetricsRegistry;
 import com.busreservation.model.Route;
 
 import java.sql.*;
@@ -10,12 +12,15 @@ import java.util.List;
 
 public class RouteDAO {
     private DatabaseManager dbManager;
+    private MetricsRegistry metrics;
 
     public RouteDAO() {
         this.dbManager = DatabaseManager.getInstance();
+        this.metrics = MetricsRegistry.getInstance();
     }
 
     public boolean createRoute(Route route) {
+        long start = System.nanoTime();
         String sql = "INSERT INTO routes (source, destination, distance, duration, fare_multiplier, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
         
         try (Connection conn = dbManager.getConnection();
@@ -37,15 +42,20 @@ public class RouteDAO {
                         route.setId(generatedKeys.getInt(1));
                     }
                 }
+                dbManager.fireDataChanged("routes", DataChangeListener.ChangeType.INSERT, route.getId());
                 return true;
             }
         } catch (SQLException e) {
+            metrics.recordError("RouteDAO.createRoute");
             System.err.println("Error creating route: " + e.getMessage());
+        } finally {
+            metrics.record("RouteDAO.createRoute", start);
         }
         return false;
     }
 
     public Route getRouteById(int id) {
+        long start = System.nanoTime();
         String sql = "SELECT * FROM routes WHERE id = ?";
         
         try (Connection conn = dbManager.getConnection();
@@ -58,12 +68,16 @@ public class RouteDAO {
                 return mapResultSetToRoute(rs);
             }
         } catch (SQLException e) {
+            metrics.recordError("RouteDAO.getRouteById");
             System.err.println("Error getting route by ID: " + e.getMessage());
+        } finally {
+            metrics.record("RouteDAO.getRouteById", start);
         }
         return null;
     }
 
     public List<Route> getAllRoutes() {
+        long start = System.nanoTime();
         String sql = "SELECT * FROM routes ORDER BY created_at DESC";
         List<Route> routes = new ArrayList<>();
         
@@ -75,12 +89,16 @@ public class RouteDAO {
                 routes.add(mapResultSetToRoute(rs));
             }
         } catch (SQLException e) {
+            metrics.recordError("RouteDAO.getAllRoutes");
             System.err.println("Error getting all routes: " + e.getMessage());
+        } finally {
+            metrics.record("RouteDAO.getAllRoutes", start);
         }
         return routes;
     }
 
     public boolean updateRoute(Route route) {
+        long start = System.nanoTime();
         String sql = "UPDATE routes SET source = ?, destination = ?, distance = ?, duration = ?, fare_multiplier = ?, updated_at = ? WHERE id = ?";
         
         try (Connection conn = dbManager.getConnection();
@@ -94,23 +112,38 @@ public class RouteDAO {
             pstmt.setTimestamp(6, Timestamp.valueOf(LocalDateTime.now()));
             pstmt.setInt(7, route.getId());
             
-            return pstmt.executeUpdate() > 0;
+            boolean updated = pstmt.executeUpdate() > 0;
+            if (updated) {
+                dbManager.fireDataChanged("routes", DataChangeListener.ChangeType.UPDATE, route.getId());
+            }
+            return updated;
         } catch (SQLException e) {
+            metrics.recordError("RouteDAO.updateRoute");
             System.err.println("Error updating route: " + e.getMessage());
+        } finally {
+            metrics.record("RouteDAO.updateRoute", start);
         }
         return false;
     }
 
     public boolean deleteRoute(int id) {
+        long start = System.nanoTime();
         String sql = "DELETE FROM routes WHERE id = ?";
         
         try (Connection conn = dbManager.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, id);
-            return pstmt.executeUpdate() > 0;
+            boolean deleted = pstmt.executeUpdate() > 0;
+            if (deleted) {
+                dbManager.fireDataChanged("routes", DataChangeListener.ChangeType.DELETE, id);
+            }
+            return deleted;
         } catch (SQLException e) {
+            metrics.recordError("RouteDAO.deleteRoute");
             System.err.println("Error deleting route: " + e.getMessage());
+        } finally {
+            metrics.record("RouteDAO.deleteRoute", start);
         }
         return false;
     }
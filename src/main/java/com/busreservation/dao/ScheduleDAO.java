@@ -1,22 +1,28 @@
 package com.busreservation.dao;
 
+import com.busreservation.database.DataChangeListener;
 import com.busreservation.database.DatabaseManager;
+import com.busreservation.metrics.MetricsRegistry;
 import com.busreservation.model.Schedule;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 public class ScheduleDAO {
     private DatabaseManager dbManager;
+    private MetricsRegistry metrics;
 
     public ScheduleDAO() {
         this.dbManager = DatabaseManager.getInstance();
+        this.metrics = MetricsRegistry.getInstance();
     }
 
     public boolean createSchedule(Schedule schedule) {
+        long start = System.nanoTime();
         String sql = "INSERT INTO schedules (bus_id, route_id, departure_time, arrival_time, day_of_week, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
         
         try (Connection conn = dbManager.getConnection();
@@ -38,15 +44,20 @@ public class ScheduleDAO {
                         schedule.setId(generatedKeys.getInt(1));
                     }
                 }
+                dbManager.fireDataChanged("schedules", DataChangeListener.ChangeType.INSERT, schedule.getId());
                 return true;
             }
         } catch (SQLException e) {
+            metrics.recordError("ScheduleDAO.createSchedule");
             System.err.println("Error creating schedule: " + e.getMessage());
+        } finally {
+            metrics.record("ScheduleDAO.createSchedule", start);
         }
         return false;
     }
 
     public Schedule getScheduleById(int id) {
+        long start = System.nanoTime();
         String sql = "SELECT * FROM schedules WHERE id = ?";
         
         try (Connection conn = dbManager.getConnection();
@@ -59,12 +70,16 @@ public class ScheduleDAO {
                 return mapResultSetToSchedule(rs);
             }
         } catch (SQLException e) {
+            metrics.recordError("ScheduleDAO.getScheduleById");
             System.err.println("Error getting schedule by ID: " + e.getMessage());
+        } finally {
+            metrics.record("ScheduleDAO.getScheduleById", start);
         }
         return null;
     }
 
     public List<Schedule> getSchedulesByBusId(int busId) {
+        long start = System.nanoTime();
         String sql = "SELECT * FROM schedules WHERE bus_id = ? ORDER BY departure_time";
         List<Schedule> schedules = new ArrayList<>();
         
@@ -78,12 +93,49 @@ public class ScheduleDAO {
                 schedules.add(mapResultSetToSchedule(rs));
             }
         } catch (SQLException e) {
+            metrics.recordError("ScheduleDAO.getSchedulesByBusId");
             System.err.println("Error getting schedules by bus ID: " + e.getMessage());
+        } finally {
+            metrics.record("ScheduleDAO.getSchedulesByBusId", start);
+        }
+        return schedules;
+    }
+
+    public List<Schedule> getSchedulesByRouteAndDay(int routeId, String dayOfWeek, LocalTime from, LocalTime to) {
+        long start = System.nanoTime();
+        // Served by idx_schedules_route_day_departure. Seeded schedules hold departure_time as 'HH:mm' text while
+        // ones written through setTime hold epoch millis, and SQLite sorts every integer before any text, so each
+        // form gets its own range and the two are merged by time below
+        String sql = "SELECT * FROM schedules WHERE route_id = ? AND day_of_week = ? " +
+                     "AND (departure_time BETWEEN ? AND ? OR departure_time BETWEEN ? AND ?)";
+        List<Schedule> schedules = new ArrayList<>();
+        
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, routeId);
+            pstmt.setString(2, dayOfWeek);
+            pstmt.setString(3, from.toString());
+            pstmt.setString(4, to.toString());
+            pstmt.setTime(5, Time.valueOf(from));
+            pstmt.setTime(6, Time.valueOf(to));
+            ResultSet rs = pstmt.executeQuery();
+            
+            while (rs.next()) {
+                schedules.add(mapResultSetToSchedule(rs));
+            }
+            schedules.sort(Comparator.comparing(Schedule::getDepartureTime));
+        } catch (SQLException e) {
+            metrics.recordError("ScheduleDAO.getSchedulesByRouteAndDay");
+            System.err.println("Error getting schedules by route and day: " + e.getMessage());
+        } finally {
+            metrics.record("ScheduleDAO.getSchedulesByRouteAndDay", start);
         }
         return schedules;
     }
 
     public List<Schedule> getAllSchedules() {
+        long start = System.nanoTime();
         String sql = "SELECT * FROM schedules ORDER BY departure_time";
         List<Schedule> schedules = new ArrayList<>();
         
@@ -95,12 +147,16 @@ public class ScheduleDAO {
                 schedules.add(mapResultSetToSchedule(rs));
             }
         } catch (SQLException e) {
+            metrics.recordError("ScheduleDAO.getAllSchedules");
             System.err.println("Error getting all schedules: " + e.getMessage());
+        } finally {
+            metrics.record("ScheduleDAO.getAllSchedules", start);
         }
         return schedules;
     }
 
     public boolean updateSchedule(Schedule schedule) {
+        long start = System.nanoTime();
         String sql = "UPDATE schedules SET bus_id = ?, route_id = ?, departure_time = ?, arrival_time = ?, day_of_week = ?, updated_at = ? WHERE id = ?";
         
         try (Connection conn = dbManager.getConnection();
@@ -114,23 +170,38 @@ public class ScheduleDAO {
             pstmt.setTimestamp(6, Timestamp.valueOf(LocalDateTime.now()));
             pstmt.setInt(7, schedule.getId());
             
-            return pstmt.executeUpdate() > 0;
+            boolean updated = pstmt.executeUpdate() > 0;
+            if (updated) {
+                dbManager.fireDataChanged("schedules", DataChangeListener.ChangeType.UPDATE, schedule.getId());
+            }
+            return updated;
         } catch (SQLException e) {
+            metrics.recordError("ScheduleDAO.updateSchedule");
             System.err.println("Error updating schedule: " + e.getMessage());
+        } finally {
+            metrics.record("ScheduleDAO.updateSchedule", start);
         }
         return false;
     }
 
     public boolean deleteSchedule(int id) {
+        long start = System.nanoTime();
         String sql = "DELETE FROM schedules WHERE id = ?";
         
         try (Connection conn = dbManager.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, id);
-            return pstmt.executeUpdate() > 0;
+            boolean deleted = pstmt.executeUpdate() > 0;
+            if (deleted) {
+                dbManager.fireDataChanged("schedules", DataChangeListener.ChangeType.DELETE, id);
+            }
+            return deleted;
         } catch (SQLException e) {
+            metrics.recordError("ScheduleDAO.deleteSchedule");
             System.err.println("Error deleting schedule: " + e.getMessage());
+        } finally {
+            metrics.record("ScheduleDAO.deleteSchedule", start);
         }
         return false;
     }
@@ -141,15 +212,8 @@ public class ScheduleDAO {
         schedule.setBusId(rs.getInt("bus_id"));
         schedule.setRouteId(rs.getInt("route_id"));
         
-        Time departureTime = rs.getTime("departure_time");
-        if (departureTime != null) {
-            schedule.setDepartureTime(departureTime.toLocalTime());
-        }
-        
-        Time arrivalTime = rs.getTime("arrival_time");
-        if (arrivalTime != null) {
-            schedule.setArrivalTime(arrivalTime.toLocalTime());
-        }
+        schedule.setDepartureTime(toLocalTime(rs.getObject("departure_time")));
+        schedule.setArrivalTime(toLocalTime(rs.getObject("arrival_time")));
         
         schedule.setDayOfWeek(rs.getString("day_of_week"));
         
@@ -165,4 +229,12 @@ public class ScheduleDAO {
         
         return schedule;
     }
+
+    // Times are stored either as 'HH:mm' text or as epoch millis, depending on how the row was written
+    static LocalTime toLocalTime(Object value) {
+        if (value instanceof Number) {
+            return new Time(((Number) value).longValue()).toLocalTime();
+        }
+        return value != null ? LocalTime.parse(value.toString()) : null;
+    }
 }
\ No newline at end of file
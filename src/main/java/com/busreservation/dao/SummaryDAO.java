@@ -0,0 +1,113 @@
+package com.busreservation.dao;
+
+import com.busreservation.database.DatabaseManager;
+import com.busreservation.metrics.MetricsRegistry;
+import com.busreservation.model.DailySummary;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Reads the per-day summary tables that the booking triggers maintain; every query is a primary-key
+// range or point lookup, so its cost depends on the days asked for rather than on the bookings table
+public class SummaryDAO {
+    private DatabaseManager dbManager;
+    private MetricsRegistry metrics;
+
+    public SummaryDAO() {
+        this.dbManager = DatabaseManager.getInstance();
+        this.metrics = MetricsRegistry.getInstance();
+    }
+
+    public List<DailySummary> getBusSummaries(LocalDate from, LocalDate to) {
+        long start = System.nanoTime();
+        String sql = "SELECT s.travel_day, s.bus_id, b.bus_name, b.total_seats, s.seats_sold, s.revenue_cents, s.cancellations " +
+                     "FROM daily_bus_summary s LEFT JOIN buses b ON b.id = s.bus_id " +
+                     "WHERE s.travel_day BETWEEN ? AND ? ORDER BY s.travel_day, s.bus_id";
+        List<DailySummary> summaries = new ArrayList<>();
+        
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setString(1, from.toString());
+            pstmt.setString(2, to.toString());
+            ResultSet rs = pstmt.executeQuery();
+            
+            while (rs.next()) {
+                summaries.add(mapResultSetToSummary(rs, "bus_id", rs.getString("bus_name"), rs.getInt("total_seats")));
+            }
+        } catch (SQLException e) {
+            metrics.recordError("SummaryDAO.getBusSummaries");
+            System.err.println("Error getting bus summaries: " + e.getMessage());
+        } finally {
+            metrics.record("SummaryDAO.getBusSummaries", start);
+        }
+        return summaries;
+    }
+
+    public DailySummary getBusSummary(int busId, LocalDate travelDate) {
+        long start = System.nanoTime();
+        String sql = "SELECT s.travel_day, s.bus_id, b.bus_name, b.total_seats, s.seats_sold, s.revenue_cents, s.cancellations " +
+                     "FROM daily_bus_summary s LEFT JOIN buses b ON b.id = s.bus_id " +
+                     "WHERE s.travel_day = ? AND s.bus_id = ?";
+        
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setString(1, travelDate.toString());
+            pstmt.setInt(2, busId);
+            ResultSet rs = pstmt.executeQuery();
+            
+            if (rs.next()) {
+                return mapResultSetToSummary(rs, "bus_id", rs.getString("bus_name"), rs.getInt("total_seats"));
+            }
+        } catch (SQLException e) {
+            metrics.recordError("SummaryDAO.getBusSummary");
+            System.err.println("Error getting bus summary: " + e.getMessage());
+        } finally {
+            metrics.record("SummaryDAO.getBusSummary", start);
+        }
+        return null;
+    }
+
+    public List<DailySummary> getRouteSummaries(LocalDate from, LocalDate to) {
+        long start = System.nanoTime();
+        String sql = "SELECT s.travel_day, s.route_id, r.source, r.destination, s.seats_sold, s.revenue_cents, s.cancellations " +
+                     "FROM daily_route_summary s LEFT JOIN routes r ON r.id = s.route_id " +
+                     "WHERE s.travel_day BETWEEN ? AND ? ORDER BY s.travel_day, s.route_id";
+        List<DailySummary> summaries = new ArrayList<>();
+        
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setString(1, from.toString());
+            pstmt.setString(2, to.toString());
+            ResultSet rs = pstmt.executeQuery();
+            
+            while (rs.next()) {
+                String source = rs.getString("source");
+                String name = source != null ? source + " -> " + rs.getString("destination") : "Unknown route";
+                summaries.add(mapResultSetToSummary(rs, "route_id", name, 0));
+            }
+        } catch (SQLException e) {
+            metrics.recordError("SummaryDAO.getRouteSummaries");
+            System.err.println("Error getting route summaries: " + e.getMessage());
+        } finally {
+            metrics.record("SummaryDAO.getRouteSummaries", start);
+        }
+        return summaries;
+    }
+
+    private DailySummary mapResultSetToSummary(ResultSet rs, String keyColumn, String name, int capacity) throws SQLException {
+        DailySummary summary = new DailySummary();
+        summary.setTravelDate(LocalDate.parse(rs.getString("travel_day")));
+        summary.setGroupId(rs.getInt(keyColumn));
+        summary.setGroupName(name != null ? name : "N/A");
+        summary.setCapacity(capacity);
+        summary.setSeatsSold(rs.getInt("seats_sold"));
+        summary.setRevenueCents(rs.getLong("revenue_cents"));
+        summary.setCancellations(rs.getInt("cancellations"));
+        return summary;
+    }
+}
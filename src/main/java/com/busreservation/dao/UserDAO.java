@@ -1,21 +1,27 @@
 package com.busreservation.dao;
 
 import com.busreservation.database.DatabaseManager;
+import com.busreservation.metrics.MetricsRegistry;
 import com.busreservation.model.User;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
 
 public class UserDAO {
     private DatabaseManager dbManager;
+    private MetricsRegistry metrics;
 
     public UserDAO() {
         this.dbManager = DatabaseManager.getInstance();
+        this.metrics = MetricsRegistry.getInstance();
     }
 
     public boolean createUser(User user) {
+        long start = System.nanoTime();
         String sql = "INSERT INTO users (username, email, password, full_name, phone_number, role, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
         
         try (Connection conn = dbManager.getConnection();
@@ -40,12 +46,16 @@ public class UserDAO {
                 return true;
             }
         } catch (SQLException e) {
+            metrics.recordError("UserDAO.createUser");
             System.err.println("Error creating user: " + e.getMessage());
+        } finally {
+            metrics.record("UserDAO.createUser", start);
         }
         return false;
     }
 
     public User getUserByUsername(String username) {
+        long start = System.nanoTime();
         String sql = "SELECT * FROM users WHERE username = ?";
         
         try (Connection conn = dbManager.getConnection();
@@ -58,12 +68,16 @@ public class UserDAO {
                 return mapResultSetToUser(rs);
             }
         } catch (SQLException e) {
+            metrics.recordError("UserDAO.getUserByUsername");
             System.err.println("Error getting user by username: " + e.getMessage());
+        } finally {
+            metrics.record("UserDAO.getUserByUsername", start);
         }
         return null;
     }
 
     public User getUserByEmail(String email) {
+        long start = System.nanoTime();
         String sql = "SELECT * FROM users WHERE email = ?";
         
         try (Connection conn = dbManager.getConnection();
@@ -76,12 +90,16 @@ public class UserDAO {
                 return mapResultSetToUser(rs);
             }
         } catch (SQLException e) {
+            metrics.recordError("UserDAO.getUserByEmail");
             System.err.println("Error getting user by email: " + e.getMessage());
+        } finally {
+            metrics.record("UserDAO.getUserByEmail", start);
         }
         return null;
     }
 
     public User getUserById(int id) {
+        long start = System.nanoTime();
         String sql = "SELECT * FROM users WHERE id = ?";
         
         try (Connection conn = dbManager.getConnection();
@@ -94,13 +112,17 @@ public class UserDAO {
                 return mapResultSetToUser(rs);
             }
         } catch (SQLException e) {
+            metrics.recordError("UserDAO.getUserById");
             System.err.println("Error getting user by ID: " + e.getMessage());
+        } finally {
+            metrics.record("UserDAO.getUserById", start);
         }
         return null;
     }
 
     public boolean updateUser(User user) {
-        String sql = "UPDATE users SET username = ?, email = ?, password = ?, full_name = ?, phone_number = ?, role = ?, last_login = ?, updated_at = ? WHERE id = ?";
+        long start = System.nanoTime();
+        String sql = "UPDATE users SET username = ?, email = ?, password = ?, full_name = ?, phone_number = ?, role = ?, last_login = ? WHERE id = ?";
         
         try (Connection conn = dbManager.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -112,17 +134,20 @@ public class UserDAO {
             pstmt.setString(5, user.getPhoneNumber());
             pstmt.setString(6, user.getRole().toString());
             pstmt.setTimestamp(7, user.getLastLogin() != null ? Timestamp.valueOf(user.getLastLogin()) : null);
-            pstmt.setTimestamp(8, Timestamp.valueOf(LocalDateTime.now()));
-            pstmt.setInt(9, user.getId());
+            pstmt.setInt(8, user.getId());
             
             return pstmt.executeUpdate() > 0;
         } catch (SQLException e) {
+            metrics.recordError("UserDAO.updateUser");
             System.err.println("Error updating user: " + e.getMessage());
+        } finally {
+            metrics.record("UserDAO.updateUser", start);
         }
         return false;
     }
 
     public boolean deleteUser(int id) {
+        long start = System.nanoTime();
         String sql = "DELETE FROM users WHERE id = ?";
         
         try (Connection conn = dbManager.getConnection();
@@ -131,12 +156,16 @@ public class UserDAO {
             pstmt.setInt(1, id);
             return pstmt.executeUpdate() > 0;
         } catch (SQLException e) {
+            metrics.recordError("UserDAO.deleteUser");
             System.err.println("Error deleting user: " + e.getMessage());
+        } finally {
+            metrics.record("UserDAO.deleteUser", start);
         }
         return false;
     }
 
     public List<User> getAllUsers() {
+        long start = System.nanoTime();
         String sql = "SELECT * FROM users ORDER BY created_at DESC";
         List<User> users = new ArrayList<>();
         
@@ -148,20 +177,86 @@ public class UserDAO {
                 users.add(mapResultSetToUser(rs));
             }
         } catch (SQLException e) {
+            metrics.recordError("UserDAO.getAllUsers");
             System.err.println("Error getting all users: " + e.getMessage());
+        } finally {
+            metrics.record("UserDAO.getAllUsers", start);
         }
         return users;
     }
 
-    public boolean authenticateUser(String username, String password) {
-        User user = getUserByUsername(username);
-        if (user != null && user.getPassword().equals(password)) {
-            // Update last login
-            user.setLastLogin(LocalDateTime.now());
-            updateUser(user);
-            return true;
+    public int countUsers() {
+        long start = System.nanoTime();
+        String sql = "SELECT COUNT(*) FROM users";
+        
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            metrics.recordError("UserDAO.countUsers");
+            System.err.println("Error counting users: " + e.getMessage());
+        } finally {
+            metrics.record("UserDAO.countUsers", start);
+        }
+        return 0;
+    }
+
+    // Streams (username, email) pairs without materializing User objects
+    public void forEachUsernameAndEmail(BiConsumer<String, String> consumer) {
+        long start = System.nanoTime();
+        String sql = "SELECT username, email FROM users";
+        
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            
+            while (rs.next()) {
+                consumer.accept(rs.getString(1), rs.getString(2));
+            }
+        } catch (SQLException e) {
+            metrics.recordError("UserDAO.forEachUsernameAndEmail");
+            System.err.println("Error reading usernames and emails: " + e.getMessage());
+        } finally {
+            metrics.record("UserDAO.forEachUsernameAndEmail", start);
+        }
+    }
+
+    // One read through the unique username index; last_login is recorded separately in batches
+    public User authenticate(String username, String password) {
+        long start = System.nanoTime();
+        String sql = "SELECT * FROM users WHERE username = ?";
+        
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setString(1, username);
+            ResultSet rs = pstmt.executeQuery();
+            
+            if (rs.next() && rs.getString("password").equals(password)) {
+                return mapResultSetToUser(rs);
+            }
+        } catch (SQLException e) {
+            metrics.recordError("UserDAO.authenticate");
+            System.err.println("Error authenticating user: " + e.getMessage());
+        } finally {
+            metrics.record("UserDAO.authenticate", start);
+        }
+        return null;
+    }
+
+    public void updateLastLogins(Connection conn, Map<Integer, LocalDateTime> lastLogins) throws SQLException {
+        String sql = "UPDATE users SET last_login = ? WHERE id = ?";
+        
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (Map.Entry<Integer, LocalDateTime> entry : lastLogins.entrySet()) {
+                pstmt.setTimestamp(1, Timestamp.valueOf(entry.getValue()));
+                pstmt.setInt(2, entry.getKey());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
         }
-        return false;
     }
 
     private User mapResultSetToUser(ResultSet rs) throws SQLException {
@@ -0,0 +1,246 @@
+package com.busreservation.database;
+
+import com.busreservation.model.Booking;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// Append-only, memory-mapped log of booking and cancellation requests.
+// Layout: [magic][version] then records of [length][crc32][seq][type][payload], terminated by a zero length.
+public class BookingJournal {
+    public static final byte TYPE_BOOKING = 1;
+    public static final byte TYPE_CANCELLATION = 2;
+
+    private static final int MAGIC = 0x424A4E4C;
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 4 + 4 + 8 + 1;
+
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long lastSeq;
+    // Where the latest record starts, while it can still be discarded; -1 otherwise
+    private int lastRecordStart = -1;
+
+    public BookingJournal(Path path, int initialSize, long appliedSeq) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = Math.max(channel.size(), Math.max(initialSize, FILE_HEADER_SIZE + RECORD_HEADER_SIZE));
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+        int magic = buffer.getInt(0);
+        if (magic == 0) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.force();
+        } else if (magic != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a booking journal: " + path);
+        }
+
+        this.lastSeq = appliedSeq;
+        recover();
+    }
+
+    // The record is written but not yet durable; callers force() once for a whole group of appends
+    public synchronized long append(byte type, byte[] payload) throws IOException {
+        int needed = RECORD_HEADER_SIZE + payload.length + 4;
+        if (buffer.remaining() < needed) {
+            grow(needed);
+        }
+
+        long seq = lastSeq + 1;
+        int start = buffer.position();
+        buffer.position(start + 4);
+        buffer.putInt((int) checksum(seq, type, payload));
+        buffer.putLong(seq);
+        buffer.put(type);
+        buffer.put(payload);
+        int end = buffer.position();
+        buffer.putInt(end, 0);
+        // The length goes in last so a torn write is never mistaken for a complete record
+        buffer.putInt(start, payload.length);
+
+        lastSeq = seq;
+        lastRecordStart = start;
+        return seq;
+    }
+
+    // Takes back the latest record when it could not be handed on for applying; its sequence number is reused
+    public synchronized void discard(long seq) {
+        if (seq != lastSeq || lastRecordStart < 0) {
+            throw new IllegalStateException("Only the latest journal record can be discarded");
+        }
+        buffer.putInt(lastRecordStart, 0);
+        buffer.position(lastRecordStart);
+        lastSeq = seq - 1;
+        lastRecordStart = -1;
+    }
+
+    // Makes every record appended so far durable and returns the last sequence number it covers.
+    // The flush runs outside the lock so appends are not held up behind the disk.
+    public long force() {
+        MappedByteBuffer target;
+        long seq;
+        synchronized (this) {
+            target = buffer;
+            seq = lastSeq;
+        }
+        target.force();
+        return seq;
+    }
+
+    public synchronized List<Entry> readAfter(long seq) {
+        List<Entry> entries = new ArrayList<>();
+        int position = FILE_HEADER_SIZE;
+        Entry entry;
+        while ((entry = readAt(position)) != null) {
+            if (entry.seq > seq) {
+                entries.add(entry);
+            }
+            position += RECORD_HEADER_SIZE + entry.payload.length;
+        }
+        return entries;
+    }
+
+    // Once everything written has been applied the file is rewound instead of growing forever
+    public synchronized void markApplied(long appliedSeq) {
+        if (appliedSeq >= lastSeq && buffer.position() > FILE_HEADER_SIZE) {
+            buffer.putInt(FILE_HEADER_SIZE, 0);
+            buffer.position(FILE_HEADER_SIZE);
+            buffer.force();
+            lastRecordStart = -1;
+        }
+    }
+
+    public synchronized long getLastSeq() {
+        return lastSeq;
+    }
+
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private void recover() {
+        int position = FILE_HEADER_SIZE;
+        Entry entry;
+        while ((entry = readAt(position)) != null) {
+            lastSeq = Math.max(lastSeq, entry.seq);
+            position += RECORD_HEADER_SIZE + entry.payload.length;
+        }
+        // Cut off a torn or corrupt tail so new records follow the last good one
+        if (position + 4 <= buffer.capacity()) {
+            buffer.putInt(position, 0);
+        }
+        buffer.position(position);
+    }
+
+    private Entry readAt(int position) {
+        if (position + RECORD_HEADER_SIZE > buffer.capacity()) {
+            return null;
+        }
+        int length = buffer.getInt(position);
+        if (length <= 0 || position + RECORD_HEADER_SIZE + length > buffer.capacity()) {
+            return null;
+        }
+
+        int crc = buffer.getInt(position + 4);
+        long seq = buffer.getLong(position + 8);
+        byte type = buffer.get(position + 16);
+        byte[] payload = new byte[length];
+        for (int i = 0; i < length; i++) {
+            payload[i] = buffer.get(position + RECORD_HEADER_SIZE + i);
+        }
+        if ((int) checksum(seq, type, payload) != crc) {
+            return null;
+        }
+        return new Entry(seq, type, payload);
+    }
+
+    private void grow(int needed) throws IOException {
+        int position = buffer.position();
+        long newSize = Math.max((long) buffer.capacity() * 2, (long) position + needed);
+        buffer.force();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, newSize);
+        buffer.position(position);
+    }
+
+    private static long checksum(long seq, byte type, byte[] payload) {
+        CRC32 crc = new CRC32();
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            crc.update((int) (seq >>> shift));
+        }
+        crc.update(type);
+        crc.update(payload, 0, payload.length);
+        return crc.getValue();
+    }
+
+    public static byte[] encodeBooking(Booking booking) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(booking.getUserId());
+            out.writeInt(booking.getBusId());
+            out.writeInt(booking.getScheduleId());
+            out.writeInt(booking.getSeatNumber());
+            out.writeUTF(booking.getPassengerName());
+            out.writeUTF(booking.getPassengerPhone());
+            out.writeDouble(booking.getFare());
+            out.writeUTF(booking.getTravelDate().toString());
+        }
+        return bytes.toByteArray();
+    }
+
+    public static Booking decodeBooking(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            int userId = in.readInt();
+            int busId = in.readInt();
+            int scheduleId = in.readInt();
+            int seatNumber = in.readInt();
+            String passengerName = in.readUTF();
+            String passengerPhone = in.readUTF();
+            double fare = in.readDouble();
+            LocalDateTime travelDate = LocalDateTime.parse(in.readUTF());
+            return new Booking(userId, busId, scheduleId, seatNumber, passengerName, passengerPhone, fare, travelDate);
+        }
+    }
+
+    public static byte[] encodeCancellation(int bookingId, int userId) {
+        return new byte[] {
+            (byte) (bookingId >>> 24), (byte) (bookingId >>> 16), (byte) (bookingId >>> 8), (byte) bookingId,
+            (byte) (userId >>> 24), (byte) (userId >>> 16), (byte) (userId >>> 8), (byte) userId
+        };
+    }
+
+    // Returns {bookingId, userId}
+    public static int[] decodeCancellation(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            return new int[] {in.readInt(), in.readInt()};
+        }
+    }
+
+    public static final class Entry {
+        private final long seq;
+        private final byte type;
+        private final byte[] payload;
+
+        Entry(long seq, byte type, byte[] payload) {
+            this.seq = seq;
+            this.type = type;
+            this.payload = payload;
+        }
+
+        public long getSeq() { return seq; }
+        public byte getType() { return type; }
+        public byte[] getPayload() { return payload; }
+    }
+}
@@ -0,0 +1,9 @@
+package com.busreservation.database;
+
+public interface DataChangeListener {
+    enum ChangeType {
+        INSERT, UPDATE, DELETE
+    }
+
+    void onDataChanged(String table, ChangeType type, int id);
+}
@@ -1,13 +1,46 @@
 package com.busreservation.database;
 
+import com.busreservation.dao.BookingWriteDAO;
+import com.busreservation.metrics.jfr.ConnectionAcquireEvent;
+import com.busreservation.model.BookingResult;
+
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class DatabaseManager {
     private static final String DB_URL = "jdbc:sqlite:bus_reservation.db";
+    private static final String JOURNAL_PATH = "bus_reservation.journal";
+    private static final String BOOKING_EVENT_INSERT =
+        "INSERT INTO booking_events (booking_id, event_type, user_id, bus_id, schedule_id, seat_number, passenger_name, passenger_phone, fare, status, booking_date, travel_date, occurred_at) ";
+    // Epoch millis, the same representation the JDBC driver uses for TIMESTAMP parameters
+    private static final String EVENT_TIME = "CAST((julianday('now') - 2440587.5) * 86400000 AS INTEGER)";
+    // Bookings that count towards seats sold and revenue
+    private static final String SOLD = "('CONFIRMED', 'COMPLETED')";
+    private static final String SUMMARY_TOTALS =
+        "SUM(b.status IN " + SOLD + "), " +
+        "SUM(CASE WHEN b.status IN " + SOLD + " THEN CAST(ROUND(b.fare * 100) AS INTEGER) ELSE 0 END), " +
+        "SUM(b.status = 'CANCELLED')";
+    // Deletes made while moving bookings to the archive are not lifecycle events and keep their summary totals
+    private static final String UNLESS_ARCHIVING = "WHEN NOT EXISTS (SELECT 1 FROM booking_archive_guard) ";
+    // Bump whenever createTables changes so existing databases pick up the new DDL
+    private static final int SCHEMA_VERSION = 4;
+    private static final int SAMPLE_DATA_VERSION = 1;
     private static DatabaseManager instance;
-    private Connection connection;
+    // One connection per thread: the server workers, Swing workers and background jobs all go through the DAOs,
+    // which close their connection after every call, so a shared one would be closed under another thread's query
+    private final ThreadLocal<Connection> connection = new ThreadLocal<>();
+    private BookingJournal bookingJournal;
+    private boolean bookingJournalUnreplayed;
+    private Map<String, String> metadata = new HashMap<>();
+    private final Map<String, Long> startupTimings = new LinkedHashMap<>();
+    private final List<DataChangeListener> changeListeners = new CopyOnWriteArrayList<>();
 
     private DatabaseManager() {
         initializeDatabase();
@@ -16,22 +49,92 @@ public class DatabaseManager {
     public static synchronized DatabaseManager getInstance() {
         if (instance == null) {
             instance = new DatabaseManager();
+            // Needs the DAOs, which look up the instance, so it runs after construction
+            long start = System.nanoTime();
+            instance.replayBookingJournal();
+            instance.recordStartupTiming("journal replay", start);
         }
         return instance;
     }
 
     private void initializeDatabase() {
         try {
+            long start = System.nanoTime();
             Class.forName("org.sqlite.JDBC");
-            connection = DriverManager.getConnection(DB_URL);
-            createTables();
+            Connection conn = getConnection();
+            recordStartupTiming("connect", start);
+
+            // An up-to-date database skips all DDL; otherwise apply it atomically with the version bump
+            start = System.nanoTime();
+            metadata = loadMetadata(conn);
+            if (getMetadataVersion("schema_version") < SCHEMA_VERSION) {
+                conn.setAutoCommit(false);
+                try {
+                    createTables();
+                    setMetadata(conn, "schema_version", SCHEMA_VERSION);
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            }
+            recordStartupTiming("schema", start);
         } catch (ClassNotFoundException | SQLException e) {
             System.err.println("Error initializing database: " + e.getMessage());
         }
     }
 
+    private Map<String, String> loadMetadata(Connection conn) {
+        Map<String, String> values = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT key, value FROM app_metadata")) {
+            while (rs.next()) {
+                values.put(rs.getString("key"), rs.getString("value"));
+            }
+        } catch (SQLException e) {
+            // No metadata table yet: a new database or one created before versioning
+        }
+        return values;
+    }
+
+    private int getMetadataVersion(String key) {
+        String value = metadata.get(key);
+        try {
+            return value != null ? Integer.parseInt(value) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private void setMetadata(Connection conn, String key, int version) throws SQLException {
+        String sql = "INSERT OR REPLACE INTO app_metadata (key, value) VALUES (?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, key);
+            pstmt.setString(2, String.valueOf(version));
+            pstmt.executeUpdate();
+        }
+        metadata.put(key, String.valueOf(version));
+    }
+
+    private void recordStartupTiming(String phase, long startNanos) {
+        startupTimings.put(phase, System.nanoTime() - startNanos);
+    }
+
+    // Phase name -> elapsed nanoseconds, in the order the phases ran
+    public Map<String, Long> getStartupTimings() {
+        return new LinkedHashMap<>(startupTimings);
+    }
+
     private void createTables() throws SQLException {
         String[] createTableQueries = {
+            // Schema and sample data versions, checked on startup
+            "CREATE TABLE IF NOT EXISTS app_metadata (" +
+            "key VARCHAR(50) PRIMARY KEY," +
+            "value VARCHAR(100) NOT NULL" +
+            ")",
+
             // Users table
             "CREATE TABLE IF NOT EXISTS users (" +
             "id INTEGER PRIMARY KEY AUTOINCREMENT," +
@@ -114,81 +217,425 @@ public class DatabaseManager {
             "booking_id INTEGER," +
             "FOREIGN KEY (bus_id) REFERENCES buses(id)," +
             "FOREIGN KEY (booking_id) REFERENCES bookings(id)" +
-            ")"
+            ")",
+
+            // Orderings offered by the paged booking tables; each index ends in the rowid, so ties sort by id
+            "CREATE INDEX IF NOT EXISTS idx_bookings_user ON bookings (user_id)",
+            "CREATE INDEX IF NOT EXISTS idx_bookings_bus ON bookings (bus_id)",
+            "CREATE INDEX IF NOT EXISTS idx_bookings_travel_date ON bookings (travel_date)",
+
+            "CREATE INDEX IF NOT EXISTS idx_seats_bus_seat ON seats (bus_id, seat_number)",
+
+            "CREATE INDEX IF NOT EXISTS idx_schedules_route_day_departure ON schedules (route_id, day_of_week, departure_time)",
+
+            // Keep buses.available_seats in step with seat status changes in the same statement
+            "CREATE TRIGGER IF NOT EXISTS trg_seats_available_count " +
+            "AFTER UPDATE OF status ON seats " +
+            "WHEN (OLD.status = 'AVAILABLE') <> (NEW.status = 'AVAILABLE') " +
+            "BEGIN " +
+            "UPDATE buses SET available_seats = available_seats + (CASE WHEN NEW.status = 'AVAILABLE' THEN 1 ELSE -1 END) " +
+            "WHERE id = NEW.bus_id; " +
+            "END",
+
+            // Highest booking journal sequence already applied to bookings/seats
+            "CREATE TABLE IF NOT EXISTS journal_state (" +
+            "id INTEGER PRIMARY KEY CHECK (id = 1)," +
+            "applied_seq INTEGER NOT NULL" +
+            ")",
+
+            // Booking lifecycle events; each row carries the booking's state after the event
+            "CREATE TABLE IF NOT EXISTS booking_events (" +
+            "seq INTEGER PRIMARY KEY AUTOINCREMENT," +
+            "booking_id INTEGER NOT NULL," +
+            "event_type VARCHAR(30) NOT NULL," +
+            "user_id INTEGER NOT NULL," +
+            "bus_id INTEGER NOT NULL," +
+            "schedule_id INTEGER NOT NULL," +
+            "seat_number INTEGER NOT NULL," +
+            "passenger_name VARCHAR(100) NOT NULL," +
+            "passenger_phone VARCHAR(20) NOT NULL," +
+            "fare DECIMAL(10,2) NOT NULL," +
+            "status VARCHAR(20)," +
+            "booking_date TIMESTAMP," +
+            "travel_date TIMESTAMP NOT NULL," +
+            "occurred_at TIMESTAMP NOT NULL" +
+            ")",
+
+            "CREATE INDEX IF NOT EXISTS idx_booking_events_booking ON booking_events (booking_id, seq)",
+
+            // Compact serialized views of all bookings as of last_seq
+            "CREATE TABLE IF NOT EXISTS booking_snapshots (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+            "last_seq INTEGER NOT NULL," +
+            "booking_count INTEGER NOT NULL," +
+            "data BLOB NOT NULL," +
+            "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+            ")",
+
+            // Events are appended by triggers so every write path is captured in its own transaction
+            "CREATE TRIGGER IF NOT EXISTS trg_bookings_event_created " +
+            "AFTER INSERT ON bookings " +
+            "BEGIN " +
+            BOOKING_EVENT_INSERT + "VALUES (NEW.id, 'CREATED', NEW.user_id, NEW.bus_id, NEW.schedule_id, NEW.seat_number, NEW.passenger_name, NEW.passenger_phone, NEW.fare, NEW.status, NEW.booking_date, NEW.travel_date, " + EVENT_TIME + "); " +
+            "END",
+
+            "CREATE TRIGGER IF NOT EXISTS trg_bookings_event_passenger " +
+            "AFTER UPDATE OF passenger_name, passenger_phone ON bookings " +
+            "WHEN NEW.passenger_name IS NOT OLD.passenger_name OR NEW.passenger_phone IS NOT OLD.passenger_phone " +
+            "BEGIN " +
+            BOOKING_EVENT_INSERT + "VALUES (NEW.id, 'PASSENGER_UPDATED', NEW.user_id, NEW.bus_id, NEW.schedule_id, NEW.seat_number, NEW.passenger_name, NEW.passenger_phone, NEW.fare, NEW.status, NEW.booking_date, NEW.travel_date, " + EVENT_TIME + "); " +
+            "END",
+
+            "CREATE TRIGGER IF NOT EXISTS trg_bookings_event_status " +
+            "AFTER UPDATE OF status ON bookings " +
+            "WHEN NEW.status IS NOT OLD.status " +
+            "BEGIN " +
+            BOOKING_EVENT_INSERT + "VALUES (NEW.id, " +
+            "CASE NEW.status WHEN 'CANCELLED' THEN 'CANCELLED' WHEN 'COMPLETED' THEN 'COMPLETED' ELSE 'STATUS_CHANGED' END, " +
+            "NEW.user_id, NEW.bus_id, NEW.schedule_id, NEW.seat_number, NEW.passenger_name, NEW.passenger_phone, NEW.fare, NEW.status, NEW.booking_date, NEW.travel_date, " + EVENT_TIME + "); " +
+            "END",
+
+            // Finished bookings older than the retention period, one table per travel month (see BookingArchiveDAO)
+            "CREATE TABLE IF NOT EXISTS booking_archives (" +
+            "partition_month TEXT PRIMARY KEY," +
+            "table_name TEXT NOT NULL UNIQUE," +
+            "booking_count INTEGER NOT NULL DEFAULT 0," +
+            "archived_at TIMESTAMP" +
+            ")",
+
+            // Holds a row only inside an archiving transaction, so the delete triggers can tell a move from a delete
+            "CREATE TABLE IF NOT EXISTS booking_archive_guard (" +
+            "id INTEGER PRIMARY KEY CHECK (id = 1)" +
+            ")",
+
+            // Live and archived bookings together; recreated by the archiver whenever it adds a partition
+            "CREATE VIEW IF NOT EXISTS booking_history AS SELECT * FROM bookings",
+
+            "DROP TRIGGER IF EXISTS trg_bookings_event_deleted",
+            "CREATE TRIGGER IF NOT EXISTS trg_bookings_event_deleted " +
+            "AFTER DELETE ON bookings " +
+            UNLESS_ARCHIVING +
+            "BEGIN " +
+            BOOKING_EVENT_INSERT + "VALUES (OLD.id, 'DELETED', OLD.user_id, OLD.bus_id, OLD.schedule_id, OLD.seat_number, OLD.passenger_name, OLD.passenger_phone, OLD.fare, OLD.status, OLD.booking_date, OLD.travel_date, " + EVENT_TIME + "); " +
+            "END",
+
+            // One-time backfill so bookings made before the ledger existed have a CREATED event
+            BOOKING_EVENT_INSERT + "SELECT id, 'CREATED', user_id, bus_id, schedule_id, seat_number, passenger_name, passenger_phone, fare, status, booking_date, travel_date, " + EVENT_TIME + " " +
+            "FROM bookings WHERE NOT EXISTS (SELECT 1 FROM booking_events)",
+
+            // Revenue and occupancy per travel day, kept current by the triggers below in the same
+            // transaction as the booking write; revenue is in cents so repeated +/- stays exact
+            "CREATE TABLE IF NOT EXISTS daily_bus_summary (" +
+            "travel_day TEXT NOT NULL," +
+            "bus_id INTEGER NOT NULL," +
+            "seats_sold INTEGER NOT NULL DEFAULT 0," +
+            "revenue_cents INTEGER NOT NULL DEFAULT 0," +
+            "cancellations INTEGER NOT NULL DEFAULT 0," +
+            "PRIMARY KEY (travel_day, bus_id)" +
+            ") WITHOUT ROWID",
+
+            // Route 0 collects bookings whose schedule no longer exists
+            "CREATE TABLE IF NOT EXISTS daily_route_summary (" +
+            "travel_day TEXT NOT NULL," +
+            "route_id INTEGER NOT NULL," +
+            "seats_sold INTEGER NOT NULL DEFAULT 0," +
+            "revenue_cents INTEGER NOT NULL DEFAULT 0," +
+            "cancellations INTEGER NOT NULL DEFAULT 0," +
+            "PRIMARY KEY (travel_day, route_id)" +
+            ") WITHOUT ROWID",
+
+            "CREATE TRIGGER IF NOT EXISTS trg_bookings_summary_insert " +
+            "AFTER INSERT ON bookings " +
+            "BEGIN " +
+            summaryUpsert("daily_bus_summary", "bus_id", "NEW.bus_id", "NEW", "") +
+            summaryUpsert("daily_route_summary", "route_id", routeOf("NEW"), "NEW", "") +
+            "END",
+
+            "CREATE TRIGGER IF NOT EXISTS trg_bookings_summary_update " +
+            "AFTER UPDATE OF status, fare, bus_id, schedule_id, travel_date ON bookings " +
+            "WHEN NEW.status IS NOT OLD.status OR NEW.fare IS NOT OLD.fare OR NEW.bus_id IS NOT OLD.bus_id " +
+            "OR NEW.schedule_id IS NOT OLD.schedule_id OR NEW.travel_date IS NOT OLD.travel_date " +
+            "BEGIN " +
+            summaryUpsert("daily_bus_summary", "bus_id", "OLD.bus_id", "OLD", "-") +
+            summaryUpsert("daily_bus_summary", "bus_id", "NEW.bus_id", "NEW", "") +
+            summaryUpsert("daily_route_summary", "route_id", routeOf("OLD"), "OLD", "-") +
+            summaryUpsert("daily_route_summary", "route_id", routeOf("NEW"), "NEW", "") +
+            "END",
+
+            "DROP TRIGGER IF EXISTS trg_bookings_summary_delete",
+            "CREATE TRIGGER IF NOT EXISTS trg_bookings_summary_delete " +
+            "AFTER DELETE ON bookings " +
+            UNLESS_ARCHIVING +
+            "BEGIN " +
+            summaryUpsert("daily_bus_summary", "bus_id", "OLD.bus_id", "OLD", "-") +
+            summaryUpsert("daily_route_summary", "route_id", routeOf("OLD"), "OLD", "-") +
+            "END",
+
+            // One-time backfill from the bookings that existed before the summaries did
+            "INSERT INTO daily_bus_summary (travel_day, bus_id, seats_sold, revenue_cents, cancellations) " +
+            "SELECT " + travelDay("b") + ", b.bus_id, " + SUMMARY_TOTALS + " " +
+            "FROM bookings b WHERE NOT EXISTS (SELECT 1 FROM daily_bus_summary) GROUP BY 1, 2",
+
+            "INSERT INTO daily_route_summary (travel_day, route_id, seats_sold, revenue_cents, cancellations) " +
+            "SELECT " + travelDay("b") + ", COALESCE(s.route_id, 0), " + SUMMARY_TOTALS + " " +
+            "FROM bookings b LEFT JOIN schedules s ON s.id = b.schedule_id " +
+            "WHERE NOT EXISTS (SELECT 1 FROM daily_route_summary) GROUP BY 1, 2"
         };
 
         for (String query : createTableQueries) {
-            try (Statement stmt = connection.createStatement()) {
+            try (Statement stmt = getConnection().createStatement()) {
                 stmt.execute(query);
             }
         }
     }
 
+    // Calendar day of an epoch-millis travel_date, in the local time zone it was written from
+    private static String travelDay(String row) {
+        return "date(" + row + ".travel_date / 1000, 'unixepoch', 'localtime')";
+    }
+
+    private static String routeOf(String row) {
+        return "COALESCE((SELECT route_id FROM schedules WHERE id = " + row + ".schedule_id), 0)";
+    }
+
+    // Adds (sign "") or removes (sign "-") one booking row's contribution to a summary table
+    private static String summaryUpsert(String table, String keyColumn, String key, String row, String sign) {
+        String sold = row + ".status IN " + SOLD;
+        return "INSERT INTO " + table + " (travel_day, " + keyColumn + ", seats_sold, revenue_cents, cancellations) " +
+               "VALUES (" + travelDay(row) + ", " + key + ", " +
+               "CASE WHEN " + sold + " THEN " + sign + "1 ELSE 0 END, " +
+               "CASE WHEN " + sold + " THEN " + sign + "CAST(ROUND(" + row + ".fare * 100) AS INTEGER) ELSE 0 END, " +
+               "CASE WHEN " + row + ".status = 'CANCELLED' THEN " + sign + "1 ELSE 0 END) " +
+               "ON CONFLICT(travel_day, " + keyColumn + ") DO UPDATE SET " +
+               "seats_sold = seats_sold + excluded.seats_sold, " +
+               "revenue_cents = revenue_cents + excluded.revenue_cents, " +
+               "cancellations = cancellations + excluded.cancellations; ";
+    }
+
     public Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            connection = DriverManager.getConnection(DB_URL);
+        ConnectionAcquireEvent event = new ConnectionAcquireEvent();
+        event.begin();
+        Connection conn = connection.get();
+        if (conn == null || conn.isClosed()) {
+            conn = SqlTracer.getInstance().wrap(DriverManager.getConnection(DB_URL));
+            // Threads now reach the database side by side, so wait out another connection's lock instead of failing
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("PRAGMA busy_timeout = 5000");
+            }
+            connection.set(conn);
+            event.setOpened(true);
+        }
+        event.commit();
+        return conn;
+    }
+
+    // A dedicated connection that the caller owns and closes, e.g. for a long-lived writer thread
+    public Connection openConnection() throws SQLException {
+        ConnectionAcquireEvent event = new ConnectionAcquireEvent();
+        event.begin();
+        Connection dedicated = SqlTracer.getInstance().wrap(DriverManager.getConnection(DB_URL));
+        try (Statement stmt = dedicated.createStatement()) {
+            stmt.execute("PRAGMA journal_mode = WAL");
+            stmt.execute("PRAGMA busy_timeout = 5000");
+        }
+        event.setDedicated(true);
+        event.setOpened(true);
+        event.commit();
+        return dedicated;
+    }
+
+    public BookingJournal getBookingJournal() {
+        return bookingJournal;
+    }
+
+    // True when journaled requests from the last run may still be waiting to be applied
+    public boolean isBookingJournalUnreplayed() {
+        return bookingJournalUnreplayed;
+    }
+
+    // Applies journaled requests that were acknowledged but not yet written before the last shutdown
+    private void replayBookingJournal() {
+        try {
+            Connection conn = getConnection();
+            BookingWriteDAO bookingWriteDAO = new BookingWriteDAO();
+            long appliedSeq = bookingWriteDAO.getAppliedJournalSeq(conn);
+            bookingJournal = new BookingJournal(Paths.get(JOURNAL_PATH),
+                Integer.getInteger("journal.initialSize", 1 << 20), appliedSeq);
+
+            List<BookingJournal.Entry> tail = bookingJournal.readAfter(appliedSeq);
+            if (tail.isEmpty()) {
+                return;
+            }
+
+            int applied = 0;
+            conn.setAutoCommit(false);
+            try {
+                // As in the booking pipeline, each entry gets its own savepoint so one failure only undoes that entry
+                for (BookingJournal.Entry entry : tail) {
+                    Savepoint savepoint = conn.setSavepoint();
+                    try {
+                        if (replayEntry(conn, bookingWriteDAO, entry).isSuccess()) {
+                            applied++;
+                        } else {
+                            conn.rollback(savepoint);
+                        }
+                    } catch (SQLException | IOException | RuntimeException e) {
+                        conn.rollback(savepoint);
+                        System.err.println("Error replaying booking journal entry " + entry.getSeq() + ": " + e);
+                    }
+                }
+                bookingWriteDAO.setAppliedJournalSeq(conn, tail.get(tail.size() - 1).getSeq());
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+            bookingJournal.markApplied(tail.get(tail.size() - 1).getSeq());
+            System.out.println("Replayed booking journal: " + applied + " of " + tail.size() + " requests applied.");
+        } catch (SQLException | IOException e) {
+            // Anything journaled from now on would be applied ahead of the unreplayed tail and move applied_seq
+            // past it, so the journal is left unusable and the booking pipeline does not start
+            System.err.println("Error replaying booking journal: " + e.getMessage());
+            bookingJournalUnreplayed = true;
+            closeBookingJournal();
+        }
+    }
+
+    private static BookingResult replayEntry(Connection conn, BookingWriteDAO bookingWriteDAO, BookingJournal.Entry entry)
+            throws SQLException, IOException {
+        if (entry.getType() == BookingJournal.TYPE_BOOKING) {
+            return bookingWriteDAO.applyBooking(conn, BookingJournal.decodeBooking(entry.getPayload()));
+        }
+        int[] cancellation = BookingJournal.decodeCancellation(entry.getPayload());
+        return bookingWriteDAO.applyCancellation(conn, cancellation[0], cancellation[1]);
+    }
+
+    private void closeBookingJournal() {
+        if (bookingJournal == null) {
+            return;
+        }
+        try {
+            bookingJournal.close();
+        } catch (IOException e) {
+            System.err.println("Error closing booking journal: " + e.getMessage());
+        }
+        bookingJournal = null;
+    }
+
+    public void addChangeListener(DataChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(DataChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    public void fireDataChanged(String table, DataChangeListener.ChangeType type, int id) {
+        for (DataChangeListener listener : changeListeners) {
+            listener.onDataChanged(table, type, id);
         }
-        return connection;
     }
 
     public void closeConnection() {
         try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
+            Connection conn = connection.get();
+            if (conn != null && !conn.isClosed()) {
+                conn.close();
             }
+            connection.remove();
         } catch (SQLException e) {
             System.err.println("Error closing database connection: " + e.getMessage());
         }
+        try {
+            if (bookingJournal != null) {
+                bookingJournal.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Error closing booking journal: " + e.getMessage());
+        }
     }
 
     public void insertSampleData() {
+        if (getMetadataVersion("sample_data_version") >= SAMPLE_DATA_VERSION) {
+            return;
+        }
+
+        long start = System.nanoTime();
         try {
-            // Insert sample routes
-            String[] sampleRoutes = {
-                "INSERT OR IGNORE INTO routes (source, destination, distance, duration, fare_multiplier) VALUES ('New York', 'Boston', 215.0, 240, 1.0)",
-                "INSERT OR IGNORE INTO routes (source, destination, distance, duration, fare_multiplier) VALUES ('New York', 'Philadelphia', 95.0, 120, 0.8)",
-                "INSERT OR IGNORE INTO routes (source, destination, distance, duration, fare_multiplier) VALUES ('Boston', 'Washington DC', 440.0, 480, 1.2)",
-                "INSERT OR IGNORE INTO routes (source, destination, distance, duration, fare_multiplier) VALUES ('Los Angeles', 'San Francisco', 380.0, 420, 1.1)"
-            };
-
-            for (String query : sampleRoutes) {
-                try (Statement stmt = connection.createStatement()) {
-                    stmt.execute(query);
+            Connection conn = getConnection();
+            conn.setAutoCommit(false);
+            try {
+                // Databases seeded before versioning existed already have the sample rows
+                if (!hasRows(conn, "buses")) {
+                    insertSampleRows();
                 }
+                setMetadata(conn, "sample_data_version", SAMPLE_DATA_VERSION);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
+        } catch (SQLException e) {
+            System.err.println("Error inserting sample data: " + e.getMessage());
+        }
+        recordStartupTiming("sample data", start);
+    }
 
-            // Insert sample buses
-            String[] sampleBuses = {
-                "INSERT OR IGNORE INTO buses (bus_number, bus_name, bus_type, total_seats, available_seats, base_fare) VALUES ('NY001', 'Express Coach', 'LUXURY', 50, 50, 25.0)",
-                "INSERT OR IGNORE INTO buses (bus_number, bus_name, bus_type, total_seats, available_seats, base_fare) VALUES ('NY002', 'City Bus', 'STANDARD', 40, 40, 15.0)",
-                "INSERT OR IGNORE INTO buses (bus_number, bus_name, bus_type, total_seats, available_seats, base_fare) VALUES ('LA001', 'Coastal Express', 'LUXURY', 45, 45, 30.0)"
-            };
+    private void insertSampleRows() throws SQLException {
+        // Insert sample routes
+        String[] sampleRoutes = {
+            "INSERT OR IGNORE INTO routes (source, destination, distance, duration, fare_multiplier) VALUES ('New York', 'Boston', 215.0, 240, 1.0)",
+            "INSERT OR IGNORE INTO routes (source, destination, distance, duration, fare_multiplier) VALUES ('New York', 'Philadelphia', 95.0, 120, 0.8)",
+            "INSERT OR IGNORE INTO routes (source, destination, distance, duration, fare_multiplier) VALUES ('Boston', 'Washington DC', 440.0, 480, 1.2)",
+            "INSERT OR IGNORE INTO routes (source, destination, distance, duration, fare_multiplier) VALUES ('Los Angeles', 'San Francisco', 380.0, 420, 1.1)"
+        };
 
-            for (String query : sampleBuses) {
-                try (Statement stmt = connection.createStatement()) {
-                    stmt.execute(query);
-                }
+        for (String query : sampleRoutes) {
+            try (Statement stmt = getConnection().createStatement()) {
+                stmt.execute(query);
             }
+        }
 
-            // Insert sample schedules
-            String[] sampleSchedules = {
-                "INSERT OR IGNORE INTO schedules (bus_id, route_id, departure_time, arrival_time, day_of_week) VALUES (1, 1, '08:00', '12:00', 'MONDAY')",
-                "INSERT OR IGNORE INTO schedules (bus_id, route_id, departure_time, arrival_time, day_of_week) VALUES (1, 1, '14:00', '18:00', 'MONDAY')",
-                "INSERT OR IGNORE INTO schedules (bus_id, route_id, departure_time, arrival_time, day_of_week) VALUES (2, 2, '09:00', '11:00', 'MONDAY')",
-                "INSERT OR IGNORE INTO schedules (bus_id, route_id, departure_time, arrival_time, day_of_week) VALUES (3, 4, '10:00', '17:00', 'MONDAY')"
-            };
-
-            for (String query : sampleSchedules) {
-                try (Statement stmt = connection.createStatement()) {
-                    stmt.execute(query);
-                }
+        // Insert sample buses
+        String[] sampleBuses = {
+            "INSERT OR IGNORE INTO buses (bus_number, bus_name, bus_type, total_seats, available_seats, base_fare) VALUES ('NY001', 'Express Coach', 'LUXURY', 50, 50, 25.0)",
+            "INSERT OR IGNORE INTO buses (bus_number, bus_name, bus_type, total_seats, available_seats, base_fare) VALUES ('NY002', 'City Bus', 'STANDARD', 40, 40, 15.0)",
+            "INSERT OR IGNORE INTO buses (bus_number, bus_name, bus_type, total_seats, available_seats, base_fare) VALUES ('LA001', 'Coastal Express', 'LUXURY', 45, 45, 30.0)"
+        };
+
+        for (String query : sampleBuses) {
+            try (Statement stmt = getConnection().createStatement()) {
+                stmt.execute(query);
+            }
+        }
+
+        // Insert sample schedules
+        String[] sampleSchedules = {
+            "INSERT OR IGNORE INTO schedules (bus_id, route_id, departure_time, arrival_time, day_of_week) VALUES (1, 1, '08:00', '12:00', 'MONDAY')",
+            "INSERT OR IGNORE INTO schedules (bus_id, route_id, departure_time, arrival_time, day_of_week) VALUES (1, 1, '14:00', '18:00', 'MONDAY')",
+            "INSERT OR IGNORE INTO schedules (bus_id, route_id, departure_time, arrival_time, day_of_week) VALUES (2, 2, '09:00', '11:00', 'MONDAY')",
+            "INSERT OR IGNORE INTO schedules (bus_id, route_id, departure_time, arrival_time, day_of_week) VALUES (3, 4, '10:00', '17:00', 'MONDAY')"
+        };
+
+        for (String query : sampleSchedules) {
+            try (Statement stmt = getConnection().createStatement()) {
+                stmt.execute(query);
             }
+        }
 
-            // Initialize seats for buses
-            initializeSeatsForBuses();
+        // Initialize seats for buses
+        initializeSeatsForBuses();
+    }
 
-        } catch (SQLException e) {
-            System.err.println("Error inserting sample data: " + e.getMessage());
+    private boolean hasRows(Connection conn, String table) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT EXISTS (SELECT 1 FROM " + table + ")")) {
+            return rs.next() && rs.getInt(1) == 1;
         }
     }
 
@@ -200,7 +647,7 @@ public class DatabaseManager {
         };
 
         for (String query : busSeats) {
-            try (Statement stmt = connection.createStatement()) {
+            try (Statement stmt = getConnection().createStatement()) {
                 stmt.execute(query);
             }
         }
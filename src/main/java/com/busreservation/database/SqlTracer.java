@@ -0,0 +1,337 @@
+package com.busreservation.database;
+
+import com.busreservation.metrics.jfr.StatementExecutionEvent;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Wraps JDBC objects in dynamic proxies that time every statement: execution, row fetching and row counts.
+// Statements slower than jdbc.slowQueryMillis are logged with their EXPLAIN QUERY PLAN output, and every
+// statement is also emitted as a JFR event when a flight recording is running. Off unless -Djdbc.trace=true,
+// since every call then goes through a proxy.
+public class SqlTracer {
+    private static SqlTracer instance;
+
+    private final boolean enabled;
+    private final long slowQueryNanos;
+    // SQL text -> aggregated cost
+    private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+
+    private SqlTracer() {
+        this.enabled = Boolean.parseBoolean(System.getProperty("jdbc.trace", "false"));
+        this.slowQueryNanos = Long.getLong("jdbc.slowQueryMillis", 50) * 1_000_000;
+    }
+
+    public static synchronized SqlTracer getInstance() {
+        if (instance == null) {
+            instance = new SqlTracer();
+        }
+        return instance;
+    }
+
+    public Connection wrap(Connection connection) {
+        if (!enabled || connection == null || (Proxy.isProxyClass(connection.getClass())
+                && Proxy.getInvocationHandler(connection) instanceof ConnectionHandler)) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, new ConnectionHandler(connection));
+    }
+
+    // Most expensive statements by total time spent
+    public List<StatementStats> getTopStatements(int limit) {
+        List<StatementStats> sorted = new ArrayList<>(statements.values());
+        sorted.sort(Comparator.comparingLong(StatementStats::getTotalNanos).reversed());
+        return sorted.subList(0, Math.min(limit, sorted.size()));
+    }
+
+    public void reset() {
+        statements.clear();
+    }
+
+    public String formatTopStatements(int limit) {
+        if (!enabled) {
+            return "SQL tracing is off; start with -Djdbc.trace=true to collect statement timings." + System.lineSeparator();
+        }
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%8s %10s %9s %9s %9s  %s%n", "Calls", "Total ms", "Mean ms", "Max ms", "Rows", "SQL"));
+        report.append("=".repeat(112)).append(System.lineSeparator());
+        for (StatementStats stats : getTopStatements(limit)) {
+            report.append(String.format("%8d %10.1f %9.3f %9.3f %9d  %s%n",
+                    stats.getCalls(),
+                    stats.getTotalNanos() / 1_000_000.0,
+                    stats.getTotalNanos() / 1_000_000.0 / Math.max(1, stats.getCalls()),
+                    stats.getMaxNanos() / 1_000_000.0,
+                    stats.getRows(),
+                    abbreviate(stats.getSql(), 60)));
+        }
+        return report.toString();
+    }
+
+    private void record(Connection connection, String sql, String parameterShape, long executeNanos, long fetchNanos, long rows) {
+        if (sql == null) {
+            return;
+        }
+        long elapsed = executeNanos + fetchNanos;
+        statements.computeIfAbsent(sql, StatementStats::new).add(elapsed, rows);
+
+        if (elapsed >= slowQueryNanos) {
+            StringBuilder log = new StringBuilder();
+            log.append(String.format("[slow-query] %.1f ms (execute %.1f ms, fetch %.1f ms), rows=%d, params=%s%n  %s",
+                    elapsed / 1_000_000.0, executeNanos / 1_000_000.0, fetchNanos / 1_000_000.0,
+                    rows, parameterShape, sql));
+            for (String step : explain(connection, sql)) {
+                log.append(System.lineSeparator()).append("  plan: ").append(step);
+            }
+            System.err.println(log);
+        }
+    }
+
+    private List<String> explain(Connection connection, String sql) {
+        List<String> plan = new ArrayList<>();
+        String keyword = sql.trim().split("\\s+", 2)[0].toUpperCase(Locale.ROOT);
+        if (!keyword.equals("SELECT") && !keyword.equals("INSERT") && !keyword.equals("UPDATE")
+                && !keyword.equals("DELETE") && !keyword.equals("WITH")) {
+            return plan;
+        }
+
+        try (PreparedStatement pstmt = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            int parameterCount = pstmt.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameterCount; i++) {
+                pstmt.setNull(i, Types.NULL);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    plan.add(rs.getString("detail"));
+                }
+            }
+        } catch (SQLException e) {
+            plan.add("unavailable: " + e.getMessage());
+        }
+        return plan;
+    }
+
+    private static String abbreviate(String sql, int width) {
+        String flat = sql.replaceAll("\\s+", " ").trim();
+        return flat.length() <= width ? flat : flat.substring(0, width - 3) + "...";
+    }
+
+    private static Object forward(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    public static final class StatementStats {
+        private final String sql;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        StatementStats(String sql) {
+            this.sql = sql;
+        }
+
+        void add(long elapsedNanos, long rowCount) {
+            calls.increment();
+            totalNanos.add(elapsedNanos);
+            rows.add(Math.max(0, rowCount));
+            maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+        }
+
+        public String getSql() { return sql; }
+        public long getCalls() { return calls.sum(); }
+        public long getTotalNanos() { return totalNanos.sum(); }
+        public long getMaxNanos() { return maxNanos.get(); }
+        public long getRows() { return rows.sum(); }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = forward(target, method, args);
+            String name = method.getName();
+            if (result instanceof Statement && (name.equals("prepareStatement") || name.equals("prepareCall")
+                    || name.equals("createStatement"))) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                return Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                        new Class<?>[] {method.getReturnType()}, new StatementHandler(target, (Statement) result, sql));
+            }
+            return result;
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Connection connection;
+        private final Statement target;
+        private final String preparedSql;
+        private final Map<Integer, String> parameterShapes = new TreeMap<>();
+
+        // The query whose rows are still being fetched, recorded once its result set or statement closes
+        private String pendingSql;
+        private String pendingShape;
+        private StatementExecutionEvent pendingEvent;
+        private long executeNanos;
+        private long fetchNanos;
+        private long rows;
+
+        StatementHandler(Connection connection, Statement target, String preparedSql) {
+            this.connection = connection;
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                parameterShapes.put((Integer) args[0], shapeOf(name, args[1]));
+                return forward(target, method, args);
+            }
+            if (name.equals("clearParameters")) {
+                parameterShapes.clear();
+                return forward(target, method, args);
+            }
+            if (name.equals("close")) {
+                finishPending();
+                return forward(target, method, args);
+            }
+            if (!name.startsWith("execute")) {
+                return forward(target, method, args);
+            }
+
+            finishPending();
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+            StatementExecutionEvent event = new StatementExecutionEvent();
+            event.begin();
+            long start = System.nanoTime();
+            Object result = forward(target, method, args);
+            long elapsed = System.nanoTime() - start;
+
+            if (result instanceof ResultSet) {
+                pendingSql = sql;
+                pendingShape = describeParameters();
+                pendingEvent = event;
+                executeNanos = elapsed;
+                fetchNanos = 0;
+                rows = 0;
+                return Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                        new Class<?>[] {ResultSet.class}, new ResultSetHandler(this, (ResultSet) result));
+            }
+
+            String shape = describeParameters();
+            long updated = updateCount(result);
+            emit(event, sql, shape, 0, updated);
+            record(connection, sql, shape, elapsed, 0, updated);
+            return result;
+        }
+
+        void finishPending() {
+            if (pendingSql != null) {
+                String sql = pendingSql;
+                pendingSql = null;
+                emit(pendingEvent, sql, pendingShape, fetchNanos, rows);
+                record(connection, sql, pendingShape, executeNanos, fetchNanos, rows);
+            }
+        }
+
+        private void emit(StatementExecutionEvent event, String sql, String shape, long fetchNanos, long rowCount) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.setSql(sql);
+                event.setParameters(shape);
+                event.setFetchTime(fetchNanos);
+                event.setRows(rowCount);
+                event.commit();
+            }
+        }
+
+        private String describeParameters() {
+            StringJoiner shape = new StringJoiner(", ", "(", ")");
+            for (String parameter : parameterShapes.values()) {
+                shape.add(parameter);
+            }
+            return shape.toString();
+        }
+
+        private long updateCount(Object result) throws SQLException {
+            if (result instanceof Integer || result instanceof Long) {
+                return ((Number) result).longValue();
+            }
+            if (result instanceof int[]) {
+                long total = 0;
+                for (int count : (int[]) result) {
+                    total += Math.max(0, count);
+                }
+                return total;
+            }
+            return target.getUpdateCount();
+        }
+
+        private String shapeOf(String setter, Object value) {
+            if (setter.equals("setNull") || value == null) {
+                return "null";
+            }
+            if (setter.equals("setObject")) {
+                return value.getClass().getSimpleName();
+            }
+            return setter.substring(3);
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final StatementHandler statement;
+        private final ResultSet target;
+
+        ResultSetHandler(StatementHandler statement, ResultSet target) {
+            this.statement = statement;
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("next")) {
+                long start = System.nanoTime();
+                Object result = forward(target, method, args);
+                statement.fetchNanos += System.nanoTime() - start;
+                if (Boolean.TRUE.equals(result)) {
+                    statement.rows++;
+                }
+                return result;
+            }
+            if (name.equals("close")) {
+                statement.finishPending();
+            }
+            return forward(target, method, args);
+        }
+    }
+}
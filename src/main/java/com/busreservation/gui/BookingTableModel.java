@@ -0,0 +1,230 @@
+package com.busreservation.gui;
+
+import com.busreservation.dao.BookingSort;
+import com.busreservation.model.Booking;
+
+import javax.swing.SwingWorker;
+import javax.swing.table.AbstractTableModel;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+// Booking rows read a page at a time as the table scrolls. Only the most recently used pages stay cached,
+// and sorting is done by the database, so opening the table costs one count and one page whatever its size.
+// All state is confined to the Event Dispatch Thread; pages are fetched on SwingWorkers.
+class BookingTableModel extends AbstractTableModel {
+    static final int PAGE_SIZE = 100;
+    private static final int CACHED_PAGES = 8;
+
+    interface PageSource {
+        int count();
+
+        List<Booking> page(BookingSort sort, boolean descending, int offset, int limit);
+    }
+
+    private enum Column {
+        ID("ID", BookingSort.ID),
+        USER("User", BookingSort.USER),
+        PASSENGER("Passenger", null),
+        BUS("Bus", BookingSort.BUS),
+        SEAT("Seat", null),
+        FARE("Fare", null),
+        STATUS("Status", null),
+        TRAVEL_DATE("Travel Date", BookingSort.TRAVEL_DATE);
+
+        private final String title;
+        private final BookingSort sort;
+
+        Column(String title, BookingSort sort) {
+            this.title = title;
+            this.sort = sort;
+        }
+    }
+
+    private static final List<Column> USER_COLUMNS = Arrays.asList(
+        Column.ID, Column.PASSENGER, Column.BUS, Column.SEAT, Column.FARE, Column.STATUS, Column.TRAVEL_DATE);
+    private static final List<Column> ALL_COLUMNS = Arrays.asList(Column.values());
+
+    private final Supplier<Map<Integer, String>> busNamesLoader;
+    private List<Column> columns = USER_COLUMNS;
+    private PageSource source;
+    private BookingSort sort = BookingSort.ID;
+    private boolean descending = true;
+
+    private int rowCount;
+    private Map<Integer, String> busNames = Map.of();
+    // Bumped on every reload so pages fetched for an earlier source or ordering are dropped
+    private int generation;
+    private SwingWorker<Integer, Void> reload;
+    private final Set<Integer> pendingPages = new HashSet<>();
+    private final Map<Integer, List<Booking>> pages = new LinkedHashMap<Integer, List<Booking>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Booking>> eldest) {
+            return size() > CACHED_PAGES;
+        }
+    };
+
+    BookingTableModel(Supplier<Map<Integer, String>> busNamesLoader) {
+        this.busNamesLoader = busNamesLoader;
+    }
+
+    // Switches to a new set of bookings; the returned worker completes with the row count
+    SwingWorker<Integer, Void> load(PageSource source, boolean showUser) {
+        this.source = source;
+        this.columns = showUser ? ALL_COLUMNS : USER_COLUMNS;
+        fireTableStructureChanged();
+        return reload();
+    }
+
+    // Orders by the given column if the database has an index for it, flipping direction on a repeat click
+    SwingWorker<Integer, Void> sortBy(int column) {
+        BookingSort requested = columns.get(column).sort;
+        if (requested == null || source == null) {
+            return null;
+        }
+        descending = requested == sort ? !descending : false;
+        sort = requested;
+        fireTableStructureChanged();
+        return reload();
+    }
+
+    SwingWorker<Integer, Void> reload() {
+        if (reload != null && !reload.isDone()) {
+            reload.cancel(false);
+        }
+        int loadGeneration = ++generation;
+        pages.clear();
+        pendingPages.clear();
+        rowCount = 0;
+        fireTableDataChanged();
+
+        PageSource current = source;
+        BookingSort currentSort = sort;
+        boolean currentDescending = descending;
+        reload = new SwingWorker<Integer, Void>() {
+            private Map<Integer, String> names;
+            private List<Booking> firstPage;
+
+            @Override
+            protected Integer doInBackground() {
+                names = busNamesLoader.get();
+                int count = current.count();
+                firstPage = current.page(currentSort, currentDescending, 0, PAGE_SIZE);
+                return count;
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled() || loadGeneration != generation) {
+                    return;
+                }
+                try {
+                    rowCount = get();
+                    busNames = names;
+                    pages.put(0, firstPage);
+                    fireTableDataChanged();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    // Reported by whoever started the load, through the returned worker
+                }
+            }
+        };
+        reload.execute();
+        return reload;
+    }
+
+    // The booking behind a row, or null while its page is still being fetched
+    Booking getBookingAt(int row) {
+        int pageIndex = row / PAGE_SIZE;
+        List<Booking> page = pages.get(pageIndex);
+        if (page == null) {
+            requestPage(pageIndex);
+            return null;
+        }
+        int offset = row % PAGE_SIZE;
+        return offset < page.size() ? page.get(offset) : null;
+    }
+
+    private void requestPage(int pageIndex) {
+        if (source == null || !pendingPages.add(pageIndex)) {
+            return;
+        }
+        int pageGeneration = generation;
+        PageSource current = source;
+        BookingSort currentSort = sort;
+        boolean currentDescending = descending;
+
+        new SwingWorker<List<Booking>, Void>() {
+            @Override
+            protected List<Booking> doInBackground() {
+                return current.page(currentSort, currentDescending, pageIndex * PAGE_SIZE, PAGE_SIZE);
+            }
+
+            @Override
+            protected void done() {
+                if (pageGeneration != generation) {
+                    return;
+                }
+                pendingPages.remove(pageIndex);
+                try {
+                    pages.put(pageIndex, get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException e) {
+                    System.err.println("Error loading booking page " + pageIndex + ": " + e.getCause().getMessage());
+                    return;
+                }
+                int first = pageIndex * PAGE_SIZE;
+                int last = Math.min(first + PAGE_SIZE, rowCount) - 1;
+                if (first <= last) {
+                    fireTableRowsUpdated(first, last);
+                }
+            }
+        }.execute();
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.size();
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        Column col = columns.get(column);
+        if (col.sort != null && col.sort == sort) {
+            return col.title + (descending ? " \u25BC" : " \u25B2");
+        }
+        return col.title;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Booking booking = getBookingAt(row);
+        if (booking == null) {
+            return null;
+        }
+        switch (columns.get(column)) {
+            case ID: return booking.getId();
+            case USER: return booking.getUserId();
+            case PASSENGER: return booking.getPassengerName();
+            case BUS: return busNames.getOrDefault(booking.getBusId(), "N/A");
+            case SEAT: return booking.getSeatNumber();
+            case FARE: return String.format("$%.2f", booking.getFare());
+            case STATUS: return booking.getStatus();
+            case TRAVEL_DATE: return booking.getTravelDate().toLocalDate().toString();
+            default: return null;
+        }
+    }
+}
@@ -1,25 +1,48 @@
 package com.busreservation.gui;
 
+import com.busreservation.dao.BookingSort;
+import com.busreservation.database.SqlTracer;
+import com.busreservation.metrics.MetricsRegistry;
 import com.busreservation.model.Bus;
 import com.busreservation.model.Booking;
+import com.busreservation.model.DailySummary;
+import com.busreservation.model.SeatChange;
+import com.busreservation.model.Session;
 import com.busreservation.model.User;
 import com.busreservation.service.AuthenticationService;
 import com.busreservation.service.BusService;
 import com.busreservation.service.BookingService;
+import com.busreservation.service.SeatChangeBus;
+import com.busreservation.service.SummaryService;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class BusReservationGUI extends JFrame {
     private AuthenticationService authService;
     private BusService busService;
     private BookingService bookingService;
+    private SeatChangeBus seatChangeBus;
+    private SummaryService summaryService;
     
     private JPanel mainPanel;
     private CardLayout cardLayout;
@@ -46,15 +69,42 @@ public class BusReservationGUI extends JFrame {
     private JTextField passengerPhoneField;
     private JTextField travelDateField;
     private int selectedBusId;
+    private LocalDate selectedTravelDate;
+    // Live seat updates for the trip on screen; changes that arrive before its seat map has loaded wait here
+    private SeatChangeBus.Subscription seatSubscription;
+    private int seatMapGeneration;
+    private boolean seatMapLoaded;
+    private final List<SeatChange> earlySeatChanges = new ArrayList<>();
+    private JButton confirmBookingButton;
     
     // User Bookings Panel
     private JTable bookingTable;
-    private DefaultTableModel bookingTableModel;
+    private BookingTableModel bookingTableModel;
+    private boolean showingAllBookings;
+    
+    // Metrics components
+    private JTextArea metricsTextArea;
+    
+    // Revenue & occupancy components
+    private JTextField summaryFromField;
+    private JTextField summaryToField;
+    private DefaultTableModel busSummaryModel;
+    private DefaultTableModel routeSummaryModel;
+    private SwingWorker<?, ?> busSummaryLoad;
+    private SwingWorker<?, ?> routeSummaryLoad;
+    
+    // Status bar and background loads
+    private JLabel statusLabel;
+    private JProgressBar progressBar;
+    private int runningTasks;
+    private SwingWorker<?, ?> busLoad;
 
     public BusReservationGUI() {
         this.authService = new AuthenticationService();
         this.busService = new BusService();
         this.bookingService = new BookingService();
+        this.seatChangeBus = SeatChangeBus.getInstance();
+        this.summaryService = new SummaryService();
         
         initializeComponents();
         setupLayout();
@@ -80,8 +130,24 @@ public class BusReservationGUI extends JFrame {
         createBookingPanel();
         createUserBookingsPanel();
         createAdminPanel();
+        createMetricsPanel();
+        createSummaryPanel();
+        
+        add(mainPanel, BorderLayout.CENTER);
+        add(createStatusBar(), BorderLayout.SOUTH);
+    }
+
+    private JPanel createStatusBar() {
+        JPanel statusBar = new JPanel(new BorderLayout(10, 0));
+        statusBar.setBorder(BorderFactory.createEmptyBorder(2, 8, 2, 8));
+        
+        statusLabel = new JLabel(" ");
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setVisible(false);
         
-        add(mainPanel);
+        statusBar.add(statusLabel, BorderLayout.CENTER);
+        statusBar.add(progressBar, BorderLayout.EAST);
+        return statusBar;
     }
 
     private void createLoginPanel() {
@@ -343,6 +409,13 @@ public class BusReservationGUI extends JFrame {
         travelDateField = new JTextField(20);
         travelDateField.setText(LocalDateTime.now().plusDays(1).format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
         detailsPanel.add(travelDateField, gbc);
+        travelDateField.addActionListener(e -> handleTravelDateChanged());
+        travelDateField.addFocusListener(new FocusAdapter() {
+            @Override
+            public void focusLost(FocusEvent e) {
+                handleTravelDateChanged();
+            }
+        });
         
         contentPanel.add(detailsPanel);
         
@@ -350,17 +423,20 @@ public class BusReservationGUI extends JFrame {
         
         // Buttons
         JPanel buttonPanel = new JPanel(new FlowLayout());
-        JButton confirmButton = new JButton("Confirm Booking");
+        confirmBookingButton = new JButton("Confirm Booking");
         JButton cancelButton = new JButton("Cancel");
         
-        buttonPanel.add(confirmButton);
+        buttonPanel.add(confirmBookingButton);
         buttonPanel.add(cancelButton);
         
         bookingPanel.add(buttonPanel, BorderLayout.SOUTH);
         
         // Event handlers
-        confirmButton.addActionListener(e -> handleConfirmBooking());
-        cancelButton.addActionListener(e -> cardLayout.show(mainPanel, "BUS_LIST"));
+        confirmBookingButton.addActionListener(e -> handleConfirmBooking());
+        cancelButton.addActionListener(e -> {
+            unsubscribeSeats();
+            cardLayout.show(mainPanel, "BUS_LIST");
+        });
         
         mainPanel.add(bookingPanel, "BOOKING");
     }
@@ -374,14 +450,22 @@ public class BusReservationGUI extends JFrame {
         bookingsPanel.add(titleLabel, BorderLayout.NORTH);
         
         // Bookings table
-        String[] columns = {"ID", "Passenger", "Bus", "Seat", "Fare", "Status", "Travel Date"};
-        bookingTableModel = new DefaultTableModel(columns, 0) {
+        bookingTableModel = new BookingTableModel(busService::getBusNames);
+        bookingTable = new JTable(bookingTableModel);
+        bookingTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        // Sorting is done by the database on indexed columns, so only the loaded pages are ever in memory
+        bookingTable.getTableHeader().addMouseListener(new MouseAdapter() {
             @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
+            public void mouseClicked(MouseEvent e) {
+                int column = bookingTable.convertColumnIndexToModel(bookingTable.columnAtPoint(e.getPoint()));
+                if (column >= 0) {
+                    SwingWorker<Integer, Void> sorting = bookingTableModel.sortBy(column);
+                    if (sorting != null) {
+                        trackLoad(sorting, "bookings");
+                    }
+                }
             }
-        };
-        bookingTable = new JTable(bookingTableModel);
+        });
         
         JScrollPane scrollPane = new JScrollPane(bookingTable);
         bookingsPanel.add(scrollPane, BorderLayout.CENTER);
@@ -400,7 +484,7 @@ public class BusReservationGUI extends JFrame {
         
         // Event handlers
         cancelBookingButton.addActionListener(e -> handleCancelBooking());
-        refreshButton.addActionListener(e -> loadUserBookings());
+        refreshButton.addActionListener(e -> refreshBookings());
         backButton.addActionListener(e -> cardLayout.show(mainPanel, "MAIN_MENU"));
         
         mainPanel.add(bookingsPanel, "USER_BOOKINGS");
@@ -414,17 +498,21 @@ public class BusReservationGUI extends JFrame {
         titleLabel.setHorizontalAlignment(SwingConstants.CENTER);
         adminPanel.add(titleLabel, BorderLayout.NORTH);
         
-        JPanel buttonPanel = new JPanel(new GridLayout(3, 2, 10, 10));
+        JPanel buttonPanel = new JPanel(new GridLayout(4, 2, 10, 10));
         buttonPanel.setBorder(BorderFactory.createEmptyBorder(50, 50, 50, 50));
         
         JButton manageBusesButton = new JButton("Manage Buses");
         JButton viewAllBookingsButton = new JButton("View All Bookings");
         JButton createAdminButton = new JButton("Create Admin User");
+        JButton metricsButton = new JButton("Performance Metrics");
+        JButton summaryButton = new JButton("Revenue & Occupancy");
         JButton logoutButton = new JButton("Logout");
         
         buttonPanel.add(manageBusesButton);
         buttonPanel.add(viewAllBookingsButton);
         buttonPanel.add(createAdminButton);
+        buttonPanel.add(metricsButton);
+        buttonPanel.add(summaryButton);
         buttonPanel.add(logoutButton);
         
         adminPanel.add(buttonPanel, BorderLayout.CENTER);
@@ -439,11 +527,117 @@ public class BusReservationGUI extends JFrame {
             loadAllBookings();
         });
         createAdminButton.addActionListener(e -> handleCreateAdmin());
+        metricsButton.addActionListener(e -> {
+            cardLayout.show(mainPanel, "METRICS");
+            loadMetrics();
+        });
+        summaryButton.addActionListener(e -> {
+            cardLayout.show(mainPanel, "SUMMARY");
+            loadSummaries();
+        });
         logoutButton.addActionListener(e -> handleLogout());
         
         mainPanel.add(adminPanel, "ADMIN");
     }
 
+    private void createMetricsPanel() {
+        JPanel metricsPanel = new JPanel(new BorderLayout());
+        
+        JLabel titleLabel = new JLabel("Performance Metrics (latencies in ms)");
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 16));
+        titleLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        metricsPanel.add(titleLabel, BorderLayout.NORTH);
+        
+        metricsTextArea = new JTextArea();
+        metricsTextArea.setEditable(false);
+        metricsTextArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        metricsPanel.add(new JScrollPane(metricsTextArea), BorderLayout.CENTER);
+        
+        // Buttons
+        JPanel buttonPanel = new JPanel(new FlowLayout());
+        JButton refreshButton = new JButton("Refresh");
+        JButton resetButton = new JButton("Reset");
+        JButton backButton = new JButton("Back");
+        
+        buttonPanel.add(refreshButton);
+        buttonPanel.add(resetButton);
+        buttonPanel.add(backButton);
+        
+        metricsPanel.add(buttonPanel, BorderLayout.SOUTH);
+        
+        // Event handlers
+        refreshButton.addActionListener(e -> loadMetrics());
+        resetButton.addActionListener(e -> {
+            MetricsRegistry.getInstance().reset();
+            SqlTracer.getInstance().reset();
+            loadMetrics();
+        });
+        backButton.addActionListener(e -> cardLayout.show(mainPanel, "ADMIN"));
+        
+        mainPanel.add(metricsPanel, "METRICS");
+    }
+
+    private void createSummaryPanel() {
+        JPanel summaryPanel = new JPanel(new BorderLayout());
+        
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        JLabel titleLabel = new JLabel("Revenue & Occupancy");
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 16));
+        titleLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        headerPanel.add(titleLabel, BorderLayout.NORTH);
+        
+        JPanel rangePanel = new JPanel(new FlowLayout());
+        LocalDate today = LocalDate.now();
+        summaryFromField = new JTextField(today.minusDays(30).toString(), 10);
+        summaryToField = new JTextField(today.plusDays(30).toString(), 10);
+        rangePanel.add(new JLabel("From (yyyy-MM-dd):"));
+        rangePanel.add(summaryFromField);
+        rangePanel.add(new JLabel("To:"));
+        rangePanel.add(summaryToField);
+        headerPanel.add(rangePanel, BorderLayout.SOUTH);
+        summaryPanel.add(headerPanel, BorderLayout.NORTH);
+        
+        // Tables
+        busSummaryModel = new DefaultTableModel(
+            new String[]{"Date", "Bus", "Sold", "Seats", "Load", "Cancelled", "Revenue"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        routeSummaryModel = new DefaultTableModel(
+            new String[]{"Date", "Route", "Sold", "Cancelled", "Revenue"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("By Bus", new JScrollPane(new JTable(busSummaryModel)));
+        tabs.addTab("By Route", new JScrollPane(new JTable(routeSummaryModel)));
+        summaryPanel.add(tabs, BorderLayout.CENTER);
+        
+        // Buttons
+        JPanel buttonPanel = new JPanel(new FlowLayout());
+        JButton refreshButton = new JButton("Refresh");
+        JButton backButton = new JButton("Back");
+        
+        buttonPanel.add(refreshButton);
+        buttonPanel.add(backButton);
+        
+        summaryPanel.add(buttonPanel, BorderLayout.SOUTH);
+        
+        // Event handlers
+        refreshButton.addActionListener(e -> loadSummaries());
+        backButton.addActionListener(e -> {
+            cancelLoad(busSummaryLoad);
+            cancelLoad(routeSummaryLoad);
+            cardLayout.show(mainPanel, "ADMIN");
+        });
+        
+        mainPanel.add(summaryPanel, "SUMMARY");
+    }
+
     private void setupLayout() {
         // Show login panel initially
         cardLayout.show(mainPanel, "LOGIN");
@@ -457,18 +651,20 @@ public class BusReservationGUI extends JFrame {
         String username = usernameField.getText();
         String password = new String(passwordField.getPassword());
         
-        if (authService.loginUser(username, password)) {
-            usernameField.setText("");
-            passwordField.setText("");
-            
-            if (authService.isAdmin()) {
-                cardLayout.show(mainPanel, "ADMIN");
+        runInBackground("Signing in...", () -> authService.loginUser(username, password), loggedIn -> {
+            if (loggedIn) {
+                usernameField.setText("");
+                passwordField.setText("");
+                
+                if (authService.isAdmin()) {
+                    cardLayout.show(mainPanel, "ADMIN");
+                } else {
+                    cardLayout.show(mainPanel, "MAIN_MENU");
+                }
             } else {
-                cardLayout.show(mainPanel, "MAIN_MENU");
+                JOptionPane.showMessageDialog(this, "Invalid username or password!", "Login Error", JOptionPane.ERROR_MESSAGE);
             }
-        } else {
-            JOptionPane.showMessageDialog(this, "Invalid username or password!", "Login Error", JOptionPane.ERROR_MESSAGE);
-        }
+        });
     }
 
     private void handleRegistration() {
@@ -478,43 +674,43 @@ public class BusReservationGUI extends JFrame {
         String phone = regPhoneField.getText();
         String password = new String(regPasswordField.getPassword());
         
-        if (authService.registerUser(username, email, password, fullName, phone)) {
-            // Clear fields
-            regFullNameField.setText("");
-            regUsernameField.setText("");
-            regEmailField.setText("");
-            regPhoneField.setText("");
-            regPasswordField.setText("");
-            
-            JOptionPane.showMessageDialog(this, "Registration successful! Please login.", "Success", JOptionPane.INFORMATION_MESSAGE);
-            cardLayout.show(mainPanel, "LOGIN");
-        } else {
-            JOptionPane.showMessageDialog(this, "Registration failed! Please check your input.", "Registration Error", JOptionPane.ERROR_MESSAGE);
-        }
+        runInBackground("Registering...", () -> authService.registerUser(username, email, password, fullName, phone), registered -> {
+            if (registered) {
+                // Clear fields
+                regFullNameField.setText("");
+                regUsernameField.setText("");
+                regEmailField.setText("");
+                regPhoneField.setText("");
+                regPasswordField.setText("");
+                
+                JOptionPane.showMessageDialog(this, "Registration successful! Please login.", "Success", JOptionPane.INFORMATION_MESSAGE);
+                cardLayout.show(mainPanel, "LOGIN");
+            } else {
+                JOptionPane.showMessageDialog(this, "Registration failed! Please check your input.", "Registration Error", JOptionPane.ERROR_MESSAGE);
+            }
+        });
     }
 
     private void handleLogout() {
+        cancelLoad(busLoad);
+        cancelLoad(busSummaryLoad);
+        cancelLoad(routeSummaryLoad);
+        unsubscribeSeats();
         authService.logoutUser();
         cardLayout.show(mainPanel, "LOGIN");
     }
 
     private void loadBuses() {
-        List<Bus> buses = busService.getActiveBuses();
-        busTableModel.setRowCount(0);
-        
-        for (Bus bus : buses) {
-            Object[] row = {
-                bus.getId(),
-                bus.getBusNumber(),
-                bus.getBusName(),
-                bus.getBusType(),
-                bus.getTotalSeats(),
-                bus.getAvailableSeats(),
-                String.format("$%.2f", bus.getBaseFare()),
-                bus.getStatus()
-            };
-            busTableModel.addRow(row);
-        }
+        busLoad = loadRows(busLoad, busTableModel, "buses", busService::getActiveBuses, bus -> new Object[] {
+            bus.getId(),
+            bus.getBusNumber(),
+            bus.getBusName(),
+            bus.getBusType(),
+            bus.getTotalSeats(),
+            bus.getAvailableSeats(),
+            String.format("$%.2f", bus.getBaseFare()),
+            bus.getStatus()
+        });
     }
 
     private void handleBookTicket() {
@@ -524,33 +720,94 @@ public class BusReservationGUI extends JFrame {
             return;
         }
         
-        selectedBusId = (Integer) busTableModel.getValueAt(selectedRow, 0);
-        Bus bus = busService.getBusById(selectedBusId);
-        
-        if (bus == null) {
-            JOptionPane.showMessageDialog(this, "Bus not found!", "Error", JOptionPane.ERROR_MESSAGE);
+        LocalDate travelDate = parseTravelDate();
+        if (travelDate == null) {
+            JOptionPane.showMessageDialog(this, "Invalid date format! Use yyyy-MM-dd", "Date Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
-        
-        // Load seats for the selected bus
-        loadSeats(bus);
-        cardLayout.show(mainPanel, "BOOKING");
+        showSeatMap((Integer) busTableModel.getValueAt(selectedRow, 0), travelDate, true);
+    }
+
+    private void handleTravelDateChanged() {
+        LocalDate travelDate = parseTravelDate();
+        if (seatSubscription != null && travelDate != null && !travelDate.equals(selectedTravelDate)) {
+            showSeatMap(selectedBusId, travelDate, false);
+        }
     }
 
-    private void loadSeats(Bus bus) {
+    private LocalDate parseTravelDate() {
+        try {
+            return LocalDate.parse(travelDateField.getText().trim());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // Seat occupancy for one trip, kept current by the seat change bus while the booking panel shows it
+    private void showSeatMap(int busId, LocalDate travelDate, boolean openPanel) {
+        unsubscribeSeats();
+        int generation = ++seatMapGeneration;
+        seatMapLoaded = false;
+        earlySeatChanges.clear();
+        // Subscribed before occupancy is read, so a booking committed in between still arrives
+        seatSubscription = seatChangeBus.subscribe(busId, travelDate, (bus, date, version, changes) ->
+            SwingUtilities.invokeLater(() -> applySeatChanges(generation, changes)));
+        
+        runInBackground("Loading seats...", () -> {
+            Bus bus = busService.getBusById(busId);
+            return bus != null ? new SeatMap(bus, bookingService.getOccupiedSeats(busId, travelDate.atStartOfDay())) : null;
+        }, seatMap -> {
+            if (generation != seatMapGeneration) {
+                return;
+            }
+            if (seatMap == null) {
+                unsubscribeSeats();
+                JOptionPane.showMessageDialog(this, "Bus not found!", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            
+            selectedBusId = busId;
+            selectedTravelDate = travelDate;
+            loadSeats(seatMap.bus, seatMap.occupied);
+            seatMapLoaded = true;
+            applySeatChanges(generation, new ArrayList<>(earlySeatChanges));
+            earlySeatChanges.clear();
+            if (openPanel) {
+                cardLayout.show(mainPanel, "BOOKING");
+            }
+        });
+    }
+
+    private void applySeatChanges(int generation, List<SeatChange> changes) {
+        if (generation != seatMapGeneration) {
+            return;
+        }
+        if (!seatMapLoaded) {
+            earlySeatChanges.addAll(changes);
+            return;
+        }
+        // Row i holds seat i + 1
+        for (SeatChange change : changes) {
+            int row = change.getSeatNumber() - 1;
+            if (row >= 0 && row < seatTableModel.getRowCount()) {
+                seatTableModel.setValueAt(change.isAvailable() ? "Available" : "Occupied", row, 1);
+            }
+        }
+    }
+
+    private void unsubscribeSeats() {
+        if (seatSubscription != null) {
+            seatSubscription.cancel();
+            seatSubscription = null;
+        }
+        seatMapGeneration++;
+    }
+
+    private void loadSeats(Bus bus, Set<Integer> occupied) {
         seatTableModel.setRowCount(0);
         
         for (int i = 1; i <= bus.getTotalSeats(); i++) {
-            String status = "Available";
-            // Check if seat is occupied
-            for (com.busreservation.model.Seat seat : bus.getSeats()) {
-                if (seat.getSeatNumber() == i) {
-                    status = seat.getStatus();
-                    break;
-                }
-            }
-            
-            Object[] row = {i, status};
+            Object[] row = {i, occupied.contains(i) ? "Occupied" : "Available"};
             seatTableModel.addRow(row);
         }
     }
@@ -579,34 +836,44 @@ public class BusReservationGUI extends JFrame {
             return;
         }
         
+        LocalDateTime travelDate;
         try {
-            LocalDateTime travelDate = LocalDateTime.parse(travelDateStr + " 00:00", 
+            travelDate = LocalDateTime.parse(travelDateStr + " 00:00", 
                 DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
-            
-            Bus bus = busService.getBusById(selectedBusId);
-            double fare = bookingService.calculateFare(selectedBusId, 1, bus.getBusType());
-            
+        } catch (DateTimeParseException e) {
+            JOptionPane.showMessageDialog(this, "Invalid date format! Use yyyy-MM-dd", "Date Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        
+        int busId = selectedBusId;
+        runInBackground("Calculating fare...", () -> bookingService.calculateFare(busId, 1, 1, travelDate), fare -> {
             int result = JOptionPane.showConfirmDialog(this, 
                 String.format("Confirm booking?\nSeat: %d\nFare: $%.2f", seatNumber, fare), 
                 "Confirm Booking", JOptionPane.YES_NO_OPTION);
             
-            if (result == JOptionPane.YES_OPTION) {
-                if (authService.isLoggedIn()) {
-                    User currentUser = authService.getCurrentUser();
-                    if (bookingService.createBooking(currentUser.getId(), selectedBusId, 1, seatNumber, 
-                                                   passengerName, passengerPhone, fare, travelDate)) {
-                        JOptionPane.showMessageDialog(this, "Booking confirmed!", "Success", JOptionPane.INFORMATION_MESSAGE);
-                        cardLayout.show(mainPanel, "MAIN_MENU");
-                    } else {
-                        JOptionPane.showMessageDialog(this, "Booking failed!", "Error", JOptionPane.ERROR_MESSAGE);
-                    }
+            if (result != JOptionPane.YES_OPTION) {
+                return;
+            }
+            if (!authService.isLoggedIn()) {
+                JOptionPane.showMessageDialog(this, "Please login to book tickets!", "Login Required", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            
+            // Block a second submit of the same seat while the first one is in flight
+            User currentUser = authService.getCurrentUser();
+            confirmBookingButton.setEnabled(false);
+            runInBackground("Booking seat " + seatNumber + "...", () -> bookingService.createBooking(currentUser.getId(), busId, 1,
+                    seatNumber, passengerName, passengerPhone, fare, travelDate), booked -> {
+                confirmBookingButton.setEnabled(true);
+                if (booked) {
+                    unsubscribeSeats();
+                    JOptionPane.showMessageDialog(this, "Booking request recorded!", "Success", JOptionPane.INFORMATION_MESSAGE);
+                    cardLayout.show(mainPanel, "MAIN_MENU");
                 } else {
-                    JOptionPane.showMessageDialog(this, "Please login to book tickets!", "Login Required", JOptionPane.WARNING_MESSAGE);
+                    JOptionPane.showMessageDialog(this, "Booking failed!", "Error", JOptionPane.ERROR_MESSAGE);
                 }
-            }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Invalid date format! Use yyyy-MM-dd", "Date Error", JOptionPane.ERROR_MESSAGE);
-        }
+            }, () -> confirmBookingButton.setEnabled(true));
+        });
     }
 
     private void loadUserBookings() {
@@ -615,49 +882,83 @@ public class BusReservationGUI extends JFrame {
             return;
         }
         
-        User currentUser = authService.getCurrentUser();
-        List<Booking> bookings = bookingService.getUserBookings(currentUser.getId());
-        
-        bookingTableModel.setRowCount(0);
-        
-        for (Booking booking : bookings) {
-            Bus bus = busService.getBusById(booking.getBusId());
-            String busName = bus != null ? bus.getBusName() : "N/A";
-            
-            Object[] row = {
-                booking.getId(),
-                booking.getPassengerName(),
-                busName,
-                booking.getSeatNumber(),
-                String.format("$%.2f", booking.getFare()),
-                booking.getStatus(),
-                booking.getTravelDate().toLocalDate().toString()
-            };
-            bookingTableModel.addRow(row);
-        }
+        Session session = authService.getCurrentSession();
+        showingAllBookings = false;
+        trackLoad(bookingTableModel.load(new BookingTableModel.PageSource() {
+            @Override
+            public int count() {
+                return bookingService.countUserBookings(session);
+            }
+
+            @Override
+            public List<Booking> page(BookingSort sort, boolean descending, int offset, int limit) {
+                return bookingService.getUserBookingPage(session, sort, descending, offset, limit);
+            }
+        }, false), "bookings");
     }
 
     private void loadAllBookings() {
-        List<Booking> bookings = bookingService.getAllBookings();
-        
-        bookingTableModel.setRowCount(0);
-        
-        for (Booking booking : bookings) {
-            Bus bus = busService.getBusById(booking.getBusId());
-            String busName = bus != null ? bus.getBusName() : "N/A";
-            
-            Object[] row = {
-                booking.getId(),
-                booking.getUserId(),
-                booking.getPassengerName(),
-                busName,
-                booking.getSeatNumber(),
-                String.format("$%.2f", booking.getFare()),
-                booking.getStatus(),
-                booking.getTravelDate().toLocalDate().toString()
-            };
-            bookingTableModel.addRow(row);
+        showingAllBookings = true;
+        trackLoad(bookingTableModel.load(new BookingTableModel.PageSource() {
+            @Override
+            public int count() {
+                return bookingService.countAllBookings();
+            }
+
+            @Override
+            public List<Booking> page(BookingSort sort, boolean descending, int offset, int limit) {
+                return bookingService.getBookingPage(sort, descending, offset, limit);
+            }
+        }, true), "bookings");
+    }
+
+    private void refreshBookings() {
+        if (showingAllBookings) {
+            loadAllBookings();
+        } else {
+            loadUserBookings();
+        }
+    }
+
+    private void loadMetrics() {
+        runInBackground("Collecting metrics...", () -> MetricsRegistry.getInstance().formatReport()
+                + "\nMost expensive SQL statements\n"
+                + SqlTracer.getInstance().formatTopStatements(10), report -> {
+            metricsTextArea.setText(report);
+            metricsTextArea.setCaretPosition(0);
+        });
+    }
+
+    // Both tables read the trigger-maintained summary rows, so each load is one indexed range scan
+    private void loadSummaries() {
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = LocalDate.parse(summaryFromField.getText().trim());
+            to = LocalDate.parse(summaryToField.getText().trim());
+        } catch (DateTimeParseException e) {
+            JOptionPane.showMessageDialog(this, "Invalid date format! Use yyyy-MM-dd", "Date Error", JOptionPane.ERROR_MESSAGE);
+            return;
         }
+        
+        busSummaryLoad = loadRows(busSummaryLoad, busSummaryModel, "bus days",
+            () -> summaryService.getDailyBusSummaries(from, to), summary -> new Object[] {
+                summary.getTravelDate().toString(),
+                summary.getGroupName(),
+                summary.getSeatsSold(),
+                summary.getCapacity(),
+                String.format("%.0f%%", summary.getLoadFactor() * 100),
+                summary.getCancellations(),
+                String.format("$%.2f", summary.getRevenue())
+            });
+        routeSummaryLoad = loadRows(routeSummaryLoad, routeSummaryModel, "route days",
+            () -> summaryService.getDailyRouteSummaries(from, to), summary -> new Object[] {
+                summary.getTravelDate().toString(),
+                summary.getGroupName(),
+                summary.getSeatsSold(),
+                summary.getCancellations(),
+                String.format("$%.2f", summary.getRevenue())
+            });
     }
 
     private void handleCancelBooking() {
@@ -667,10 +968,14 @@ public class BusReservationGUI extends JFrame {
             return;
         }
         
-        int bookingId = (Integer) bookingTableModel.getValueAt(selectedRow, 0);
-        String status = (String) bookingTableModel.getValueAt(selectedRow, 5);
+        Booking booking = bookingTableModel.getBookingAt(selectedRow);
+        if (booking == null) {
+            JOptionPane.showMessageDialog(this, "That booking is still loading, please try again.", "Loading", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
         
-        if ("CANCELLED".equals(status)) {
+        int bookingId = booking.getId();
+        if ("CANCELLED".equals(booking.getStatus())) {
             JOptionPane.showMessageDialog(this, "This booking is already cancelled!", "Already Cancelled", JOptionPane.WARNING_MESSAGE);
             return;
         }
@@ -680,13 +985,15 @@ public class BusReservationGUI extends JFrame {
             "Cancel Booking", JOptionPane.YES_NO_OPTION);
         
         if (result == JOptionPane.YES_OPTION) {
-            User currentUser = authService.getCurrentUser();
-            if (bookingService.cancelBooking(bookingId, currentUser.getId())) {
-                JOptionPane.showMessageDialog(this, "Booking cancelled successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
-                loadUserBookings();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to cancel booking!", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            Session session = authService.getCurrentSession();
+            runInBackground("Cancelling booking " + bookingId + "...", () -> bookingService.cancelBooking(session, bookingId), cancelled -> {
+                if (cancelled) {
+                    JOptionPane.showMessageDialog(this, "Cancellation request recorded!", "Success", JOptionPane.INFORMATION_MESSAGE);
+                    refreshBookings();
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to cancel booking!", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
 
@@ -719,11 +1026,123 @@ public class BusReservationGUI extends JFrame {
             String phone = adminPhone.getText();
             String password = new String(adminPassword.getPassword());
             
-            if (authService.createAdminUser(username, email, password, fullName, phone)) {
-                JOptionPane.showMessageDialog(this, "Admin user created successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to create admin user!", "Error", JOptionPane.ERROR_MESSAGE);
+            runInBackground("Creating admin user...", () -> authService.createAdminUser(username, email, password, fullName, phone), created -> {
+                if (created) {
+                    JOptionPane.showMessageDialog(this, "Admin user created successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to create admin user!", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
+        }
+    }
+
+    // Runs a service call on a SwingWorker and hands its result back on the Event Dispatch Thread
+    private <T> void runInBackground(String status, Supplier<T> task, Consumer<T> onSuccess) {
+        runInBackground(status, task, onSuccess, () -> { });
+    }
+
+    private <T> void runInBackground(String status, Supplier<T> task, Consumer<T> onSuccess, Runnable onFailure) {
+        SwingWorker<T, Void> worker = new SwingWorker<T, Void>() {
+            @Override
+            protected T doInBackground() {
+                return task.get();
+            }
+
+            @Override
+            protected void done() {
+                finishTask(" ");
+                try {
+                    onSuccess.accept(get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    onFailure.run();
+                    showTaskError(e.getCause());
+                }
+            }
+        };
+        startTask(status, worker);
+        worker.execute();
+    }
+
+    // Replaces whatever the previous loader for the same table was doing; its late chunks are discarded
+    private <T> RowLoader<T> loadRows(SwingWorker<?, ?> previous, DefaultTableModel model, String what,
+                                      Supplier<List<T>> fetch, Function<T, Object[]> toRow) {
+        cancelLoad(previous);
+        model.setRowCount(0);
+        
+        RowLoader<T> loader = new RowLoader<>(model, fetch, toRow);
+        loader.execute();
+        trackLoad(loader, what);
+        return loader;
+    }
+
+    // Status bar bookkeeping for a load that completes with its row count
+    private void trackLoad(SwingWorker<Integer, ?> load, String what) {
+        startTask("Loading " + what + "...", load);
+        load.addPropertyChangeListener(evt -> {
+            if (!"state".equals(evt.getPropertyName()) || evt.getNewValue() != SwingWorker.StateValue.DONE) {
+                return;
+            }
+            if (load.isCancelled()) {
+                finishTask(null);
+                return;
+            }
+            try {
+                finishTask(load.get() + " " + what);
+            } catch (InterruptedException e) {
+                finishTask(null);
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                finishTask(" ");
+                showTaskError(e.getCause());
+            }
+        });
+    }
+
+    private void cancelLoad(SwingWorker<?, ?> load) {
+        // Not interrupted: a JDBC call in flight is left to finish and its rows are simply dropped
+        if (load != null && !load.isDone()) {
+            load.cancel(false);
+        }
+    }
+
+    private void startTask(String status, SwingWorker<?, ?> worker) {
+        runningTasks++;
+        statusLabel.setText(status);
+        progressBar.setIndeterminate(true);
+        progressBar.setVisible(true);
+        worker.addPropertyChangeListener(evt -> {
+            if ("progress".equals(evt.getPropertyName()) && !worker.isCancelled()) {
+                progressBar.setIndeterminate(false);
+                progressBar.setValue((Integer) evt.getNewValue());
             }
+        });
+    }
+
+    private void finishTask(String status) {
+        runningTasks--;
+        if (runningTasks == 0) {
+            progressBar.setVisible(false);
+            progressBar.setValue(0);
+        }
+        if (status != null) {
+            statusLabel.setText(status);
+        }
+    }
+
+    private void showTaskError(Throwable cause) {
+        statusLabel.setText(" ");
+        JOptionPane.showMessageDialog(this, "Operation failed: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+    }
+
+    private static final class SeatMap {
+        private final Bus bus;
+        private final Set<Integer> occupied;
+
+        SeatMap(Bus bus, List<Integer> occupied) {
+            this.bus = bus;
+            this.occupied = new HashSet<>(occupied);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,54 @@
+package com.busreservation.gui;
+
+import javax.swing.SwingWorker;
+import javax.swing.table.DefaultTableModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Fetches a list off the Event Dispatch Thread and appends it to a table model chunk by chunk, so the first
+// rows show up while the rest are still being converted. A cancelled loader never touches the model again.
+class RowLoader<T> extends SwingWorker<Integer, Object[]> {
+    private static final int CHUNK_SIZE = 100;
+
+    private final DefaultTableModel model;
+    private final Supplier<List<T>> fetch;
+    private final Function<T, Object[]> toRow;
+
+    RowLoader(DefaultTableModel model, Supplier<List<T>> fetch, Function<T, Object[]> toRow) {
+        this.model = model;
+        this.fetch = fetch;
+        this.toRow = toRow;
+    }
+
+    @Override
+    protected Integer doInBackground() {
+        List<T> items = fetch.get();
+        List<Object[]> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        for (int i = 0; i < items.size(); i++) {
+            if (isCancelled()) {
+                return i;
+            }
+            chunk.add(toRow.apply(items.get(i)));
+            if (chunk.size() == CHUNK_SIZE || i == items.size() - 1) {
+                publish(chunk.toArray(new Object[0][]));
+                chunk.clear();
+                setProgress((i + 1) * 100 / items.size());
+            }
+        }
+        return items.size();
+    }
+
+    @Override
+    protected void process(List<Object[]> rows) {
+        // Chunks queued before cancel() can still arrive; they belong to a load that has been superseded
+        if (isCancelled()) {
+            return;
+        }
+        for (Object[] row : rows) {
+            model.addRow(row);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.busreservation.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class MetricsRegistry {
+    private static MetricsRegistry instance;
+
+    private final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+    private volatile long sinceNanos = System.nanoTime();
+
+    private MetricsRegistry() {}
+
+    public static synchronized MetricsRegistry getInstance() {
+        if (instance == null) {
+            instance = new MetricsRegistry();
+        }
+        return instance;
+    }
+
+    public void record(String operation, long startNanos) {
+        get(operation).record(System.nanoTime() - startNanos);
+    }
+
+    public void recordError(String operation) {
+        get(operation).recordError();
+    }
+
+    public List<OperationMetrics> getOperations() {
+        List<OperationMetrics> sorted = new ArrayList<>(operations.values());
+        sorted.sort(Comparator.comparing(OperationMetrics::getName));
+        return sorted;
+    }
+
+    public double getElapsedSeconds() {
+        return Math.max(1e-9, (System.nanoTime() - sinceNanos) / 1_000_000_000.0);
+    }
+
+    public void reset() {
+        for (OperationMetrics metrics : operations.values()) {
+            metrics.reset();
+        }
+        sinceNanos = System.nanoTime();
+    }
+
+    // Plain-text table shared by the console and GUI admin screens; latencies in milliseconds
+    public String formatReport() {
+        double elapsed = getElapsedSeconds();
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-42s %8s %6s %8s %8s %8s %8s %8s %8s%n",
+                "Operation", "Calls", "Errors", "Rate/s", "Mean", "p50", "p95", "p99", "Max"));
+        report.append("=".repeat(112)).append(System.lineSeparator());
+
+        for (OperationMetrics metrics : getOperations()) {
+            LatencyHistogram.Snapshot latency = metrics.getLatency();
+            if (latency.getCount() == 0 && metrics.getErrors() == 0) {
+                continue;
+            }
+            report.append(String.format("%-42s %8d %6d %8.2f %8.3f %8.3f %8.3f %8.3f %8.3f%n",
+                    metrics.getName(),
+                    metrics.getCalls(),
+                    metrics.getErrors(),
+                    metrics.getCalls() / elapsed,
+                    latency.getMean() / 1000.0,
+                    latency.getValueAtPercentile(50) / 1000.0,
+                    latency.getValueAtPercentile(95) / 1000.0,
+                    latency.getValueAtPercentile(99) / 1000.0,
+                    latency.getMax() / 1000.0));
+        }
+        report.append(String.format("Window: %.1f s%n", elapsed));
+        return report.toString();
+    }
+
+    private OperationMetrics get(String operation) {
+        OperationMetrics metrics = operations.get(operation);
+        if (metrics == null) {
+            metrics = operations.computeIfAbsent(operation, OperationMetrics::new);
+        }
+        return metrics;
+    }
+}
@@ -0,0 +1,34 @@
+package com.busreservation.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class OperationMetrics {
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    public OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    public void record(long elapsedNanos) {
+        calls.increment();
+        latency.record(elapsedNanos / 1_000);
+    }
+
+    public void recordError() {
+        errors.increment();
+    }
+
+    public void reset() {
+        calls.reset();
+        errors.reset();
+        latency.reset();
+    }
+
+    public String getName() { return name; }
+    public long getCalls() { return calls.sum(); }
+    public long getErrors() { return errors.sum(); }
+    public LatencyHistogram.Snapshot getLatency() { return latency.snapshot(); }
+}
@@ -0,0 +1,26 @@
+package com.busreservation.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.busreservation.BatchCommitRetry")
+@Label("Batch Commit Retry")
+@Category({"Bus Reservation", "Bookings"})
+@Description("A booking batch transaction that was rolled back and is being retried")
+public class BatchCommitRetryEvent extends Event {
+    @Label("Attempt")
+    private int attempt;
+
+    @Label("Batch Size")
+    private int batchSize;
+
+    @Label("Cause")
+    private String cause;
+
+    public void setAttempt(int attempt) { this.attempt = attempt; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+    public void setCause(String cause) { this.cause = cause; }
+}
@@ -0,0 +1,39 @@
+package com.busreservation.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Spans a booking or cancellation request from submission until the writer thread settles it
+@Name("com.busreservation.BookingAttempt")
+@Label("Booking Attempt")
+@Category({"Bus Reservation", "Bookings"})
+@Description("A booking or cancellation request, from submission until its outcome is known")
+public class BookingAttemptEvent extends Event {
+    @Label("Operation")
+    private String operation;
+
+    @Label("Bus ID")
+    private int busId;
+
+    @Label("Seat Number")
+    private int seatNumber;
+
+    @Label("Travel Date")
+    private String travelDate;
+
+    @Label("Outcome")
+    private String outcome;
+
+    @Label("Journaled")
+    private boolean journaled;
+
+    public void setOperation(String operation) { this.operation = operation; }
+    public void setBusId(int busId) { this.busId = busId; }
+    public void setSeatNumber(int seatNumber) { this.seatNumber = seatNumber; }
+    public void setTravelDate(String travelDate) { this.travelDate = travelDate; }
+    public void setOutcome(String outcome) { this.outcome = outcome; }
+    public void setJournaled(boolean journaled) { this.journaled = journaled; }
+}
@@ -0,0 +1,24 @@
+package com.busreservation.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.busreservation.ConnectionAcquire")
+@Label("Connection Acquire")
+@Category({"Bus Reservation", "Database"})
+@Description("Time spent obtaining a database connection")
+public class ConnectionAcquireEvent extends Event {
+    @Label("Dedicated")
+    @Description("A connection opened for a single owner rather than the shared DAO connection")
+    private boolean dedicated;
+
+    @Label("Opened")
+    @Description("A new physical connection had to be opened")
+    private boolean opened;
+
+    public void setDedicated(boolean dedicated) { this.dedicated = dedicated; }
+    public void setOpened(boolean opened) { this.opened = opened; }
+}
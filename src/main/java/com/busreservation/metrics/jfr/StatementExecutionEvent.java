@@ -0,0 +1,33 @@
+package com.busreservation.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// Spans execution plus row fetching, so a query's duration includes reading its result set
+@Name("com.busreservation.StatementExecution")
+@Label("Statement Execution")
+@Category({"Bus Reservation", "Database"})
+@Description("A traced SQL statement, including the time spent fetching its rows")
+public class StatementExecutionEvent extends Event {
+    @Label("SQL")
+    private String sql;
+
+    @Label("Parameters")
+    private String parameters;
+
+    @Label("Rows")
+    private long rows;
+
+    @Label("Fetch Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private long fetchTime;
+
+    public void setSql(String sql) { this.sql = sql; }
+    public void setParameters(String parameters) { this.parameters = parameters; }
+    public void setRows(long rows) { this.rows = rows; }
+    public void setFetchTime(long fetchTime) { this.fetchTime = fetchTime; }
+}
@@ -0,0 +1,74 @@
+package com.busreservation.model;
+
+// Aggregated bookings for one group of an analytics query, e.g. one bus type or one weekday
+public class AnalyticsGroup {
+    private String label;
+    private long bookings;
+    private long seatsSold;
+    private long cancellations;
+    private long revenueCents;
+    private double minFare;
+    private double maxFare;
+
+    public AnalyticsGroup() {}
+
+    public AnalyticsGroup(String label, long bookings, long seatsSold, long cancellations,
+                          long revenueCents, double minFare, double maxFare) {
+        this.label = label;
+        this.bookings = bookings;
+        this.seatsSold = seatsSold;
+        this.cancellations = cancellations;
+        this.revenueCents = revenueCents;
+        this.minFare = minFare;
+        this.maxFare = maxFare;
+    }
+
+    // Getters and Setters
+    public String getLabel() { return label; }
+    public void setLabel(String label) { this.label = label; }
+
+    public long getBookings() { return bookings; }
+    public void setBookings(long bookings) { this.bookings = bookings; }
+
+    public long getSeatsSold() { return seatsSold; }
+    public void setSeatsSold(long seatsSold) { this.seatsSold = seatsSold; }
+
+    public long getCancellations() { return cancellations; }
+    public void setCancellations(long cancellations) { this.cancellations = cancellations; }
+
+    public long getRevenueCents() { return revenueCents; }
+    public void setRevenueCents(long revenueCents) { this.revenueCents = revenueCents; }
+
+    public double getMinFare() { return minFare; }
+    public void setMinFare(double minFare) { this.minFare = minFare; }
+
+    public double getMaxFare() { return maxFare; }
+    public void setMaxFare(double maxFare) { this.maxFare = maxFare; }
+
+    public double getRevenue() {
+        return revenueCents / 100.0;
+    }
+
+    // Share of the group's bookings that were cancelled, 0..1
+    public double getCancellationRate() {
+        return bookings > 0 ? (double) cancellations / bookings : 0;
+    }
+
+    // Mean fare of the seats sold
+    public double getAverageFare() {
+        return seatsSold > 0 ? revenueCents / 100.0 / seatsSold : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "AnalyticsGroup{" +
+                "label='" + label + '\'' +
+                ", bookings=" + bookings +
+                ", seatsSold=" + seatsSold +
+                ", cancellations=" + cancellations +
+                ", revenueCents=" + revenueCents +
+                ", minFare=" + minFare +
+                ", maxFare=" + maxFare +
+                '}';
+    }
+}
@@ -0,0 +1,47 @@
+package com.busreservation.model;
+
+import java.time.LocalDateTime;
+
+public class BookingEvent {
+    private long seq;
+    private int bookingId;
+    private String eventType; // CREATED, PASSENGER_UPDATED, CANCELLED, COMPLETED, STATUS_CHANGED, DELETED
+    private LocalDateTime occurredAt;
+    private Booking booking; // state of the booking after this event
+
+    public BookingEvent() {}
+
+    public BookingEvent(long seq, int bookingId, String eventType, LocalDateTime occurredAt, Booking booking) {
+        this.seq = seq;
+        this.bookingId = bookingId;
+        this.eventType = eventType;
+        this.occurredAt = occurredAt;
+        this.booking = booking;
+    }
+
+    // Getters and Setters
+    public long getSeq() { return seq; }
+    public void setSeq(long seq) { this.seq = seq; }
+
+    public int getBookingId() { return bookingId; }
+    public void setBookingId(int bookingId) { this.bookingId = bookingId; }
+
+    public String getEventType() { return eventType; }
+    public void setEventType(String eventType) { this.eventType = eventType; }
+
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+    public void setOccurredAt(LocalDateTime occurredAt) { this.occurredAt = occurredAt; }
+
+    public Booking getBooking() { return booking; }
+    public void setBooking(Booking booking) { this.booking = booking; }
+
+    @Override
+    public String toString() {
+        return "BookingEvent{" +
+                "seq=" + seq +
+                ", bookingId=" + bookingId +
+                ", eventType='" + eventType + '\'' +
+                ", occurredAt=" + occurredAt +
+                '}';
+    }
+}
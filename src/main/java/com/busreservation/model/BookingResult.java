@@ -0,0 +1,51 @@
+package com.busreservation.model;
+
+public class BookingResult {
+    private Status status;
+    private int bookingId;
+    private String message;
+    private Booking booking;
+
+    public enum Status {
+        ACCEPTED, CONFIRMED, CANCELLED, CONFLICT, REJECTED, BUSY, ERROR
+    }
+
+    public BookingResult() {}
+
+    public BookingResult(Status status, int bookingId, String message) {
+        this.status = status;
+        this.bookingId = bookingId;
+        this.message = message;
+    }
+
+    public boolean isSuccess() {
+        return status == Status.CONFIRMED || status == Status.CANCELLED;
+    }
+
+    // Recorded durably and bound to be applied, or already applied
+    public boolean isAccepted() {
+        return status == Status.ACCEPTED || isSuccess();
+    }
+
+    // Getters and Setters
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public int getBookingId() { return bookingId; }
+    public void setBookingId(int bookingId) { this.bookingId = bookingId; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public Booking getBooking() { return booking; }
+    public void setBooking(Booking booking) { this.booking = booking; }
+
+    @Override
+    public String toString() {
+        return "BookingResult{" +
+                "status=" + status +
+                ", bookingId=" + bookingId +
+                ", message='" + message + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,26 @@
+package com.busreservation.model;
+
+import java.util.concurrent.CompletableFuture;
+
+// A booking change handed to the pipeline: accepted completes once the request is durable (or turned away),
+// applied once it has been committed to the database
+public class BookingSubmission {
+    private final CompletableFuture<BookingResult> accepted;
+    private final CompletableFuture<BookingResult> applied;
+
+    public BookingSubmission(CompletableFuture<BookingResult> accepted, CompletableFuture<BookingResult> applied) {
+        this.accepted = accepted;
+        this.applied = applied;
+    }
+
+    public CompletableFuture<BookingResult> getAccepted() { return accepted; }
+    public CompletableFuture<BookingResult> getApplied() { return applied; }
+
+    @Override
+    public String toString() {
+        return "BookingSubmission{" +
+                "accepted=" + accepted +
+                ", applied=" + applied +
+                '}';
+    }
+}
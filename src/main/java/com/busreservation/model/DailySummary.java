@@ -0,0 +1,72 @@
+package com.busreservation.model;
+
+import java.time.LocalDate;
+
+// Seats sold, revenue and cancellations for one bus or route on one travel day
+public class DailySummary {
+    private LocalDate travelDate;
+    private int groupId;
+    private String groupName;
+    private int seatsSold;
+    private long revenueCents;
+    private int cancellations;
+    private int capacity;
+
+    public DailySummary() {}
+
+    public DailySummary(LocalDate travelDate, int groupId, String groupName, int seatsSold,
+                        long revenueCents, int cancellations, int capacity) {
+        this.travelDate = travelDate;
+        this.groupId = groupId;
+        this.groupName = groupName;
+        this.seatsSold = seatsSold;
+        this.revenueCents = revenueCents;
+        this.cancellations = cancellations;
+        this.capacity = capacity;
+    }
+
+    // Getters and Setters
+    public LocalDate getTravelDate() { return travelDate; }
+    public void setTravelDate(LocalDate travelDate) { this.travelDate = travelDate; }
+
+    public int getGroupId() { return groupId; }
+    public void setGroupId(int groupId) { this.groupId = groupId; }
+
+    public String getGroupName() { return groupName; }
+    public void setGroupName(String groupName) { this.groupName = groupName; }
+
+    public int getSeatsSold() { return seatsSold; }
+    public void setSeatsSold(int seatsSold) { this.seatsSold = seatsSold; }
+
+    public long getRevenueCents() { return revenueCents; }
+    public void setRevenueCents(long revenueCents) { this.revenueCents = revenueCents; }
+
+    public int getCancellations() { return cancellations; }
+    public void setCancellations(int cancellations) { this.cancellations = cancellations; }
+
+    // Seats per trip for bus summaries; 0 where it does not apply (routes)
+    public int getCapacity() { return capacity; }
+    public void setCapacity(int capacity) { this.capacity = capacity; }
+
+    public double getRevenue() {
+        return revenueCents / 100.0;
+    }
+
+    // Share of the bus's seats sold for the day, 0..1
+    public double getLoadFactor() {
+        return capacity > 0 ? (double) seatsSold / capacity : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "DailySummary{" +
+                "travelDate=" + travelDate +
+                ", groupId=" + groupId +
+                ", groupName='" + groupName + '\'' +
+                ", seatsSold=" + seatsSold +
+                ", revenueCents=" + revenueCents +
+                ", cancellations=" + cancellations +
+                ", capacity=" + capacity +
+                '}';
+    }
+}
@@ -0,0 +1,67 @@
+package com.busreservation.model;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public class Departure {
+    private int scheduleId;
+    private int busId;
+    private int routeId;
+    private String source;
+    private String destination;
+    private LocalDate travelDate;
+    private LocalTime departureTime;
+    private LocalTime arrivalTime;
+
+    public Departure() {}
+
+    public Departure(Schedule schedule, Route route, LocalDate travelDate) {
+        this.scheduleId = schedule.getId();
+        this.busId = schedule.getBusId();
+        this.routeId = route.getId();
+        this.source = route.getSource();
+        this.destination = route.getDestination();
+        this.travelDate = travelDate;
+        this.departureTime = schedule.getDepartureTime();
+        this.arrivalTime = schedule.getArrivalTime();
+    }
+
+    // Getters and Setters
+    public int getScheduleId() { return scheduleId; }
+    public void setScheduleId(int scheduleId) { this.scheduleId = scheduleId; }
+
+    public int getBusId() { return busId; }
+    public void setBusId(int busId) { this.busId = busId; }
+
+    public int getRouteId() { return routeId; }
+    public void setRouteId(int routeId) { this.routeId = routeId; }
+
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
+
+    public String getDestination() { return destination; }
+    public void setDestination(String destination) { this.destination = destination; }
+
+    public LocalDate getTravelDate() { return travelDate; }
+    public void setTravelDate(LocalDate travelDate) { this.travelDate = travelDate; }
+
+    public LocalTime getDepartureTime() { return departureTime; }
+    public void setDepartureTime(LocalTime departureTime) { this.departureTime = departureTime; }
+
+    public LocalTime getArrivalTime() { return arrivalTime; }
+    public void setArrivalTime(LocalTime arrivalTime) { this.arrivalTime = arrivalTime; }
+
+    @Override
+    public String toString() {
+        return "Departure{" +
+                "scheduleId=" + scheduleId +
+                ", busId=" + busId +
+                ", routeId=" + routeId +
+                ", source='" + source + '\'' +
+                ", destination='" + destination + '\'' +
+                ", travelDate=" + travelDate +
+                ", departureTime=" + departureTime +
+                ", arrivalTime=" + arrivalTime +
+                '}';
+    }
+}
@@ -0,0 +1,52 @@
+package com.busreservation.model;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class Itinerary {
+    private List<Departure> legs;
+    private double totalFare;
+    private int durationMinutes;
+
+    public Itinerary() {
+        this.legs = new ArrayList<>();
+    }
+
+    public Itinerary(List<Departure> legs, double totalFare, int durationMinutes) {
+        this.legs = legs;
+        this.totalFare = totalFare;
+        this.durationMinutes = durationMinutes;
+    }
+
+    // Getters and Setters
+    public List<Departure> getLegs() { return legs; }
+    public void setLegs(List<Departure> legs) { this.legs = legs; }
+
+    public double getTotalFare() { return totalFare; }
+    public void setTotalFare(double totalFare) { this.totalFare = totalFare; }
+
+    public int getDurationMinutes() { return durationMinutes; }
+    public void setDurationMinutes(int durationMinutes) { this.durationMinutes = durationMinutes; }
+
+    public int getTransfers() {
+        return Math.max(0, legs.size() - 1);
+    }
+
+    public LocalTime getDepartureTime() {
+        return legs.isEmpty() ? null : legs.get(0).getDepartureTime();
+    }
+
+    public LocalTime getArrivalTime() {
+        return legs.isEmpty() ? null : legs.get(legs.size() - 1).getArrivalTime();
+    }
+
+    @Override
+    public String toString() {
+        return "Itinerary{" +
+                "legs=" + legs +
+                ", totalFare=" + totalFare +
+                ", durationMinutes=" + durationMinutes +
+                '}';
+    }
+}
@@ -0,0 +1,37 @@
+package com.busreservation.model;
+
+import java.time.LocalDate;
+
+// A seat on one trip becoming booked or free again
+public class SeatChange {
+    private final int busId;
+    private final LocalDate travelDate;
+    private final int seatNumber;
+    private final boolean available;
+    private final int bookingId;
+
+    public SeatChange(int busId, LocalDate travelDate, int seatNumber, boolean available, int bookingId) {
+        this.busId = busId;
+        this.travelDate = travelDate;
+        this.seatNumber = seatNumber;
+        this.available = available;
+        this.bookingId = bookingId;
+    }
+
+    public int getBusId() { return busId; }
+    public LocalDate getTravelDate() { return travelDate; }
+    public int getSeatNumber() { return seatNumber; }
+    public boolean isAvailable() { return available; }
+    public int getBookingId() { return bookingId; }
+
+    @Override
+    public String toString() {
+        return "SeatChange{" +
+                "busId=" + busId +
+                ", travelDate=" + travelDate +
+                ", seatNumber=" + seatNumber +
+                ", available=" + available +
+                ", bookingId=" + bookingId +
+                '}';
+    }
+}
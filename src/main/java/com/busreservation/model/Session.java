@@ -0,0 +1,49 @@
+package com.busreservation.model;
+
+// An authenticated user's session. The role is captured at login so permission checks
+// never go back to the database; sliding expiry is driven by lastAccessMillis.
+public class Session {
+    private final String token;
+    private final User user;
+    private final User.UserRole role;
+    private final long createdAtMillis;
+    private volatile long lastAccessMillis;
+
+    public Session(String token, User user, long nowMillis) {
+        this.token = token;
+        this.user = user;
+        this.role = user.getRole();
+        this.createdAtMillis = nowMillis;
+        this.lastAccessMillis = nowMillis;
+    }
+
+    public void touch(long nowMillis) {
+        lastAccessMillis = nowMillis;
+    }
+
+    public boolean isExpired(long nowMillis, long idleTimeoutMillis) {
+        return nowMillis - lastAccessMillis >= idleTimeoutMillis;
+    }
+
+    public boolean isAdmin() {
+        return role == User.UserRole.ADMIN;
+    }
+
+    // Getters
+    public String getToken() { return token; }
+    public User getUser() { return user; }
+    public int getUserId() { return user.getId(); }
+    public User.UserRole getRole() { return role; }
+    public long getCreatedAtMillis() { return createdAtMillis; }
+    public long getLastAccessMillis() { return lastAccessMillis; }
+
+    @Override
+    public String toString() {
+        // The token is a credential and is deliberately left out
+        return "Session{" +
+                "userId=" + user.getId() +
+                ", role=" + role +
+                ", lastAccessMillis=" + lastAccessMillis +
+                '}';
+    }
+}
@@ -0,0 +1,42 @@
+package com.busreservation.model;
+
+import java.time.LocalDate;
+
+public class TripOccupancy {
+    private int busId;
+    private int scheduleId;
+    private LocalDate travelDate;
+    private int bookedSeats;
+
+    public TripOccupancy() {}
+
+    public TripOccupancy(int busId, int scheduleId, LocalDate travelDate, int bookedSeats) {
+        this.busId = busId;
+        this.scheduleId = scheduleId;
+        this.travelDate = travelDate;
+        this.bookedSeats = bookedSeats;
+    }
+
+    // Getters and Setters
+    public int getBusId() { return busId; }
+    public void setBusId(int busId) { this.busId = busId; }
+
+    public int getScheduleId() { return scheduleId; }
+    public void setScheduleId(int scheduleId) { this.scheduleId = scheduleId; }
+
+    public LocalDate getTravelDate() { return travelDate; }
+    public void setTravelDate(LocalDate travelDate) { this.travelDate = travelDate; }
+
+    public int getBookedSeats() { return bookedSeats; }
+    public void setBookedSeats(int bookedSeats) { this.bookedSeats = bookedSeats; }
+
+    @Override
+    public String toString() {
+        return "TripOccupancy{" +
+                "busId=" + busId +
+                ", scheduleId=" + scheduleId +
+                ", travelDate=" + travelDate +
+                ", bookedSeats=" + bookedSeats +
+                '}';
+    }
+}
@@ -0,0 +1,99 @@
+package com.busreservation.report;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+// Fixed-width text table. Column widths grow as rows are added, so by the time the table is rendered
+// they are known without a second pass over the data.
+public class ReportTable {
+    public enum Align { LEFT, RIGHT }
+
+    private final String[] headers;
+    private final Align[] aligns;
+    private final int[] widths;
+    private final List<String[]> rows = new ArrayList<>();
+
+    public ReportTable(String... headers) {
+        this.headers = headers.clone();
+        this.aligns = new Align[headers.length];
+        this.widths = new int[headers.length];
+        for (int i = 0; i < headers.length; i++) {
+            aligns[i] = Align.LEFT;
+            widths[i] = headers[i].length();
+        }
+    }
+
+    public ReportTable align(int column, Align align) {
+        aligns[column] = align;
+        return this;
+    }
+
+    public void addRow(Object... cells) {
+        if (cells.length != headers.length) {
+            throw new IllegalArgumentException("Expected " + headers.length + " cells but got " + cells.length);
+        }
+        String[] row = new String[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            row[i] = cells[i] != null ? cells[i].toString() : "";
+            widths[i] = Math.max(widths[i], row[i].length());
+        }
+        rows.add(row);
+    }
+
+    // "$12.50"; the same digits as String.format("$%.2f") without parsing a format string per cell
+    public static String money(double amount) {
+        return "$" + BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    // Width of a rendered line, including the single space between columns
+    public int getLineWidth() {
+        int total = Math.max(0, widths.length - 1);
+        for (int width : widths) {
+            total += width;
+        }
+        return total;
+    }
+
+    public void render(ReportWriter out) {
+        String rule = "=".repeat(getLineWidth());
+        writeRow(out, headers);
+        out.println(rule);
+        for (String[] row : rows) {
+            writeRow(out, row);
+        }
+        out.println(rule);
+    }
+
+    private void writeRow(ReportWriter out, String[] cells) {
+        StringBuilder line = out.line();
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) {
+                line.append(' ');
+            }
+            int padding = widths[i] - cells[i].length();
+            if (aligns[i] == Align.RIGHT) {
+                pad(line, padding);
+                line.append(cells[i]);
+            } else {
+                line.append(cells[i]);
+                // No trailing blanks after the last column
+                if (i < cells.length - 1) {
+                    pad(line, padding);
+                }
+            }
+        }
+        out.endLine();
+    }
+
+    private static void pad(StringBuilder line, int count) {
+        for (int i = 0; i < count; i++) {
+            line.append(' ');
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.busreservation.report;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Line-oriented report output. Lines are built in one reusable StringBuilder and handed to the sink in
+// 64 KB chunks, so a large report costs a few hundred writes instead of several per cell.
+public class ReportWriter implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final Writer out;
+    private final boolean closeTarget;
+    private final StringBuilder line = new StringBuilder(256);
+
+    public ReportWriter(Writer target, boolean closeTarget) {
+        this.out = new BufferedWriter(target, BUFFER_SIZE);
+        this.closeTarget = closeTarget;
+    }
+
+    public ReportWriter(OutputStream target, Charset charset, boolean closeTarget) {
+        this(new OutputStreamWriter(target, charset), closeTarget);
+    }
+
+    // Writes through System.out, which stays open; anything already printed there comes first
+    public static ReportWriter console() {
+        System.out.flush();
+        return new ReportWriter(System.out, Charset.defaultCharset(), false);
+    }
+
+    public static ReportWriter toFile(Path path) throws IOException {
+        return new ReportWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8), true);
+    }
+
+    // The reusable line buffer, emptied; fill it and call endLine()
+    public StringBuilder line() {
+        line.setLength(0);
+        return line;
+    }
+
+    public void endLine() {
+        line.append(LINE_SEPARATOR);
+        try {
+            out.append(line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void println(String text) {
+        line().append(text);
+        endLine();
+    }
+
+    public void println() {
+        line();
+        endLine();
+    }
+
+    public void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (closeTarget) {
+                out.close();
+            } else {
+                out.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,548 @@
+package com.busreservation.server;
+
+import com.busreservation.metrics.MetricsRegistry;
+import com.busreservation.model.Booking;
+import com.busreservation.model.BookingResult;
+import com.busreservation.model.Bus;
+import com.busreservation.model.Departure;
+import com.busreservation.model.SeatChange;
+import com.busreservation.model.Session;
+import com.busreservation.service.AuthenticationService;
+import com.busreservation.service.BookingService;
+import com.busreservation.service.BusService;
+import com.busreservation.service.FareQuoteEngine;
+import com.busreservation.service.RouteSearchService;
+import com.busreservation.service.SeatChangeBus;
+import com.busreservation.service.SessionManager;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+// Headless JSON API over the booking services. Every response carries a Content-Length so
+// HTTP/1.1 connections stay open between requests. Endpoints marked * need "Authorization: Bearer <token>".
+//
+//   POST   /api/sessions                      {username, password}
+//   DELETE /api/sessions                      *
+//   GET    /api/search?from=&to=&date=yyyy-MM-dd[&window=HH:mm-HH:mm]
+//   GET    /api/buses/{busId}/seats?date=yyyy-MM-dd
+//   GET    /api/buses/{busId}/seats/changes?date=yyyy-MM-dd&since={version}   long poll for seat changes
+//   POST   /api/bookings                      * {scheduleId, seatNumber, passengerName, passengerPhone, travelDate}
+//   POST   /api/bookings/{bookingId}/cancel   *
+//   GET    /api/users/{userId}/bookings       * own bookings, or any user's for admins
+public class ReservationServer {
+    private final HttpServer server;
+    private final AuthenticationService authService;
+    private final SessionManager sessionManager;
+    private final BookingService bookingService;
+    private final BusService busService;
+    private final RouteSearchService routeSearchService;
+    private final FareQuoteEngine fareQuoteEngine;
+    private final SeatChangeBus seatChangeBus;
+    private final Executor executor;
+    private final long pollSeconds;
+    private final MetricsRegistry metrics;
+
+    public ReservationServer(InetSocketAddress address, int backlog, Executor executor) throws IOException {
+        this.server = HttpServer.create(address, backlog);
+        this.server.setExecutor(executor);
+        this.authService = new AuthenticationService();
+        this.sessionManager = SessionManager.getInstance();
+        this.bookingService = new BookingService();
+        this.busService = new BusService();
+        this.routeSearchService = RouteSearchService.getInstance();
+        this.fareQuoteEngine = FareQuoteEngine.getInstance();
+        this.seatChangeBus = SeatChangeBus.getInstance();
+        this.executor = executor;
+        this.pollSeconds = Long.getLong("server.pollSeconds", 25);
+        this.metrics = MetricsRegistry.getInstance();
+
+        route("/api/sessions", this::handleSessions);
+        route("/api/search", this::handleSearch);
+        route("/api/buses/", this::handleBuses);
+        route("/api/bookings", this::handleBookings);
+        route("/api/users/", this::handleUsers);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    private CompletableFuture<Response> handleSessions(HttpExchange exchange, String[] path) {
+        if (path.length != 2) {
+            throw new NotFoundException();
+        }
+        if ("DELETE".equalsIgnoreCase(exchange.getRequestMethod())) {
+            authService.logout(requireSession(exchange));
+            return CompletableFuture.completedFuture(new Response(200, "{}"));
+        }
+        requireMethod(exchange, "POST, DELETE", "POST");
+        Map<String, Object> body = readBody(exchange);
+        Session session = authService.login(requiredString(body, "username"), requiredString(body, "password"));
+        if (session == null) {
+            return error(401, "Invalid username or password!");
+        }
+
+        JsonWriter json = new JsonWriter().beginObject()
+            .field("token", session.getToken())
+            .field("userId", session.getUserId())
+            .field("username", session.getUser().getUsername())
+            .field("role", session.getRole())
+            .field("expiresAt", sessionManager.getExpiresAtMillis(session))
+            .endObject();
+        return CompletableFuture.completedFuture(new Response(201, json.toString()));
+    }
+
+    private CompletableFuture<Response> handleSearch(HttpExchange exchange, String[] path) {
+        requireMethod(exchange, "GET");
+        Map<String, String> query = parseQuery(exchange);
+        String source = required(query, "from");
+        String destination = required(query, "to");
+        LocalDate travelDate = parseDate(required(query, "date"));
+
+        List<Departure> departures;
+        String window = query.get("window");
+        if (window == null || window.isEmpty()) {
+            departures = routeSearchService.search(source, destination, travelDate);
+        } else {
+            String[] bounds = window.split("-");
+            if (bounds.length != 2) {
+                throw new BadRequestException("window must look like HH:mm-HH:mm");
+            }
+            try {
+                departures = routeSearchService.searchBetween(source, destination, travelDate,
+                    LocalTime.parse(bounds[0].trim()), LocalTime.parse(bounds[1].trim()));
+            } catch (DateTimeParseException e) {
+                throw new BadRequestException("window must look like HH:mm-HH:mm");
+            }
+        }
+        double[] fares = fareQuoteEngine.quoteAll(departures);
+
+        JsonWriter json = new JsonWriter().beginObject()
+            .field("from", source)
+            .field("to", destination)
+            .field("date", travelDate)
+            .name("departures").beginArray();
+        for (int i = 0; i < departures.size(); i++) {
+            Departure departure = departures.get(i);
+            json.beginObject()
+                .field("scheduleId", departure.getScheduleId())
+                .field("busId", departure.getBusId())
+                .field("routeId", departure.getRouteId())
+                .field("source", departure.getSource())
+                .field("destination", departure.getDestination())
+                .field("departureTime", departure.getDepartureTime())
+                .field("arrivalTime", departure.getArrivalTime())
+                .field("fare", roundFare(fares[i]))
+                .endObject();
+        }
+        return ok(json.endArray().endObject());
+    }
+
+    // /api/buses/{busId}/seats and /api/buses/{busId}/seats/changes
+    private CompletableFuture<Response> handleBuses(HttpExchange exchange, String[] path) {
+        boolean changes = path.length == 5 && "changes".equals(path[4]);
+        if ((path.length != 4 && !changes) || !"seats".equals(path[3])) {
+            throw new NotFoundException();
+        }
+        requireMethod(exchange, "GET");
+        int busId = parseId(path[2]);
+        Map<String, String> query = parseQuery(exchange);
+        LocalDate travelDate = parseDate(required(query, "date"));
+
+        Bus bus = busService.getBusById(busId);
+        if (bus == null) {
+            return error(404, "Bus not found!");
+        }
+        if (!changes) {
+            return ok(seatMap(bus, travelDate, seatChangeBus.getVersion(busId, travelDate)));
+        }
+        return awaitSeatChanges(bus, travelDate, parseVersion(required(query, "since")));
+    }
+
+    // Answers at once with a full seat map if the client is behind, otherwise parks the request until the
+    // trip's next coalesced batch or the poll timeout. No worker thread is held while waiting.
+    private CompletableFuture<Response> awaitSeatChanges(Bus bus, LocalDate travelDate, long since) {
+        CompletableFuture<Response> response = new CompletableFuture<>();
+        // Subscribe before reading the version so a batch landing in between is not missed
+        SeatChangeBus.Subscription subscription = seatChangeBus.subscribe(bus.getId(), travelDate,
+            (busId, date, version, changes) -> executor.execute(() -> response.complete(seatChanges(version, changes))));
+        response.whenComplete((result, failure) -> subscription.cancel());
+
+        long current = seatChangeBus.getVersion(bus.getId(), travelDate);
+        if (since < current) {
+            response.complete(new Response(200, seatMap(bus, travelDate, current).toString()));
+        } else {
+            response.completeOnTimeout(seatChanges(current, List.of()), pollSeconds, TimeUnit.SECONDS);
+        }
+        return response;
+    }
+
+    private JsonWriter seatMap(Bus bus, LocalDate travelDate, long version) {
+        // Occupancy is read after the version, so it is at least as new as the version says
+        Set<Integer> occupied = new HashSet<>(bookingService.getOccupiedSeats(bus.getId(), travelDate.atStartOfDay()));
+
+        JsonWriter json = new JsonWriter().beginObject()
+            .field("busId", bus.getId())
+            .field("busNumber", bus.getBusNumber())
+            .field("busName", bus.getBusName())
+            .field("busType", bus.getBusType())
+            .field("status", bus.getStatus())
+            .field("travelDate", travelDate)
+            .field("version", version)
+            .field("totalSeats", bus.getTotalSeats())
+            .field("availableSeats", bus.getTotalSeats() - occupied.size())
+            .name("seats").beginArray();
+        for (int seat = 1; seat <= bus.getTotalSeats(); seat++) {
+            json.beginObject()
+                .field("seatNumber", seat)
+                .field("available", !occupied.contains(seat))
+                .endObject();
+        }
+        return json.endArray().endObject();
+    }
+
+    private static Response seatChanges(long version, List<SeatChange> changes) {
+        JsonWriter json = new JsonWriter().beginObject()
+            .field("version", version)
+            .name("changes").beginArray();
+        for (SeatChange change : changes) {
+            json.beginObject()
+                .field("seatNumber", change.getSeatNumber())
+                .field("available", change.isAvailable())
+                .endObject();
+        }
+        return new Response(200, json.endArray().endObject().toString());
+    }
+
+    // POST /api/bookings and POST /api/bookings/{bookingId}/cancel
+    private CompletableFuture<Response> handleBookings(HttpExchange exchange, String[] path) {
+        if (path.length == 2) {
+            requireMethod(exchange, "POST");
+            Session session = requireSession(exchange);
+            Map<String, Object> body = readBody(exchange);
+            return bookingService.requestBooking(
+                    session,
+                    requiredInt(body, "scheduleId"),
+                    requiredInt(body, "seatNumber"),
+                    requiredString(body, "passengerName"),
+                    requiredString(body, "passengerPhone"),
+                    parseDate(requiredString(body, "travelDate")))
+                .thenApply(ReservationServer::bookingResponse);
+        }
+        if (path.length == 4 && "cancel".equals(path[3])) {
+            requireMethod(exchange, "POST");
+            Session session = requireSession(exchange);
+            return bookingService.submitCancellation(session, parseId(path[2]))
+                .thenApply(ReservationServer::bookingResponse);
+        }
+        throw new NotFoundException();
+    }
+
+    // /api/users/{userId}/bookings
+    private CompletableFuture<Response> handleUsers(HttpExchange exchange, String[] path) {
+        if (path.length != 4 || !"bookings".equals(path[3])) {
+            throw new NotFoundException();
+        }
+        requireMethod(exchange, "GET");
+        Session session = requireSession(exchange);
+        int userId = parseId(path[2]);
+        if (userId != session.getUserId() && !session.isAdmin()) {
+            return error(403, "You can only view your own bookings!");
+        }
+
+        JsonWriter json = new JsonWriter().beginObject()
+            .field("userId", userId)
+            .name("bookings").beginArray();
+        for (Booking booking : bookingService.getUserBookings(userId)) {
+            writeBooking(json, booking);
+        }
+        return ok(json.endArray().endObject());
+    }
+
+    private static Response bookingResponse(BookingResult result) {
+        JsonWriter json = new JsonWriter().beginObject()
+            .field("status", result.getStatus().name())
+            .field("bookingId", result.getBookingId())
+            .field("message", result.getMessage());
+        if (result.getBooking() != null) {
+            json.name("booking");
+            writeBooking(json, result.getBooking());
+        }
+        json.endObject();
+
+        switch (result.getStatus()) {
+            case ACCEPTED: return new Response(202, json.toString());
+            case CONFIRMED: return new Response(201, json.toString());
+            case CANCELLED: return new Response(200, json.toString());
+            case CONFLICT: return new Response(409, json.toString());
+            case REJECTED: return new Response(422, json.toString());
+            case BUSY: return new Response(503, json.toString()).header("Retry-After", "1");
+            default: return new Response(500, json.toString());
+        }
+    }
+
+    private static void writeBooking(JsonWriter json, Booking booking) {
+        json.beginObject()
+            .field("id", booking.getId())
+            .field("userId", booking.getUserId())
+            .field("busId", booking.getBusId())
+            .field("scheduleId", booking.getScheduleId())
+            .field("seatNumber", booking.getSeatNumber())
+            .field("passengerName", booking.getPassengerName())
+            .field("passengerPhone", booking.getPassengerPhone())
+            .field("fare", roundFare(booking.getFare()))
+            .field("status", booking.getStatus())
+            .field("bookingDate", booking.getBookingDate())
+            .field("travelDate", booking.getTravelDate() != null ? booking.getTravelDate().toLocalDate() : null)
+            .endObject();
+    }
+
+    private void route(String prefix, Handler handler) {
+        String operation = "HTTP " + prefix.replaceAll("/$", "");
+        String resource = prefix.split("/")[2];
+        server.createContext(prefix, exchange -> {
+            long start = System.nanoTime();
+            CompletableFuture<Response> response;
+            try {
+                String[] path = exchange.getRequestURI().getPath().split("/");
+                // "/api/x/1" splits into ["", "api", "x", "1"]; drop the leading empty segment
+                String[] segments = new String[Math.max(0, path.length - 1)];
+                System.arraycopy(path, 1, segments, 0, segments.length);
+                if (segments.length < 2 || !resource.equals(segments[1])) {
+                    throw new NotFoundException();
+                }
+                response = handler.handle(exchange, segments);
+            } catch (BadRequestException e) {
+                response = error(400, e.getMessage());
+            } catch (NotFoundException e) {
+                response = error(404, "Not found");
+            } catch (UnauthorizedException e) {
+                response = CompletableFuture.completedFuture(
+                    errorResponse(401, "Login required").header("WWW-Authenticate", "Bearer"));
+            } catch (MethodNotAllowedException e) {
+                response = CompletableFuture.completedFuture(
+                    errorResponse(405, "Method not allowed").header("Allow", e.getMessage()));
+            } catch (RuntimeException e) {
+                System.err.println("Error handling " + exchange.getRequestURI() + ": " + e.getMessage());
+                response = error(500, "Internal server error");
+            }
+
+            // Async handlers (bookings) complete on the writer thread, so the response is written from a worker
+            // to keep socket I/O off it
+            response.whenCompleteAsync((result, failure) -> {
+                Response sent = failure == null ? result : errorResponse(500, "Internal server error");
+                send(exchange, sent, start);
+                if (sent.status >= 500) {
+                    metrics.recordError(operation);
+                }
+                metrics.record(operation, start);
+            }, executor);
+        });
+    }
+
+    private static void send(HttpExchange exchange, Response response, long start) {
+        try {
+            // Unread request bytes would break the next request on a kept-alive connection
+            try (InputStream in = exchange.getRequestBody()) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            for (Map.Entry<String, String> header : response.headers.entrySet()) {
+                exchange.getResponseHeaders().set(header.getKey(), header.getValue());
+            }
+            exchange.getResponseHeaders().set("Server-Timing",
+                String.format("app;dur=%.3f", (System.nanoTime() - start) / 1_000_000.0));
+            exchange.sendResponseHeaders(response.status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (IOException e) {
+            // Client went away; nothing left to do
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void requireMethod(HttpExchange exchange, String method) {
+        requireMethod(exchange, method, method);
+    }
+
+    private static void requireMethod(HttpExchange exchange, String allowed, String method) {
+        if (!method.equalsIgnoreCase(exchange.getRequestMethod())) {
+            throw new MethodNotAllowedException(allowed);
+        }
+    }
+
+    private Session requireSession(HttpExchange exchange) {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization == null || !authorization.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            throw new UnauthorizedException();
+        }
+        Session session = authService.resolveSession(authorization.substring(7).trim());
+        if (session == null) {
+            throw new UnauthorizedException();
+        }
+        return session;
+    }
+
+    private static Map<String, String> parseQuery(HttpExchange exchange) {
+        Map<String, String> query = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null || raw.isEmpty()) {
+            return query;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq >= 0 ? pair.substring(0, eq) : pair;
+            String value = eq >= 0 ? pair.substring(eq + 1) : "";
+            query.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static Map<String, Object> readBody(HttpExchange exchange) {
+        try (InputStream in = exchange.getRequestBody()) {
+            return JsonReader.parseObject(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new BadRequestException("Could not read request body");
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid JSON: " + e.getMessage());
+        }
+    }
+
+    private static String required(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null || value.trim().isEmpty()) {
+            throw new BadRequestException("Missing query parameter '" + name + "'");
+        }
+        return value.trim();
+    }
+
+    private static String requiredString(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (!(value instanceof String)) {
+            throw new BadRequestException("Field '" + name + "' must be a string");
+        }
+        return (String) value;
+    }
+
+    private static int requiredInt(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (!(value instanceof Long) || (Long) value > Integer.MAX_VALUE || (Long) value < Integer.MIN_VALUE) {
+            throw new BadRequestException("Field '" + name + "' must be an integer");
+        }
+        return ((Long) value).intValue();
+    }
+
+    private static int parseId(String segment) {
+        try {
+            return Integer.parseInt(segment);
+        } catch (NumberFormatException e) {
+            throw new NotFoundException();
+        }
+    }
+
+    private static long parseVersion(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid version: " + value);
+        }
+    }
+
+    private static LocalDate parseDate(String value) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Dates must be formatted as yyyy-MM-dd");
+        }
+    }
+
+    private static double roundFare(double fare) {
+        return Math.round(fare * 100) / 100.0;
+    }
+
+    private static CompletableFuture<Response> ok(JsonWriter json) {
+        return CompletableFuture.completedFuture(new Response(200, json.toString()));
+    }
+
+    private static CompletableFuture<Response> error(int status, String message) {
+        return CompletableFuture.completedFuture(errorResponse(status, message));
+    }
+
+    private static Response errorResponse(int status, String message) {
+        return new Response(status, new JsonWriter().beginObject().field("error", message).endObject().toString());
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        CompletableFuture<Response> handle(HttpExchange exchange, String[] path);
+    }
+
+    private static final class Response {
+        private final int status;
+        private final String body;
+        private final Map<String, String> headers = new HashMap<>();
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        Response header(String name, String value) {
+            headers.put(name, value);
+            return this;
+        }
+    }
+
+    private static final class BadRequestException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        BadRequestException(String message) {
+            super(message);
+        }
+    }
+
+    private static final class NotFoundException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    private static final class UnauthorizedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    // The message carries the allowed method for the Allow header
+    private static final class MethodNotAllowedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        MethodNotAllowedException(String allowed) {
+            super(allowed);
+        }
+    }
+}
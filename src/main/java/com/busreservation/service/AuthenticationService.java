@@ -1,101 +1,187 @@
 package com.busreservation.service;
 
 import com.busreservation.dao.UserDAO;
+import com.busreservation.metrics.MetricsRegistry;
+import com.busreservation.model.Session;
 import com.busreservation.model.User;
 
+import java.time.LocalDateTime;
 import java.util.regex.Pattern;
 
 public class AuthenticationService {
+    // Username should be 3-20 characters, alphanumeric and underscores only
+    private static final Pattern USERNAME_PATTERN = Pattern.compile("^[a-zA-Z0-9_]{3,20}$");
+    // Basic email validation
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+
     private UserDAO userDAO;
-    private User currentUser;
+    private SessionManager sessionManager;
+    private LastLoginRecorder lastLoginRecorder;
+    private RegistrationIndex registrationIndex;
+    // The interactive front end's own session; server requests carry theirs explicitly
+    private Session currentSession;
+    private MetricsRegistry metrics;
 
     public AuthenticationService() {
         this.userDAO = new UserDAO();
+        this.sessionManager = SessionManager.getInstance();
+        this.lastLoginRecorder = LastLoginRecorder.getInstance();
+        this.registrationIndex = RegistrationIndex.getInstance();
+        this.metrics = MetricsRegistry.getInstance();
     }
 
     public boolean registerUser(String username, String email, String password, String fullName, String phoneNumber) {
-        // Validate input
-        if (!isValidUsername(username) || !isValidEmail(email) || !isValidPassword(password) || 
-            fullName == null || fullName.trim().isEmpty() || phoneNumber == null || phoneNumber.trim().isEmpty()) {
-            return false;
+        long start = System.nanoTime();
+        try {
+            // Validate input
+            if (!isValidUsername(username) || !isValidEmail(email) || !isValidPassword(password) || 
+                fullName == null || fullName.trim().isEmpty() || phoneNumber == null || phoneNumber.trim().isEmpty()) {
+                return false;
+            }
+
+            if (isTaken(username, email)) {
+                return false;
+            }
+
+            // Create new user
+            User user = new User(username, email, password, fullName, phoneNumber, User.UserRole.CUSTOMER);
+            boolean success = userDAO.createUser(user);
+            
+            if (success) {
+                registrationIndex.add(username, email);
+                System.out.println("Registration successful! Welcome, " + fullName + "!");
+            } else {
+                metrics.recordError("AuthenticationService.registerUser");
+                System.out.println("Registration failed. Please try again.");
+            }
+            
+            return success;
+        } catch (RuntimeException e) {
+            metrics.recordError("AuthenticationService.registerUser");
+            throw e;
+        } finally {
+            metrics.record("AuthenticationService.registerUser", start);
         }
+    }
 
-        // Check if user already exists
-        if (userDAO.getUserByUsername(username) != null) {
-            System.out.println("Username already exists!");
-            return false;
+    // Returns a new session for valid credentials, or null
+    public Session login(String username, String password) {
+        long start = System.nanoTime();
+        try {
+            if (username == null || username.trim().isEmpty() || password == null || password.trim().isEmpty()) {
+                return null;
+            }
+            User user = userDAO.authenticate(username, password);
+            if (user == null) {
+                return null;
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            user.setLastLogin(now);
+            lastLoginRecorder.record(user.getId(), now);
+            return sessionManager.createSession(user);
+        } catch (RuntimeException e) {
+            metrics.recordError("AuthenticationService.login");
+            throw e;
+        } finally {
+            metrics.record("AuthenticationService.login", start);
         }
+    }
 
-        if (userDAO.getUserByEmail(email) != null) {
-            System.out.println("Email already exists!");
-            return false;
-        }
+    public Session resolveSession(String token) {
+        return sessionManager.getSession(token);
+    }
 
-        // Create new user
-        User user = new User(username, email, password, fullName, phoneNumber, User.UserRole.CUSTOMER);
-        boolean success = userDAO.createUser(user);
-        
-        if (success) {
-            System.out.println("Registration successful! Welcome, " + fullName + "!");
-        } else {
-            System.out.println("Registration failed. Please try again.");
+    public void logout(Session session) {
+        if (session != null) {
+            sessionManager.invalidate(session.getToken());
         }
-        
-        return success;
     }
 
     public boolean loginUser(String username, String password) {
-        if (username == null || username.trim().isEmpty() || password == null || password.trim().isEmpty()) {
-            return false;
-        }
-
-        boolean success = userDAO.authenticateUser(username, password);
-        
-        if (success) {
-            currentUser = userDAO.getUserByUsername(username);
-            System.out.println("Login successful! Welcome back, " + currentUser.getFullName() + "!");
-        } else {
-            System.out.println("Invalid username or password!");
+        long start = System.nanoTime();
+        try {
+            Session session = login(username, password);
+            
+            if (session != null) {
+                logout(currentSession);
+                currentSession = session;
+                System.out.println("Login successful! Welcome back, " + session.getUser().getFullName() + "!");
+            } else if (username != null && !username.trim().isEmpty() && password != null && !password.trim().isEmpty()) {
+                System.out.println("Invalid username or password!");
+            }
+            
+            return session != null;
+        } catch (RuntimeException e) {
+            metrics.recordError("AuthenticationService.loginUser");
+            throw e;
+        } finally {
+            metrics.record("AuthenticationService.loginUser", start);
         }
-        
-        return success;
     }
 
     public void logoutUser() {
-        if (currentUser != null) {
-            System.out.println("Goodbye, " + currentUser.getFullName() + "!");
-            currentUser = null;
+        long start = System.nanoTime();
+        try {
+            if (currentSession != null) {
+                System.out.println("Goodbye, " + currentSession.getUser().getFullName() + "!");
+                logout(currentSession);
+                currentSession = null;
+            }
+        } catch (RuntimeException e) {
+            metrics.recordError("AuthenticationService.logoutUser");
+            throw e;
+        } finally {
+            metrics.record("AuthenticationService.logoutUser", start);
         }
     }
 
+    public Session getCurrentSession() {
+        return currentSession;
+    }
+
     public User getCurrentUser() {
-        return currentUser;
+        return currentSession != null ? currentSession.getUser() : null;
     }
 
+    // Also slides the session's expiry; an idle front end is logged out once it lapses
     public boolean isLoggedIn() {
-        return currentUser != null;
+        if (currentSession != null && sessionManager.getSession(currentSession.getToken()) == null) {
+            currentSession = null;
+        }
+        return currentSession != null;
     }
 
     public boolean isAdmin() {
-        return currentUser != null && currentUser.getRole() == User.UserRole.ADMIN;
+        return currentSession != null && currentSession.isAdmin();
+    }
+
+    // Names the Bloom filters have never seen skip the lookup entirely
+    private boolean isTaken(String username, String email) {
+        if (registrationIndex.mightHaveUsername(username) && userDAO.getUserByUsername(username) != null) {
+            System.out.println("Username already exists!");
+            return true;
+        }
+
+        if (registrationIndex.mightHaveEmail(email) && userDAO.getUserByEmail(email) != null) {
+            System.out.println("Email already exists!");
+            return true;
+        }
+        return false;
     }
 
     private boolean isValidUsername(String username) {
         if (username == null || username.trim().isEmpty()) {
             return false;
         }
-        // Username should be 3-20 characters, alphanumeric and underscores only
-        Pattern pattern = Pattern.compile("^[a-zA-Z0-9_]{3,20}$");
-        return pattern.matcher(username).matches();
+        return USERNAME_PATTERN.matcher(username).matches();
     }
 
     private boolean isValidEmail(String email) {
         if (email == null || email.trim().isEmpty()) {
             return false;
         }
-        // Basic email validation
-        Pattern pattern = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
-        return pattern.matcher(email).matches();
+        return EMAIL_PATTERN.matcher(email).matches();
     }
 
     private boolean isValidPassword(String password) {
@@ -107,32 +193,35 @@ public class AuthenticationService {
     }
 
     public boolean createAdminUser(String username, String email, String password, String fullName, String phoneNumber) {
-        if (!isValidUsername(username) || !isValidEmail(email) || !isValidPassword(password) || 
-            fullName == null || fullName.trim().isEmpty() || phoneNumber == null || phoneNumber.trim().isEmpty()) {
-            return false;
-        }
-
-        // Check if user already exists
-        if (userDAO.getUserByUsername(username) != null) {
-            System.out.println("Username already exists!");
-            return false;
-        }
-
-        if (userDAO.getUserByEmail(email) != null) {
-            System.out.println("Email already exists!");
-            return false;
-        }
-
-        // Create new admin user
-        User user = new User(username, email, password, fullName, phoneNumber, User.UserRole.ADMIN);
-        boolean success = userDAO.createUser(user);
-        
-        if (success) {
-            System.out.println("Admin user created successfully!");
-        } else {
-            System.out.println("Failed to create admin user.");
+        long start = System.nanoTime();
+        try {
+            if (!isValidUsername(username) || !isValidEmail(email) || !isValidPassword(password) || 
+                fullName == null || fullName.trim().isEmpty() || phoneNumber == null || phoneNumber.trim().isEmpty()) {
+                return false;
+            }
+
+            if (isTaken(username, email)) {
+                return false;
+            }
+
+            // Create new admin user
+            User user = new User(username, email, password, fullName, phoneNumber, User.UserRole.ADMIN);
+            boolean success = userDAO.createUser(user);
+            
+            if (success) {
+                registrationIndex.add(username, email);
+                System.out.println("Admin user created successfully!");
+            } else {
+                metrics.recordError("AuthenticationService.createAdminUser");
+                System.out.println("Failed to create admin user.");
+            }
+            
+            return success;
+        } catch (RuntimeException e) {
+            metrics.recordError("AuthenticationService.createAdminUser");
+            throw e;
+        } finally {
+            metrics.record("AuthenticationService.createAdminUser", start);
         }
-        
-        return success;
     }
 }
\ No newline at end of file
@@ -0,0 +1,279 @@
+package com.busreservation.service;
+
+import com.busreservation.dao.BookingDAO;
+import com.busreservation.dao.BookingEventDAO;
+import com.busreservation.dao.BusDAO;
+import com.busreservation.metrics.MetricsRegistry;
+import com.busreservation.model.AnalyticsGroup;
+import com.busreservation.model.Booking;
+import com.busreservation.model.BookingEvent;
+import com.busreservation.model.Bus;
+import com.busreservation.report.ReportTable;
+import com.busreservation.report.ReportWriter;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntUnaryOperator;
+
+// Ad-hoc group-by over every booking, answered from an in-memory columnar snapshot instead of the database.
+// The snapshot is read from the bookings table once, then kept current from the booking_events log: each query
+// first applies the events written since the last one, so it always sees committed bookings.
+public class BookingAnalytics {
+    private static final int EVENT_PAGE_SIZE = 1000;
+    private static final String[] WEEKDAYS = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday"};
+    private static BookingAnalytics instance;
+
+    public enum Dimension {
+        BUS_TYPE("Bus type"),
+        BUS("Bus"),
+        WEEKDAY("Weekday"),
+        STATUS("Status"),
+        FARE_BAND("Fare band");
+
+        private final String title;
+
+        Dimension(String title) {
+            this.title = title;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+    }
+
+    private BookingDAO bookingDAO;
+    private BookingEventDAO bookingEventDAO;
+    private BusDAO busDAO;
+    private MetricsRegistry metrics;
+    private final int fareBandWidth;
+
+    // Queries scan under the read lock and may run side by side; applying events takes the write lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final BookingColumns columns = new BookingColumns();
+    private long lastSeq;
+    private boolean loaded;
+
+    private BookingAnalytics() {
+        this.bookingDAO = new BookingDAO();
+        this.bookingEventDAO = new BookingEventDAO();
+        this.busDAO = new BusDAO();
+        this.metrics = MetricsRegistry.getInstance();
+        this.fareBandWidth = Math.max(1, Integer.getInteger("analytics.fareBand", 10));
+    }
+
+    public static synchronized BookingAnalytics getInstance() {
+        if (instance == null) {
+            instance = new BookingAnalytics();
+        }
+        return instance;
+    }
+
+    // Brings the snapshot up to date; returns the number of bookings loaded or events applied
+    public int refresh() {
+        long start = System.nanoTime();
+        try {
+            lock.writeLock().lock();
+            try {
+                int applied = loaded ? 0 : load();
+                List<BookingEvent> events;
+                do {
+                    events = bookingEventDAO.getEventsAfter(lastSeq, EVENT_PAGE_SIZE);
+                    for (BookingEvent event : events) {
+                        apply(event);
+                        lastSeq = event.getSeq();
+                    }
+                    applied += events.size();
+                } while (events.size() == EVENT_PAGE_SIZE);
+                return applied;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (RuntimeException e) {
+            metrics.recordError("BookingAnalytics.refresh");
+            throw e;
+        } finally {
+            metrics.record("BookingAnalytics.refresh", start);
+        }
+    }
+
+    public int getBookingCount() {
+        refresh();
+        lock.readLock().lock();
+        try {
+            return columns.liveCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Bookings travelling between the two dates (either may be null for no bound), grouped by one dimension.
+    // Only groups with at least one booking are returned, in dimension order.
+    public List<AnalyticsGroup> aggregate(Dimension dimension, LocalDate from, LocalDate to) {
+        long start = System.nanoTime();
+        try {
+            refresh();
+            List<Bus> buses = dimension == Dimension.BUS || dimension == Dimension.BUS_TYPE
+                ? busDAO.getAllBusesWithoutSeats() : List.of();
+            int fromDay = from != null ? (int) from.toEpochDay() : Integer.MIN_VALUE;
+            int toDay = to != null ? (int) to.toEpochDay() : Integer.MAX_VALUE;
+
+            lock.readLock().lock();
+            try {
+                Grouping grouping = grouping(dimension, buses);
+                BookingColumns.Totals totals = columns.aggregate(grouping.keyOf, grouping.labels.size(), fromDay, toDay);
+
+                List<AnalyticsGroup> groups = new ArrayList<>();
+                for (int group = 0; group < totals.groups(); group++) {
+                    if (totals.bookings[group] > 0) {
+                        groups.add(new AnalyticsGroup(grouping.labels.get(group), totals.bookings[group],
+                                                      totals.seatsSold[group], totals.cancellations[group],
+                                                      totals.revenueCents[group], totals.minFare[group],
+                                                      totals.maxFare[group]));
+                    }
+                }
+                return groups;
+            } finally {
+                lock.readLock().unlock();
+            }
+        } catch (RuntimeException e) {
+            metrics.recordError("BookingAnalytics.aggregate");
+            throw e;
+        } finally {
+            metrics.record("BookingAnalytics.aggregate", start);
+        }
+    }
+
+    public void displayReport(Dimension dimension, LocalDate from, LocalDate to) {
+        try (ReportWriter out = ReportWriter.console()) {
+            displayReport(dimension, from, to, out);
+        }
+    }
+
+    public void displayReport(Dimension dimension, LocalDate from, LocalDate to, ReportWriter out) {
+        long start = System.nanoTime();
+        try {
+            List<AnalyticsGroup> groups = aggregate(dimension, from, to);
+
+            out.println();
+            out.println("=== Bookings by " + dimension.getTitle().toLowerCase()
+                        + (from != null ? " from " + from : "") + (to != null ? " to " + to : "") + " ===");
+            if (groups.isEmpty()) {
+                out.println("No bookings in this period.");
+                out.println();
+                return;
+            }
+
+            ReportTable table = new ReportTable(dimension.getTitle(), "Bookings", "Sold", "Cancelled", "Cancel %",
+                                                "Revenue", "Avg Fare", "Min Fare", "Max Fare");
+            for (int column = 1; column < 9; column++) {
+                table.align(column, ReportTable.Align.RIGHT);
+            }
+            for (AnalyticsGroup group : groups) {
+                table.addRow(group.getLabel(), group.getBookings(), group.getSeatsSold(), group.getCancellations(),
+                             String.format("%.1f%%", group.getCancellationRate() * 100),
+                             ReportTable.money(group.getRevenue()), ReportTable.money(group.getAverageFare()),
+                             ReportTable.money(group.getMinFare()), ReportTable.money(group.getMaxFare()));
+            }
+            table.render(out);
+            out.println();
+        } catch (RuntimeException e) {
+            metrics.recordError("BookingAnalytics.displayReport");
+            throw e;
+        } finally {
+            metrics.record("BookingAnalytics.displayReport", start);
+        }
+    }
+
+    private int load() {
+        // Read the log position first: events after it are replayed over the scan, which is harmless because
+        // every event carries the booking's full state
+        lastSeq = bookingEventDAO.getLastSeq();
+        int count = bookingDAO.forEachBooking(this::put);
+        loaded = true;
+        return count;
+    }
+
+    private void apply(BookingEvent event) {
+        if ("DELETED".equals(event.getEventType())) {
+            columns.remove(event.getBookingId());
+        } else {
+            put(event.getBooking());
+        }
+    }
+
+    private void put(Booking booking) {
+        columns.put(booking.getId(), booking.getBusId(), travelDay(booking), booking.getFare(), booking.getStatus());
+    }
+
+    private static int travelDay(Booking booking) {
+        return booking.getTravelDate() != null ? (int) booking.getTravelDate().toLocalDate().toEpochDay() : Integer.MIN_VALUE;
+    }
+
+    // How rows map to dense group numbers for one dimension; must be built under the lock
+    private Grouping grouping(Dimension dimension, List<Bus> buses) {
+        switch (dimension) {
+            case BUS_TYPE: {
+                List<String> types = new ArrayList<>();
+                Map<String, Integer> typeCodes = new HashMap<>();
+                int[] typeOfBus = new int[columns.maxBusId() + 1];
+                for (Bus bus : buses) {
+                    if (bus.getId() < typeOfBus.length) {
+                        typeOfBus[bus.getId()] = typeCodes.computeIfAbsent(bus.getBusType(), type -> {
+                            types.add(type);
+                            return types.size();
+                        });
+                    }
+                }
+                // Group 0 collects bookings on buses that no longer exist
+                types.add(0, "Unknown");
+                return new Grouping(types, row -> typeOfBus[columns.busId(row)]);
+            }
+            case BUS: {
+                List<String> names = new ArrayList<>();
+                for (int busId = 0; busId <= columns.maxBusId(); busId++) {
+                    names.add("Bus " + busId);
+                }
+                for (Bus bus : buses) {
+                    if (bus.getId() < names.size()) {
+                        names.set(bus.getId(), bus.getBusName());
+                    }
+                }
+                return new Grouping(names, columns::busId);
+            }
+            case WEEKDAY:
+                // Epoch day 0 was a Thursday, index 3 counting from Monday
+                return new Grouping(List.of(WEEKDAYS), row -> Math.floorMod(columns.travelDay(row) + 3, 7));
+            case STATUS: {
+                List<String> statuses = new ArrayList<>();
+                for (int code = 0; code < columns.statusCount(); code++) {
+                    statuses.add(columns.statusName(code));
+                }
+                return new Grouping(statuses, columns::status);
+            }
+            case FARE_BAND: {
+                int bands = (int) (columns.maxFare() / fareBandWidth) + 1;
+                List<String> labels = new ArrayList<>();
+                for (int band = 0; band < bands; band++) {
+                    labels.add(ReportTable.money(band * fareBandWidth) + " - " + ReportTable.money((band + 1) * fareBandWidth - 0.01));
+                }
+                return new Grouping(labels, row -> Math.max(0, (int) (columns.fare(row) / fareBandWidth)));
+            }
+            default:
+                throw new IllegalArgumentException("Unknown dimension: " + dimension);
+        }
+    }
+
+    private static final class Grouping {
+        private final List<String> labels;
+        private final IntUnaryOperator keyOf;
+
+        Grouping(List<String> labels, IntUnaryOperator keyOf) {
+            this.labels = labels;
+            this.keyOf = keyOf;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.busreservation.service;
+
+import com.busreservation.dao.BookingArchiveDAO;
+import com.busreservation.database.DatabaseManager;
+import com.busreservation.metrics.MetricsRegistry;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Keeps the live bookings table to recent and upcoming trips by moving completed and cancelled bookings
+// that travelled more than -Darchive.retentionDays ago (default 180) into monthly archive partitions.
+// Each month moves in its own short transaction, so bookings are never blocked for the whole run.
+public class BookingArchiver {
+    private DatabaseManager dbManager;
+    private BookingArchiveDAO bookingArchiveDAO;
+    private MetricsRegistry metrics;
+    private final int retentionDays;
+    private ScheduledExecutorService scheduler;
+
+    public BookingArchiver() {
+        this.dbManager = DatabaseManager.getInstance();
+        this.bookingArchiveDAO = new BookingArchiveDAO();
+        this.metrics = MetricsRegistry.getInstance();
+        this.retentionDays = Integer.getInteger("archive.retentionDays", 180);
+    }
+
+    public synchronized void start(long periodMinutes) {
+        if (scheduler != null) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "booking-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::archiveNow, periodMinutes, periodMinutes, TimeUnit.MINUTES);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    // Returns the number of bookings moved
+    public int archiveNow() {
+        return archiveBefore(LocalDate.now().minusDays(retentionDays).atStartOfDay());
+    }
+
+    public int archiveBefore(LocalDateTime cutoff) {
+        long start = System.nanoTime();
+        try {
+            int moved = 0;
+            // A dedicated WAL connection, so readers on the shared one keep going while a month is moved
+            try (Connection conn = dbManager.openConnection()) {
+                List<YearMonth> months = bookingArchiveDAO.findArchivableMonths(conn, cutoff);
+                for (YearMonth month : months) {
+                    conn.setAutoCommit(false);
+                    try {
+                        moved += bookingArchiveDAO.archiveMonth(conn, month, cutoff);
+                        conn.commit();
+                    } catch (SQLException e) {
+                        conn.rollback();
+                        metrics.recordError("BookingArchiver.archiveBefore");
+                        System.err.println("Error archiving bookings for " + month + ": " + e.getMessage());
+                    } finally {
+                        conn.setAutoCommit(true);
+                    }
+                }
+            } catch (SQLException e) {
+                metrics.recordError("BookingArchiver.archiveBefore");
+                System.err.println("Error archiving bookings: " + e.getMessage());
+            }
+
+            if (moved > 0) {
+                System.err.println("Archived " + moved + " bookings that travelled before " + cutoff.toLocalDate());
+            }
+            return moved;
+        } catch (RuntimeException e) {
+            metrics.recordError("BookingArchiver.archiveBefore");
+            throw e;
+        } finally {
+            metrics.record("BookingArchiver.archiveBefore", start);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.busreservation.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+// Bookings held column by column in primitive arrays, so a scan touches only the fields it aggregates and
+// allocates nothing per row. Rows are addressed by position; a booking that changes is overwritten in place
+// and a deleted one is left as a tombstone. Not thread-safe: BookingAnalytics guards it with a read/write lock.
+final class BookingColumns {
+    static final byte REMOVED = -1;
+    static final byte CONFIRMED = 0;
+    static final byte CANCELLED = 1;
+    static final byte COMPLETED = 2;
+    // Below this many rows splitting the scan across cores costs more than it saves
+    static final int PARALLEL_THRESHOLD = 10_000;
+
+    private int[] busIds = new int[1024];
+    private int[] travelDays = new int[1024];
+    private double[] fares = new double[1024];
+    private byte[] statuses = new byte[1024];
+    private int size;
+    private int removed;
+    private int maxBusId;
+    private double maxFare;
+    // Booking ids are dense, so row positions are looked up by id in a plain array; -1 means no row yet
+    private int[] rowById = new int[1024];
+
+    private final List<String> statusNames = new ArrayList<>(Arrays.asList("CONFIRMED", "CANCELLED", "COMPLETED"));
+    private final Map<String, Byte> statusCodes = new HashMap<>();
+
+    BookingColumns() {
+        Arrays.fill(rowById, -1);
+        for (byte code = 0; code < statusNames.size(); code++) {
+            statusCodes.put(statusNames.get(code), code);
+        }
+    }
+
+    void put(int id, int busId, int travelDay, double fare, String status) {
+        int row = rowOf(id);
+        if (row < 0) {
+            row = size++;
+            ensureCapacity(size);
+            ensureIdCapacity(id);
+            rowById[id] = row;
+        } else if (statuses[row] == REMOVED) {
+            removed--;
+        }
+        busIds[row] = busId;
+        travelDays[row] = travelDay;
+        fares[row] = fare;
+        statuses[row] = statusCode(status);
+        maxBusId = Math.max(maxBusId, busId);
+        maxFare = Math.max(maxFare, fare);
+    }
+
+    void remove(int id) {
+        int row = rowOf(id);
+        if (row >= 0 && statuses[row] != REMOVED) {
+            statuses[row] = REMOVED;
+            removed++;
+        }
+    }
+
+    // Rows including tombstones
+    int size() {
+        return size;
+    }
+
+    int liveCount() {
+        return size - removed;
+    }
+
+    int busId(int row) { return busIds[row]; }
+    int travelDay(int row) { return travelDays[row]; }
+    double fare(int row) { return fares[row]; }
+    byte status(int row) { return statuses[row]; }
+
+    int maxBusId() { return maxBusId; }
+    double maxFare() { return maxFare; }
+
+    int statusCount() {
+        return statusNames.size();
+    }
+
+    String statusName(int code) {
+        return statusNames.get(code);
+    }
+
+    // Totals per group for the live rows travelling between the two epoch days, inclusive. keyOf maps a row to
+    // its group in [0, groups); the scan is split across the common fork/join pool once the table is large.
+    Totals aggregate(IntUnaryOperator keyOf, int groups, int fromDay, int toDay) {
+        // Locals so the worker threads read the arrays as they were when the scan started
+        byte[] statusColumn = statuses;
+        int[] dayColumn = travelDays;
+        double[] fareColumn = fares;
+
+        IntStream rows = IntStream.range(0, size);
+        if (size >= PARALLEL_THRESHOLD) {
+            rows = rows.parallel();
+        }
+        return rows.collect(() -> new Totals(groups), (totals, row) -> {
+            byte status = statusColumn[row];
+            int day = dayColumn[row];
+            if (status != REMOVED && day >= fromDay && day <= toDay) {
+                totals.add(keyOf.applyAsInt(row), status, fareColumn[row]);
+            }
+        }, Totals::merge);
+    }
+
+    private int rowOf(int id) {
+        return id >= 0 && id < rowById.length ? rowById[id] : -1;
+    }
+
+    private byte statusCode(String status) {
+        String name = status != null ? status : "UNKNOWN";
+        Byte code = statusCodes.get(name);
+        if (code == null) {
+            code = (byte) statusNames.size();
+            statusNames.add(name);
+            statusCodes.put(name, code);
+        }
+        return code;
+    }
+
+    private void ensureCapacity(int rows) {
+        if (rows <= busIds.length) {
+            return;
+        }
+        int capacity = Math.max(rows, busIds.length * 2);
+        busIds = Arrays.copyOf(busIds, capacity);
+        travelDays = Arrays.copyOf(travelDays, capacity);
+        fares = Arrays.copyOf(fares, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+    }
+
+    private void ensureIdCapacity(int id) {
+        if (id < rowById.length) {
+            return;
+        }
+        int oldLength = rowById.length;
+        rowById = Arrays.copyOf(rowById, Math.max(id + 1, oldLength * 2));
+        Arrays.fill(rowById, oldLength, rowById.length, -1);
+    }
+
+    // Per-group accumulators for one scan; each fork/join task fills its own and they are merged pairwise
+    static final class Totals {
+        final long[] bookings;
+        final long[] seatsSold;
+        final long[] cancellations;
+        final long[] revenueCents;
+        final double[] minFare;
+        final double[] maxFare;
+
+        Totals(int groups) {
+            bookings = new long[groups];
+            seatsSold = new long[groups];
+            cancellations = new long[groups];
+            revenueCents = new long[groups];
+            minFare = new double[groups];
+            maxFare = new double[groups];
+            Arrays.fill(minFare, Double.POSITIVE_INFINITY);
+            Arrays.fill(maxFare, Double.NEGATIVE_INFINITY);
+        }
+
+        int groups() {
+            return bookings.length;
+        }
+
+        void add(int group, byte status, double fare) {
+            bookings[group]++;
+            if (status == CONFIRMED || status == COMPLETED) {
+                seatsSold[group]++;
+                revenueCents[group] += Math.round(fare * 100);
+            } else if (status == CANCELLED) {
+                cancellations[group]++;
+            }
+            minFare[group] = Math.min(minFare[group], fare);
+            maxFare[group] = Math.max(maxFare[group], fare);
+        }
+
+        void merge(Totals other) {
+            for (int group = 0; group < bookings.length; group++) {
+                bookings[group] += other.bookings[group];
+                seatsSold[group] += other.seatsSold[group];
+                cancellations[group] += other.cancellations[group];
+                revenueCents[group] += other.revenueCents[group];
+                minFare[group] = Math.min(minFare[group], other.minFare[group]);
+                maxFare[group] = Math.max(maxFare[group], other.maxFare[group]);
+            }
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.busreservation.service;
+
+import com.busreservation.dao.BookingEventDAO;
+import com.busreservation.model.Booking;
+import com.busreservation.model.BookingEvent;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Materialized views over the booking_events log: current booking state and per-trip seat maps.
+// Restart cost is the latest snapshot plus the events written after it.
+public class BookingLedger {
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int EVENT_PAGE_SIZE = 1000;
+    private static BookingLedger instance;
+
+    private BookingEventDAO bookingEventDAO;
+    private final int snapshotEveryEvents;
+    private ScheduledExecutorService scheduler;
+
+    private final Map<Integer, Booking> bookings = new HashMap<>();
+    // "busId:travelDate" -> seats held by CONFIRMED bookings
+    private final Map<String, BitSet> seatMaps = new HashMap<>();
+    private long lastSeq;
+    private long snapshotSeq;
+    private boolean loaded;
+
+    private BookingLedger() {
+        this.bookingEventDAO = new BookingEventDAO();
+        this.snapshotEveryEvents = Integer.getInteger("ledger.snapshotEvery", 1000);
+    }
+
+    public static synchronized BookingLedger getInstance() {
+        if (instance == null) {
+            instance = new BookingLedger();
+        }
+        return instance;
+    }
+
+    public synchronized void start(long periodMinutes) {
+        ensureLoaded();
+        if (scheduler != null) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "booking-ledger-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::snapshotIfDue, periodMinutes, periodMinutes, TimeUnit.MINUTES);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    public synchronized Booking getBooking(int bookingId) {
+        catchUp();
+        return bookings.get(bookingId);
+    }
+
+    public synchronized List<Integer> getOccupiedSeats(int busId, LocalDateTime travelDate) {
+        catchUp();
+        List<Integer> seats = new ArrayList<>();
+        BitSet seatMap = seatMaps.get(tripKey(busId, travelDate));
+        if (seatMap != null) {
+            for (int seat = seatMap.nextSetBit(0); seat >= 0; seat = seatMap.nextSetBit(seat + 1)) {
+                seats.add(seat);
+            }
+        }
+        return seats;
+    }
+
+    public List<BookingEvent> getHistory(int bookingId) {
+        return bookingEventDAO.getEventsForBooking(bookingId);
+    }
+
+    public synchronized void snapshotIfDue() {
+        catchUp();
+        if (lastSeq - snapshotSeq >= snapshotEveryEvents) {
+            snapshotNow();
+        }
+    }
+
+    public synchronized void snapshotNow() {
+        catchUp();
+        try {
+            if (bookingEventDAO.saveSnapshot(lastSeq, bookings.size(), encodeSnapshot())) {
+                snapshotSeq = lastSeq;
+            }
+        } catch (IOException e) {
+            System.err.println("Error encoding booking snapshot: " + e.getMessage());
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+
+        BookingEventDAO.Snapshot snapshot = bookingEventDAO.getLatestSnapshot();
+        if (snapshot != null) {
+            try {
+                decodeSnapshot(snapshot.getData());
+                lastSeq = snapshot.getLastSeq();
+                snapshotSeq = lastSeq;
+            } catch (IOException e) {
+                // Fall back to a full replay of the log
+                System.err.println("Error reading booking snapshot: " + e.getMessage());
+                bookings.clear();
+                seatMaps.clear();
+                lastSeq = 0;
+                snapshotSeq = 0;
+            }
+        }
+        loaded = true;
+        catchUp();
+    }
+
+    private void catchUp() {
+        if (!loaded) {
+            ensureLoaded();
+            return;
+        }
+
+        List<BookingEvent> events;
+        do {
+            events = bookingEventDAO.getEventsAfter(lastSeq, EVENT_PAGE_SIZE);
+            for (BookingEvent event : events) {
+                apply(event);
+                lastSeq = event.getSeq();
+            }
+        } while (events.size() == EVENT_PAGE_SIZE);
+    }
+
+    private void apply(BookingEvent event) {
+        Booking previous = bookings.remove(event.getBookingId());
+        if (previous != null) {
+            releaseSeat(previous);
+        }
+        if (!"DELETED".equals(event.getEventType())) {
+            put(event.getBooking());
+        }
+    }
+
+    private void put(Booking booking) {
+        bookings.put(booking.getId(), booking);
+        if ("CONFIRMED".equals(booking.getStatus()) && booking.getTravelDate() != null) {
+            seatMaps.computeIfAbsent(tripKey(booking.getBusId(), booking.getTravelDate()), key -> new BitSet())
+                    .set(booking.getSeatNumber());
+        }
+    }
+
+    private void releaseSeat(Booking booking) {
+        if ("CONFIRMED".equals(booking.getStatus()) && booking.getTravelDate() != null) {
+            BitSet seatMap = seatMaps.get(tripKey(booking.getBusId(), booking.getTravelDate()));
+            if (seatMap != null) {
+                seatMap.clear(booking.getSeatNumber());
+            }
+        }
+    }
+
+    private byte[] encodeSnapshot() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(bookings.size());
+            for (Booking booking : bookings.values()) {
+                out.writeInt(booking.getId());
+                out.writeInt(booking.getUserId());
+                out.writeInt(booking.getBusId());
+                out.writeInt(booking.getScheduleId());
+                out.writeInt(booking.getSeatNumber());
+                out.writeUTF(booking.getPassengerName());
+                out.writeUTF(booking.getPassengerPhone());
+                out.writeDouble(booking.getFare());
+                out.writeUTF(booking.getStatus() != null ? booking.getStatus() : "");
+                out.writeLong(toMillis(booking.getBookingDate()));
+                out.writeLong(toMillis(booking.getTravelDate()));
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private void decodeSnapshot(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(data)))) {
+            if (in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Unsupported snapshot version");
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Booking booking = new Booking();
+                booking.setId(in.readInt());
+                booking.setUserId(in.readInt());
+                booking.setBusId(in.readInt());
+                booking.setScheduleId(in.readInt());
+                booking.setSeatNumber(in.readInt());
+                booking.setPassengerName(in.readUTF());
+                booking.setPassengerPhone(in.readUTF());
+                booking.setFare(in.readDouble());
+                String status = in.readUTF();
+                booking.setStatus(status.isEmpty() ? null : status);
+                booking.setBookingDate(fromMillis(in.readLong()));
+                booking.setTravelDate(fromMillis(in.readLong()));
+                put(booking);
+            }
+        }
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime != null ? Timestamp.valueOf(dateTime).getTime() : Long.MIN_VALUE;
+    }
+
+    private static LocalDateTime fromMillis(long millis) {
+        return millis != Long.MIN_VALUE ? new Timestamp(millis).toLocalDateTime() : null;
+    }
+
+    private static String tripKey(int busId, LocalDateTime travelDate) {
+        return busId + ":" + travelDate;
+    }
+}
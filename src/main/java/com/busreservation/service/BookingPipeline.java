@@ -0,0 +1,441 @@
+package com.busreservation.service;
+
+import com.busreservation.dao.BookingWriteDAO;
+import com.busreservation.database.BookingJournal;
+import com.busreservation.database.DatabaseManager;
+import com.busreservation.metrics.jfr.BatchCommitRetryEvent;
+import com.busreservation.metrics.jfr.BookingAttemptEvent;
+import com.busreservation.model.Booking;
+import com.busreservation.model.BookingResult;
+import com.busreservation.model.BookingSubmission;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class BookingPipeline {
+    private static final int MAX_COMMIT_ATTEMPTS = 3;
+    private static final long SUBMIT_TIMEOUT_MILLIS = 100;
+    private static final long MIN_RETRY_DELAY_MILLIS = 100;
+    private static final long MAX_RETRY_DELAY_MILLIS = 5000;
+    // SQLite result codes that no retry can clear
+    private static final int SQLITE_CORRUPT = 11;
+    private static final int SQLITE_MISUSE = 21;
+    private static final int SQLITE_NOTADB = 26;
+    private static BookingPipeline instance;
+
+    private DatabaseManager dbManager;
+    private BookingWriteDAO bookingWriteDAO;
+    private BookingJournal bookingJournal;
+    private DynamicPricingService dynamicPricingService;
+
+    private final BlockingQueue<Command> queue;
+    // Held from journal append to enqueue; the writer never takes it, so a full queue cannot stall the writer
+    private final Object journalOrder = new Object();
+    private final int maxBatchSize;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private BookingPipeline() {
+        this.dbManager = DatabaseManager.getInstance();
+        this.bookingWriteDAO = new BookingWriteDAO();
+        this.bookingJournal = dbManager.getBookingJournal();
+        this.dynamicPricingService = DynamicPricingService.getInstance();
+        this.queue = new ArrayBlockingQueue<>(Integer.getInteger("pipeline.queueCapacity", 10000));
+        this.maxBatchSize = Integer.getInteger("pipeline.maxBatch", 256);
+
+        this.writer = new Thread(this::runWriter, "booking-writer");
+        this.writer.setDaemon(true);
+        // Requests taken now would be applied ahead of the journal tail left from the last run
+        if (dbManager.isBookingJournalUnreplayed()) {
+            running = false;
+            System.err.println("Booking journal was not replayed; the booking writer is not started.");
+            return;
+        }
+        this.writer.start();
+    }
+
+    public static synchronized BookingPipeline getInstance() {
+        if (instance == null) {
+            instance = new BookingPipeline();
+        }
+        return instance;
+    }
+
+    // Each request is written to the journal before it is queued and the writer forces the journal once per
+    // batch; the accepted future completes at that force, so an accepted request survives a crash, and the
+    // applied future completes once it is committed
+    public BookingSubmission submitBooking(Booking booking) {
+        BookCommand command = new BookCommand(booking);
+        try {
+            return accept(command, BookingJournal.TYPE_BOOKING, BookingJournal.encodeBooking(booking));
+        } catch (IOException e) {
+            command.complete(new BookingResult(BookingResult.Status.REJECTED, 0, "Failed to record booking request."));
+            return command.submission();
+        }
+    }
+
+    public BookingSubmission submitCancellation(int bookingId, int userId) {
+        return accept(new CancelCommand(bookingId, userId), BookingJournal.TYPE_CANCELLATION,
+            BookingJournal.encodeCancellation(bookingId, userId));
+    }
+
+    public void shutdown() {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private BookingSubmission submit(Command command) {
+        try {
+            if (running && queue.offer(command, SUBMIT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                return command.submission();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        command.complete(new BookingResult(BookingResult.Status.BUSY, 0, "System is busy, please try again."));
+        return command.submission();
+    }
+
+    private BookingSubmission accept(Command command, byte type, byte[] payload) {
+        if (bookingJournal == null || !running) {
+            return submit(command);
+        }
+        try {
+            // Queue order must match journal order so the applied sequence is always a prefix
+            synchronized (journalOrder) {
+                command.journalSeq = bookingJournal.append(type, payload);
+                boolean queued = false;
+                try {
+                    queued = running && queue.offer(command, SUBMIT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (queued) {
+                    return command.submission();
+                }
+                // Not queued, so it must not be replayed on the next start either
+                bookingJournal.discard(command.journalSeq);
+                command.journalSeq = 0;
+            }
+            command.complete(new BookingResult(BookingResult.Status.BUSY, 0, "System is busy, please try again."));
+        } catch (IOException e) {
+            System.err.println("Error appending to booking journal: " + e.getMessage());
+            command.complete(new BookingResult(BookingResult.Status.REJECTED, 0, "Failed to record booking request."));
+        }
+        return command.submission();
+    }
+
+    private void runWriter() {
+        List<Command> batch = new ArrayList<>(maxBatchSize);
+        Connection conn = null;
+        long retryDelayMillis = 0;
+
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    Command first = queue.poll(200, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatchSize - 1);
+                    acknowledge(batch);
+                } else {
+                    // A held batch is retried before anything newer, so applied_seq never moves past it
+                    TimeUnit.MILLISECONDS.sleep(retryDelayMillis);
+                }
+
+                if (conn == null || conn.isClosed()) {
+                    conn = dbManager.openConnection();
+                }
+                commitBatch(conn, batch);
+                batch.clear();
+                retryDelayMillis = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                halt(batch);
+                break;
+            } catch (SQLException e) {
+                System.err.println("Error committing booking batch: " + e.getMessage());
+                conn = closeQuietly(conn);
+                if (!running || !isRecoverable(e)) {
+                    halt(batch);
+                    break;
+                }
+                if (holdForRetry(batch)) {
+                    retryDelayMillis = Math.min(Math.max(retryDelayMillis * 2, MIN_RETRY_DELAY_MILLIS), MAX_RETRY_DELAY_MILLIS);
+                }
+            } catch (RuntimeException e) {
+                // A bug in one batch must not take the writer down with it; every caller is waiting on it.
+                // Retrying would only hit the same bug, so a journaled batch stops the writer instead.
+                System.err.println("Unexpected error in booking writer: " + e);
+                conn = closeQuietly(conn);
+                if (holdForRetry(batch)) {
+                    halt(batch);
+                    break;
+                }
+            }
+        }
+        closeQuietly(conn);
+    }
+
+    // One force makes the whole batch durable, so every journaled request in it is acknowledged together.
+    // If the force fails the acknowledgements are left to complete with the applied result instead.
+    private void acknowledge(List<Command> batch) {
+        if (bookingJournal == null) {
+            return;
+        }
+        try {
+            bookingJournal.force();
+        } catch (RuntimeException e) {
+            System.err.println("Error forcing booking journal: " + e);
+            return;
+        }
+        for (Command command : batch) {
+            if (command.journalSeq > 0) {
+                command.acknowledge();
+            }
+        }
+    }
+
+    // Fails the unjournaled commands of a batch that did not commit and keeps the journaled ones; returns true
+    // when any were kept. Applying anything journaled after an unapplied journal record would move applied_seq
+    // past it and the next start would never replay it, so those must be applied before the writer moves on.
+    private boolean holdForRetry(List<Command> batch) {
+        Iterator<Command> commands = batch.iterator();
+        while (commands.hasNext()) {
+            Command command = commands.next();
+            if (command.journalSeq == 0 || command.future.isDone()) {
+                command.complete(new BookingResult(BookingResult.Status.ERROR, 0, "Failed to save booking changes."));
+                commands.remove();
+            }
+        }
+        return !batch.isEmpty();
+    }
+
+    // Busy, locked or I/O failures can clear up on a fresh connection; a corrupt database or a misused
+    // connection will not
+    private static boolean isRecoverable(SQLException e) {
+        int primaryCode = e.getErrorCode() & 0xff;
+        return primaryCode != SQLITE_CORRUPT && primaryCode != SQLITE_MISUSE && primaryCode != SQLITE_NOTADB;
+    }
+
+    // Stops taking requests and fails everything not yet applied; journaled ones are replayed on the next start
+    private void halt(List<Command> batch) {
+        running = false;
+        synchronized (journalOrder) {
+            queue.drainTo(batch);
+        }
+        System.err.println("Booking writer stopped; journaled requests will be applied on the next start.");
+        for (Command command : batch) {
+            String message = command.journalSeq > 0
+                ? "Request recorded; it will be applied on the next start."
+                : "Failed to save booking changes.";
+            command.complete(new BookingResult(BookingResult.Status.ERROR, 0, message));
+        }
+    }
+
+    // Applies the whole batch in one transaction; each command gets its own savepoint so a
+    // conflict or failure only undoes that command
+    private void commitBatch(Connection conn, List<Command> batch) throws SQLException {
+        BookingResult[] results = new BookingResult[batch.size()];
+        long journalSeq = 0;
+        for (Command command : batch) {
+            journalSeq = Math.max(journalSeq, command.journalSeq);
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            conn.setAutoCommit(false);
+            try {
+                for (int i = 0; i < batch.size(); i++) {
+                    Savepoint savepoint = conn.setSavepoint();
+                    try {
+                        results[i] = batch.get(i).apply(conn);
+                        if (!results[i].isSuccess()) {
+                            conn.rollback(savepoint);
+                        }
+                    } catch (SQLException e) {
+                        conn.rollback(savepoint);
+                        results[i] = new BookingResult(BookingResult.Status.ERROR, 0, e.getMessage());
+                    } catch (RuntimeException e) {
+                        conn.rollback(savepoint);
+                        System.err.println("Error applying booking change: " + e);
+                        results[i] = new BookingResult(BookingResult.Status.ERROR, 0, "Failed to save booking changes.");
+                    }
+                }
+                if (journalSeq > 0) {
+                    bookingWriteDAO.setAppliedJournalSeq(conn, journalSeq);
+                }
+                conn.commit();
+                break;
+            } catch (SQLException e) {
+                conn.rollback();
+                if (attempt >= MAX_COMMIT_ATTEMPTS) {
+                    throw e;
+                }
+                BatchCommitRetryEvent retry = new BatchCommitRetryEvent();
+                retry.setAttempt(attempt);
+                retry.setBatchSize(batch.size());
+                retry.setCause(e.getMessage());
+                retry.commit();
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+
+        if (journalSeq > 0) {
+            bookingJournal.markApplied(journalSeq);
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                batch.get(i).afterCommit(results[i]);
+            } catch (RuntimeException e) {
+                // The change is committed; only the follow-up bookkeeping is lost
+                System.err.println("Error after committing booking change: " + e);
+            }
+            batch.get(i).complete(results[i]);
+        }
+    }
+
+    private static Connection closeQuietly(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing booking writer connection: " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private abstract static class Command {
+        private final CompletableFuture<BookingResult> accepted = new CompletableFuture<>();
+        private final CompletableFuture<BookingResult> future = new CompletableFuture<>();
+        private final BookingAttemptEvent event = new BookingAttemptEvent();
+        private long journalSeq;
+
+        Command() {
+            event.begin();
+        }
+
+        abstract BookingResult apply(Connection conn) throws SQLException;
+
+        abstract void describe(BookingAttemptEvent event, BookingResult result);
+
+        abstract String acceptedMessage();
+
+        void afterCommit(BookingResult result) {}
+
+        BookingSubmission submission() {
+            return new BookingSubmission(accepted, future);
+        }
+
+        void acknowledge() {
+            accepted.complete(new BookingResult(BookingResult.Status.ACCEPTED, 0, acceptedMessage()));
+        }
+
+        // Also completes the acknowledgement when that has not happened yet, e.g. for a request turned away
+        void complete(BookingResult result) {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                event.end();
+                if (event.shouldCommit()) {
+                    describe(event, result);
+                    event.setOutcome(result.getStatus().name());
+                    event.setJournaled(journalSeq > 0);
+                    event.commit();
+                }
+            } finally {
+                accepted.complete(result);
+                future.complete(result);
+            }
+        }
+    }
+
+    private class BookCommand extends Command {
+        private final Booking booking;
+
+        BookCommand(Booking booking) {
+            this.booking = booking;
+        }
+
+        @Override
+        BookingResult apply(Connection conn) throws SQLException {
+            return bookingWriteDAO.applyBooking(conn, booking);
+        }
+
+        @Override
+        void describe(BookingAttemptEvent event, BookingResult result) {
+            event.setOperation("BOOK");
+            event.setBusId(booking.getBusId());
+            event.setSeatNumber(booking.getSeatNumber());
+            event.setTravelDate(String.valueOf(booking.getTravelDate()));
+        }
+
+        @Override
+        String acceptedMessage() {
+            return "Booking request recorded; it will be confirmed shortly.";
+        }
+
+        @Override
+        void afterCommit(BookingResult result) {
+            if (result.isSuccess()) {
+                dynamicPricingService.recordBooking(booking.getBusId(), booking.getScheduleId(), booking.getTravelDate());
+            }
+        }
+    }
+
+    private class CancelCommand extends Command {
+        private final int bookingId;
+        private final int userId;
+
+        CancelCommand(int bookingId, int userId) {
+            this.bookingId = bookingId;
+            this.userId = userId;
+        }
+
+        @Override
+        BookingResult apply(Connection conn) throws SQLException {
+            return bookingWriteDAO.applyCancellation(conn, bookingId, userId);
+        }
+
+        @Override
+        void describe(BookingAttemptEvent event, BookingResult result) {
+            event.setOperation("CANCEL");
+            Booking booking = result.getBooking();
+            if (booking != null) {
+                event.setBusId(booking.getBusId());
+                event.setSeatNumber(booking.getSeatNumber());
+                event.setTravelDate(String.valueOf(booking.getTravelDate()));
+            }
+        }
+
+        @Override
+        String acceptedMessage() {
+            return "Cancellation request recorded; it will be applied shortly.";
+        }
+
+        @Override
+        void afterCommit(BookingResult result) {
+            if (result.isSuccess()) {
+                Booking booking = result.getBooking();
+                dynamicPricingService.recordCancellation(booking.getBusId(), booking.getScheduleId(), booking.getTravelDate());
+            }
+        }
+    }
+}
@@ -1,270 +1,512 @@
 package com.busreservation.service;
 
 import com.busreservation.dao.BookingDAO;
+import com.busreservation.dao.BookingSort;
 import com.busreservation.dao.BusDAO;
+import com.busreservation.dao.ScheduleDAO;
 import com.busreservation.dao.UserDAO;
+import com.busreservation.metrics.MetricsRegistry;
 import com.busreservation.model.Booking;
+import com.busreservation.model.BookingEvent;
+import com.busreservation.model.BookingResult;
+import com.busreservation.model.BookingSubmission;
 import com.busreservation.model.Bus;
+import com.busreservation.model.Schedule;
+import com.busreservation.model.Session;
 import com.busreservation.model.User;
+import com.busreservation.report.ReportTable;
+import com.busreservation.report.ReportWriter;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class BookingService {
     private BookingDAO bookingDAO;
     private BusDAO busDAO;
+    private ScheduleDAO scheduleDAO;
     private UserDAO userDAO;
+    private FareQuoteEngine fareQuoteEngine;
+    private DynamicPricingService dynamicPricingService;
+    private BookingPipeline bookingPipeline;
+    private BookingLedger bookingLedger;
+    private SeatChangeBus seatChangeBus;
+    private MetricsRegistry metrics;
 
     public BookingService() {
         this.bookingDAO = new BookingDAO();
         this.busDAO = new BusDAO();
+        this.scheduleDAO = new ScheduleDAO();
         this.userDAO = new UserDAO();
+        this.fareQuoteEngine = FareQuoteEngine.getInstance();
+        this.dynamicPricingService = DynamicPricingService.getInstance();
+        this.bookingPipeline = BookingPipeline.getInstance();
+        this.bookingLedger = BookingLedger.getInstance();
+        this.seatChangeBus = SeatChangeBus.getInstance();
+        this.metrics = MetricsRegistry.getInstance();
     }
 
     public boolean createBooking(int userId, int busId, int scheduleId, int seatNumber, 
                                 String passengerName, String passengerPhone, double fare, 
                                 LocalDateTime travelDate) {
-        
-        // Validate inputs
-        if (passengerName == null || passengerName.trim().isEmpty() ||
-            passengerPhone == null || passengerPhone.trim().isEmpty() ||
-            fare <= 0 || travelDate == null) {
-            return false;
+        long start = System.nanoTime();
+        try {
+            
+            // Validate inputs
+            if (passengerName == null || passengerName.trim().isEmpty() ||
+                passengerPhone == null || passengerPhone.trim().isEmpty() ||
+                fare <= 0 || travelDate == null) {
+                return false;
+            }
+
+            // Check if user exists
+            User user = userDAO.getUserById(userId);
+            if (user == null) {
+                System.out.println("User not found!");
+                return false;
+            }
+
+            // Check if bus exists
+            Bus bus = busDAO.getBusById(busId);
+            if (bus == null) {
+                System.out.println("Bus not found!");
+                return false;
+            }
+
+            // Seat availability is checked by the pipeline inside the same transaction as the insert
+            Booking booking = new Booking(userId, busId, scheduleId, seatNumber, passengerName, 
+                                        passengerPhone, fare, travelDate);
+
+            BookingResult result = accepted("BookingService.createBooking", bookingPipeline.submitBooking(booking)).join();
+            System.out.println(result.getMessage());
+            return result.isAccepted();
+        } catch (RuntimeException e) {
+            metrics.recordError("BookingService.createBooking");
+            throw e;
+        } finally {
+            metrics.record("BookingService.createBooking", start);
         }
+    }
 
-        // Check if user exists
-        User user = userDAO.getUserById(userId);
-        if (user == null) {
-            System.out.println("User not found!");
-            return false;
+    public CompletableFuture<BookingResult> submitBooking(Booking booking) {
+        long start = System.nanoTime();
+        try {
+            return accepted("BookingService.submitBooking", bookingPipeline.submitBooking(booking));
+        } catch (RuntimeException e) {
+            metrics.recordError("BookingService.submitBooking");
+            throw e;
+        } finally {
+            metrics.record("BookingService.submitBooking", start);
         }
+    }
 
-        // Check if bus exists
-        Bus bus = busDAO.getBusById(busId);
-        if (bus == null) {
-            System.out.println("Bus not found!");
-            return false;
+    // Validates and prices a booking for a scheduled departure without blocking the caller
+    public CompletableFuture<BookingResult> requestBooking(int userId, int scheduleId, int seatNumber,
+                                                         String passengerName, String passengerPhone,
+                                                         LocalDate travelDate) {
+        long start = System.nanoTime();
+        try {
+            if (passengerName == null || passengerName.trim().isEmpty() ||
+                passengerPhone == null || passengerPhone.trim().isEmpty() || travelDate == null) {
+                return rejected("Passenger name, phone and travel date are required.");
+            }
+            if (travelDate.isBefore(LocalDate.now())) {
+                return rejected("Travel date cannot be in the past.");
+            }
+            if (userDAO.getUserById(userId) == null) {
+                return rejected("User not found!");
+            }
+
+            Schedule schedule = scheduleDAO.getScheduleById(scheduleId);
+            if (schedule == null) {
+                return rejected("Schedule not found!");
+            }
+            if (travelDate.getDayOfWeek() != RouteSearchService.parseDayOfWeek(schedule.getDayOfWeek())) {
+                return rejected("This schedule does not run on " + travelDate.getDayOfWeek() + ".");
+            }
+            int busId = schedule.getBusId();
+            if (!fareQuoteEngine.isBusActive(busId)) {
+                return rejected("Bus is not available for booking.");
+            }
+            if (seatNumber < 1 || seatNumber > fareQuoteEngine.getTotalSeats(busId)) {
+                return rejected("Invalid seat number!");
+            }
+
+            LocalDateTime travelDateTime = travelDate.atStartOfDay();
+            double fare = calculateFare(busId, schedule.getRouteId(), scheduleId, travelDateTime);
+            Booking booking = new Booking(userId, busId, scheduleId, seatNumber, passengerName.trim(),
+                                          passengerPhone.trim(), fare, travelDateTime);
+            return accepted("BookingService.requestBooking", bookingPipeline.submitBooking(booking));
+        } catch (RuntimeException e) {
+            metrics.recordError("BookingService.requestBooking");
+            throw e;
+        } finally {
+            metrics.record("BookingService.requestBooking", start);
         }
+    }
 
-        // Check if seat is available
-        if (!bookingDAO.isSeatAvailable(busId, seatNumber, travelDate)) {
-            System.out.println("Seat " + seatNumber + " is not available for the selected date!");
-            return false;
-        }
+    public CompletableFuture<BookingResult> requestBooking(Session session, int scheduleId, int seatNumber,
+                                                         String passengerName, String passengerPhone,
+                                                         LocalDate travelDate) {
+        return requestBooking(session.getUserId(), scheduleId, seatNumber, passengerName, passengerPhone, travelDate);
+    }
 
-        // Create booking
-        Booking booking = new Booking(userId, busId, scheduleId, seatNumber, passengerName, 
-                                    passengerPhone, fare, travelDate);
-        
-        boolean success = bookingDAO.createBooking(booking);
-        
-        if (success) {
-            // Update seat status
-            busDAO.updateSeatStatus(busId, seatNumber, "OCCUPIED", booking.getId());
-            System.out.println("Booking created successfully! Booking ID: " + booking.getId());
-        } else {
-            System.out.println("Failed to create booking.");
+    private static CompletableFuture<BookingResult> rejected(String message) {
+        return CompletableFuture.completedFuture(new BookingResult(BookingResult.Status.REJECTED, 0, message));
+    }
+
+    // Seat changes are published once applied; callers only wait until the request is recorded.
+    // A request that fails to apply still counts as an error of the operation that submitted it.
+    private CompletableFuture<BookingResult> accepted(String operation, BookingSubmission submission) {
+        seatChangeBus.publishOutcome(submission.getApplied()).thenAccept(result -> {
+            if (result.getStatus() == BookingResult.Status.ERROR) {
+                metrics.recordError(operation);
+            }
+        });
+        return submission.getAccepted();
+    }
+
+    public CompletableFuture<BookingResult> submitCancellation(int bookingId, int userId) {
+        long start = System.nanoTime();
+        try {
+            return accepted("BookingService.submitCancellation", bookingPipeline.submitCancellation(bookingId, userId));
+        } catch (RuntimeException e) {
+            metrics.recordError("BookingService.submitCancellation");
+            throw e;
+        } finally {
+            metrics.record("BookingService.submitCancellation", start);
         }
-        
-        return success;
     }
 
-    public List<Booking> getUserBookings(int userId) {
-        return bookingDAO.getBookingsByUserId(userId);
+    public CompletableFuture<BookingResult> submitCancellation(Session session, int bookingId) {
+        return submitCancellation(bookingId, session.getUserId());
     }
 
-    public List<Booking> getAllBookings() {
-        return bookingDAO.getAllBookings();
+    public List<Booking> getUserBookings(Session session) {
+        return getUserBookings(session.getUserId());
     }
 
-    public Booking getBookingById(int bookingId) {
-        return bookingDAO.getBookingById(bookingId);
+    public List<Booking> getUserBookings(int userId) {
+        long start = System.nanoTime();
+        try {
+            return bookingDAO.getBookingsByUserId(userId);
+        } catch (RuntimeException e) {
+            metrics.recordError("BookingService.getUserBookings");
+            throw e;
+        } finally {
+            metrics.record("BookingService.getUserBookings", start);
+        }
     }
 
-    public boolean cancelBooking(int bookingId, int userId) {
-        Booking booking = bookingDAO.getBookingById(bookingId);
-        if (booking == null) {
-            System.out.println("Booking not found!");
-            return false;
+    public List<Booking> getAllBookings() {
+        long start = System.nanoTime();
+        try {
+            return bookingDAO.getAllBookings();
+        } catch (RuntimeException e) {
+            metrics.recordError("BookingService.getAllBookings");
+            throw e;
+        } finally {
+            metrics.record("BookingService.getAllBookings", start);
         }
+    }
 
-        // Check if user owns this booking
-        if (booking.getUserId() != userId) {
-            System.out.println("You can only cancel your own bookings!");
-            return false;
+    public int countUserBookings(Session session) {
+        long start = System.nanoTime();
+        try {
+            return bookingDAO.countBookings(session.getUserId());
+        } catch (RuntimeException e) {
+            metrics.recordError("BookingService.countUserBookings");
+            throw e;
+        } finally {
+            metrics.record("BookingService.countUserBookings", start);
         }
+    }
 
-        // Check if booking can be cancelled (not already cancelled or completed)
-        if ("CANCELLED".equals(booking.getStatus())) {
-            System.out.println("Booking is already cancelled!");
-            return false;
+    public List<Booking> getUserBookingPage(Session session, BookingSort sort, boolean descending, int offset, int limit) {
+        long start = System.nanoTime();
+        try {
+            return bookingDAO.getBookingPage(session.getUserId(), sort, descending, offset, limit);
+        } catch (RuntimeException e) {
+            metrics.recordError("BookingService.getUserBookingPage");
+            throw e;
+        } finally {
+            metrics.record("BookingService.getUserBookingPage", start);
         }
+    }
 
-        if ("COMPLETED".equals(booking.getStatus())) {
-            System.out.println("Cannot cancel a completed booking!");
-            return false;
+    public int countAllBookings() {
+        long start = System.nanoTime();
+        try {
+            return bookingDAO.countBookings(null);
+        } catch (RuntimeException e) {
+            metrics.recordError("BookingService.countAllBookings");
+            throw e;
+        } finally {
+            metrics.record("BookingService.countAllBookings", start);
         }
+    }
 
-        // Cancel booking
-        boolean success = bookingDAO.cancelBooking(bookingId);
-        
-        if (success) {
-            // Update seat status back to available
-            busDAO.updateSeatStatus(booking.getBusId(), booking.getSeatNumber(), "AVAILABLE", -1);
-            System.out.println("Booking cancelled successfully!");
-        } else {
-            System.out.println("Failed to cancel booking.");
+    public List<Booking> getBookingPage(BookingSort sort, boolean descending, int offset, int limit) {
+        long start = System.nanoTime();
+        try {
+            return bookingDAO.getBookingPage(null, sort, descending, offset, limit);
+        } catch (RuntimeException e) {
+            metrics.recordError("BookingService.getBookingPage");
+            throw e;
+        } finally {
+            metrics.record("BookingService.getBookingPage", start);
         }
-        
-        return success;
     }
 
-    public boolean updateBooking(int bookingId, int userId, String passengerName, String passengerPhone) {
-        Booking booking = bookingDAO.getBookingById(bookingId);
-        if (booking == null) {
-            System.out.println("Booking not found!");
-            return false;
+    public Booking getBookingById(int bookingId) {
+        long start = System.nanoTime();
+        try {
+            return bookingDAO.getBookingById(bookingId);
+        } catch (RuntimeException e) {
+            metrics.recordError("BookingService.getBookingById");
+            throw e;
+        } finally {
+            metrics.record("BookingService.getBookingById", start);
         }
+    }
 
-        // Check if user owns this booking
-        if (booking.getUserId() != userId) {
-            System.out.println("You can only update your own bookings!");
-            return false;
+    public List<BookingEvent> getBookingHistory(int bookingId) {
+        long start = System.nanoTime();
+        try {
+            return bookingLedger.getHistory(bookingId);
+        } catch (RuntimeException e) {
+            metrics.recordError("BookingService.getBookingHistory");
+            throw e;
+        } finally {
+            metrics.record("BookingService.getBookingHistory", start);
         }
+    }
 
-        // Check if booking can be updated
-        if ("CANCELLED".equals(booking.getStatus())) {
-            System.out.println("Cannot update a cancelled booking!");
-            return false;
+    public List<Integer> getOccupiedSeats(int busId, LocalDateTime travelDate) {
+        long start = System.nanoTime();
+        try {
+            return bookingLedger.getOccupiedSeats(busId, travelDate);
+        } catch (RuntimeException e) {
+            metrics.recordError("BookingService.getOccupiedSeats");
+            throw e;
+        } finally {
+            metrics.record("BookingService.getOccupiedSeats", start);
         }
+    }
 
-        if ("COMPLETED".equals(booking.getStatus())) {
-            System.out.println("Cannot update a completed booking!");
-            return false;
+    public boolean cancelBooking(Session session, int bookingId) {
+        return cancelBooking(bookingId, session.getUserId());
+    }
+
+    public boolean cancelBooking(int bookingId, int userId) {
+        long start = System.nanoTime();
+        try {
+            // Ownership and status checks run on the writer thread against the row being cancelled
+            BookingResult result = accepted("BookingService.cancelBooking", bookingPipeline.submitCancellation(bookingId, userId)).join();
+            System.out.println(result.getMessage());
+            return result.isAccepted();
+        } catch (RuntimeException e) {
+            metrics.recordError("BookingService.cancelBooking");
+            throw e;
+        } finally {
+            metrics.record("BookingService.cancelBooking", start);
         }
+    }
 
-        // Update booking details
-        booking.setPassengerName(passengerName);
-        booking.setPassengerPhone(passengerPhone);
-        booking.setUpdatedAt(LocalDateTime.now());
-
-        boolean success = bookingDAO.updateBooking(booking);
-        
-        if (success) {
-            System.out.println("Booking updated successfully!");
-        } else {
-            System.out.println("Failed to update booking.");
+    public boolean updateBooking(int bookingId, int userId, String passengerName, String passengerPhone) {
+        long start = System.nanoTime();
+        try {
+            Booking booking = bookingDAO.getBookingById(bookingId);
+            if (booking == null) {
+                System.out.println("Booking not found!");
+                return false;
+            }
+
+            // Check if user owns this booking
+            if (booking.getUserId() != userId) {
+                System.out.println("You can only update your own bookings!");
+                return false;
+            }
+
+            // Check if booking can be updated
+            if ("CANCELLED".equals(booking.getStatus())) {
+                System.out.println("Cannot update a cancelled booking!");
+                return false;
+            }
+
+            if ("COMPLETED".equals(booking.getStatus())) {
+                System.out.println("Cannot update a completed booking!");
+                return false;
+            }
+
+            // Update booking details
+            booking.setPassengerName(passengerName);
+            booking.setPassengerPhone(passengerPhone);
+            booking.setUpdatedAt(LocalDateTime.now());
+
+            boolean success = bookingDAO.updateBooking(booking);
+            
+            if (success) {
+                System.out.println("Booking updated successfully!");
+            } else {
+                metrics.recordError("BookingService.updateBooking");
+                System.out.println("Failed to update booking.");
+            }
+            
+            return success;
+        } catch (RuntimeException e) {
+            metrics.recordError("BookingService.updateBooking");
+            throw e;
+        } finally {
+            metrics.record("BookingService.updateBooking", start);
         }
-        
-        return success;
     }
 
     public void displayBookingDetails(Booking booking) {
-        if (booking == null) {
-            System.out.println("Booking not found!");
-            return;
-        }
+        long start = System.nanoTime();
+        try {
+            if (booking == null) {
+                System.out.println("Booking not found!");
+                return;
+            }
 
-        Bus bus = busDAO.getBusById(booking.getBusId());
-        User user = userDAO.getUserById(booking.getUserId());
-
-        System.out.println("\n=== Booking Details ===");
-        System.out.println("Booking ID: " + booking.getId());
-        System.out.println("Passenger: " + booking.getPassengerName());
-        System.out.println("Phone: " + booking.getPassengerPhone());
-        System.out.println("Bus: " + (bus != null ? bus.getBusName() + " (" + bus.getBusNumber() + ")" : "N/A"));
-        System.out.println("Seat Number: " + booking.getSeatNumber());
-        System.out.println("Fare: $" + String.format("%.2f", booking.getFare()));
-        System.out.println("Status: " + booking.getStatus());
-        System.out.println("Booking Date: " + booking.getBookingDate());
-        System.out.println("Travel Date: " + booking.getTravelDate());
-        System.out.println("======================\n");
+            Bus bus = busDAO.getBusById(booking.getBusId());
+            User user = userDAO.getUserById(booking.getUserId());
+
+            System.out.println("\n=== Booking Details ===");
+            System.out.println("Booking ID: " + booking.getId());
+            System.out.println("Passenger: " + booking.getPassengerName());
+            System.out.println("Phone: " + booking.getPassengerPhone());
+            System.out.println("Bus: " + (bus != null ? bus.getBusName() + " (" + bus.getBusNumber() + ")" : "N/A"));
+            System.out.println("Seat Number: " + booking.getSeatNumber());
+            System.out.println("Fare: $" + String.format("%.2f", booking.getFare()));
+            System.out.println("Status: " + booking.getStatus());
+            System.out.println("Booking Date: " + booking.getBookingDate());
+            System.out.println("Travel Date: " + booking.getTravelDate());
+            System.out.println("======================\n");
+        } catch (RuntimeException e) {
+            metrics.recordError("BookingService.displayBookingDetails");
+            throw e;
+        } finally {
+            metrics.record("BookingService.displayBookingDetails", start);
+        }
     }
 
     public void displayUserBookings(int userId) {
-        List<Booking> bookings = getUserBookings(userId);
-        
-        if (bookings.isEmpty()) {
-            System.out.println("No bookings found for this user.");
-            return;
+        try (ReportWriter out = ReportWriter.console()) {
+            displayUserBookings(userId, out);
         }
+    }
 
-        System.out.println("\n=== Your Bookings ===");
-        System.out.printf("%-5s %-20s %-15s %-8s %-10s %-15s %-12s%n", 
-                         "ID", "Passenger", "Bus", "Seat", "Fare", "Status", "Travel Date");
-        System.out.println("=" + "=".repeat(100));
-
-        for (Booking booking : bookings) {
-            Bus bus = busDAO.getBusById(booking.getBusId());
-            String busName = bus != null ? bus.getBusName() : "N/A";
+    public void displayUserBookings(int userId, ReportWriter out) {
+        long start = System.nanoTime();
+        try {
+            List<Booking> bookings = getUserBookings(userId);
             
-            System.out.printf("%-5d %-20s %-15s %-8d $%-9.2f %-15s %-12s%n",
-                             booking.getId(),
-                             booking.getPassengerName(),
-                             busName,
-                             booking.getSeatNumber(),
-                             booking.getFare(),
-                             booking.getStatus(),
-                             booking.getTravelDate().toLocalDate().toString());
+            if (bookings.isEmpty()) {
+                out.println("No bookings found for this user.");
+                return;
+            }
+
+            out.println();
+            out.println("=== Your Bookings ===");
+            renderBookings(bookings, false, out);
+            out.println();
+        } catch (RuntimeException e) {
+            metrics.recordError("BookingService.displayUserBookings");
+            throw e;
+        } finally {
+            metrics.record("BookingService.displayUserBookings", start);
         }
-        System.out.println("=" + "=".repeat(100) + "\n");
     }
 
     public void displayAllBookings() {
-        List<Booking> bookings = getAllBookings();
-        
-        if (bookings.isEmpty()) {
-            System.out.println("No bookings found.");
-            return;
+        try (ReportWriter out = ReportWriter.console()) {
+            displayAllBookings(out);
+        }
+    }
+
+    // Also used to export the full booking list to a file
+    public void displayAllBookings(ReportWriter out) {
+        long start = System.nanoTime();
+        try {
+            List<Booking> bookings = getAllBookings();
+            
+            if (bookings.isEmpty()) {
+                out.println("No bookings found.");
+                return;
+            }
+
+            out.println();
+            out.println("=== All Bookings ===");
+            renderBookings(bookings, true, out);
+            out.println();
+        } catch (RuntimeException e) {
+            metrics.recordError("BookingService.displayAllBookings");
+            throw e;
+        } finally {
+            metrics.record("BookingService.displayAllBookings", start);
+        }
+    }
+
+    private void renderBookings(List<Booking> bookings, boolean withUser, ReportWriter out) {
+        // Bus names come from one query, not one lookup per booking
+        Map<Integer, String> busNames = new HashMap<>();
+        for (Bus bus : busDAO.getAllBusesWithoutSeats()) {
+            busNames.put(bus.getId(), bus.getBusName());
         }
 
-        System.out.println("\n=== All Bookings ===");
-        System.out.printf("%-5s %-10s %-20s %-15s %-8s %-10s %-15s %-12s%n", 
-                         "ID", "User ID", "Passenger", "Bus", "Seat", "Fare", "Status", "Travel Date");
-        System.out.println("=" + "=".repeat(120));
+        ReportTable table = withUser
+            ? new ReportTable("ID", "User ID", "Passenger", "Bus", "Seat", "Fare", "Status", "Travel Date")
+            : new ReportTable("ID", "Passenger", "Bus", "Seat", "Fare", "Status", "Travel Date");
+        // Numbers line up on the right: ID, User ID, Seat and Fare
+        int offset = withUser ? 1 : 0;
+        table.align(0, ReportTable.Align.RIGHT)
+             .align(offset, ReportTable.Align.RIGHT)
+             .align(3 + offset, ReportTable.Align.RIGHT)
+             .align(4 + offset, ReportTable.Align.RIGHT);
 
         for (Booking booking : bookings) {
-            Bus bus = busDAO.getBusById(booking.getBusId());
-            String busName = bus != null ? bus.getBusName() : "N/A";
-            
-            System.out.printf("%-5d %-10d %-20s %-15s %-8d $%-9.2f %-15s %-12s%n",
-                             booking.getId(),
-                             booking.getUserId(),
-                             booking.getPassengerName(),
-                             busName,
-                             booking.getSeatNumber(),
-                             booking.getFare(),
-                             booking.getStatus(),
-                             booking.getTravelDate().toLocalDate().toString());
+            String busName = busNames.getOrDefault(booking.getBusId(), "N/A");
+            String fare = ReportTable.money(booking.getFare());
+            String travelDate = booking.getTravelDate().toLocalDate().toString();
+            if (withUser) {
+                table.addRow(booking.getId(), booking.getUserId(), booking.getPassengerName(), busName,
+                             booking.getSeatNumber(), fare, booking.getStatus(), travelDate);
+            } else {
+                table.addRow(booking.getId(), booking.getPassengerName(), busName,
+                             booking.getSeatNumber(), fare, booking.getStatus(), travelDate);
+            }
         }
-        System.out.println("=" + "=".repeat(120) + "\n");
+        table.render(out);
     }
 
     public double calculateFare(int busId, int routeId, String busType) {
-        Bus bus = busDAO.getBusById(busId);
-        if (bus == null) {
-            return 0.0;
+        long start = System.nanoTime();
+        try {
+            // Bus type and route multiplier come from the engine's cached fare matrix
+            return fareQuoteEngine.quote(busId, routeId);
+        } catch (RuntimeException e) {
+            metrics.recordError("BookingService.calculateFare");
+            throw e;
+        } finally {
+            metrics.record("BookingService.calculateFare", start);
         }
+    }
 
-        double baseFare = bus.getBaseFare();
-        
-        // Apply bus type multiplier
-        double typeMultiplier = 1.0;
-        switch (busType.toUpperCase()) {
-            case "LUXURY":
-                typeMultiplier = 1.5;
-                break;
-            case "STANDARD":
-                typeMultiplier = 1.0;
-                break;
-            case "ECONOMY":
-                typeMultiplier = 0.8;
-                break;
+    public double calculateFare(int busId, int routeId, int scheduleId, LocalDateTime travelDate) {
+        long start = System.nanoTime();
+        try {
+            // Occupancy-based surcharge from in-memory load factors, no aggregate query per quote
+            return fareQuoteEngine.quote(busId, routeId) * dynamicPricingService.getPriceMultiplier(busId, scheduleId, travelDate);
+        } catch (RuntimeException e) {
+            metrics.recordError("BookingService.calculateFare");
+            throw e;
+        } finally {
+            metrics.record("BookingService.calculateFare", start);
         }
-
-        // Apply route multiplier (assuming route has fare multiplier)
-        double routeMultiplier = 1.0; // This would come from route data
-        
-        return baseFare * typeMultiplier * routeMultiplier;
     }
-}
\ No newline at end of file
+}
@@ -2,261 +2,387 @@ package com.busreservation.service;
 
 import com.busreservation.dao.BusDAO;
 import com.busreservation.dao.BookingDAO;
+import com.busreservation.metrics.MetricsRegistry;
+import com.busreservation.model.BookingResult;
+import com.busreservation.model.BookingSubmission;
 import com.busreservation.model.Bus;
 import com.busreservation.model.Seat;
+import com.busreservation.report.ReportWriter;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 public class BusService {
     private BusDAO busDAO;
     private BookingDAO bookingDAO;
+    private BookingPipeline bookingPipeline;
+    private SeatChangeBus seatChangeBus;
+    private MetricsRegistry metrics;
 
     public BusService() {
         this.busDAO = new BusDAO();
         this.bookingDAO = new BookingDAO();
+        this.bookingPipeline = BookingPipeline.getInstance();
+        this.seatChangeBus = SeatChangeBus.getInstance();
+        this.metrics = MetricsRegistry.getInstance();
     }
 
     public boolean addBus(String busNumber, String busName, String busType, int totalSeats, double baseFare) {
-        if (busNumber == null || busNumber.trim().isEmpty() || 
-            busName == null || busName.trim().isEmpty() ||
-            busType == null || busType.trim().isEmpty() ||
-            totalSeats <= 0 || baseFare <= 0) {
-            return false;
-        }
+        long start = System.nanoTime();
+        try {
+            if (busNumber == null || busNumber.trim().isEmpty() || 
+                busName == null || busName.trim().isEmpty() ||
+                busType == null || busType.trim().isEmpty() ||
+                totalSeats <= 0 || baseFare <= 0) {
+                return false;
+            }
 
-        Bus bus = new Bus(busNumber, busName, busType, totalSeats, baseFare);
-        boolean success = busDAO.createBus(bus);
-        
-        if (success) {
-            System.out.println("Bus added successfully!");
-        } else {
-            System.out.println("Failed to add bus. Bus number might already exist.");
+            Bus bus = new Bus(busNumber, busName, busType, totalSeats, baseFare);
+            boolean success = busDAO.createBus(bus);
+            
+            if (success) {
+                System.out.println("Bus added successfully!");
+            } else {
+                metrics.recordError("BusService.addBus");
+                System.out.println("Failed to add bus. Bus number might already exist.");
+            }
+            
+            return success;
+        } catch (RuntimeException e) {
+            metrics.recordError("BusService.addBus");
+            throw e;
+        } finally {
+            metrics.record("BusService.addBus", start);
         }
-        
-        return success;
     }
 
     public boolean updateBus(int busId, String busNumber, String busName, String busType, int totalSeats, double baseFare, String status) {
-        Bus bus = busDAO.getBusById(busId);
-        if (bus == null) {
-            System.out.println("Bus not found!");
-            return false;
-        }
+        long start = System.nanoTime();
+        try {
+            Bus bus = busDAO.getBusById(busId);
+            if (bus == null) {
+                System.out.println("Bus not found!");
+                return false;
+            }
 
-        bus.setBusNumber(busNumber);
-        bus.setBusName(busName);
-        bus.setBusType(busType);
-        bus.setTotalSeats(totalSeats);
-        bus.setBaseFare(baseFare);
-        bus.setStatus(status);
-
-        boolean success = busDAO.updateBus(bus);
-        
-        if (success) {
-            System.out.println("Bus updated successfully!");
-        } else {
-            System.out.println("Failed to update bus.");
+            bus.setBusNumber(busNumber);
+            bus.setBusName(busName);
+            bus.setBusType(busType);
+            bus.setTotalSeats(totalSeats);
+            bus.setBaseFare(baseFare);
+            bus.setStatus(status);
+
+            boolean success = busDAO.updateBus(bus);
+            
+            if (success) {
+                System.out.println("Bus updated successfully!");
+            } else {
+                metrics.recordError("BusService.updateBus");
+                System.out.println("Failed to update bus.");
+            }
+            
+            return success;
+        } catch (RuntimeException e) {
+            metrics.recordError("BusService.updateBus");
+            throw e;
+        } finally {
+            metrics.record("BusService.updateBus", start);
         }
-        
-        return success;
     }
 
     public boolean deleteBus(int busId) {
-        Bus bus = busDAO.getBusById(busId);
-        if (bus == null) {
-            System.out.println("Bus not found!");
-            return false;
-        }
+        long start = System.nanoTime();
+        try {
+            Bus bus = busDAO.getBusById(busId);
+            if (bus == null) {
+                System.out.println("Bus not found!");
+                return false;
+            }
 
-        // Check if there are any active bookings for this bus
-        List<com.busreservation.model.Booking> bookings = bookingDAO.getBookingsByBusId(busId);
-        boolean hasActiveBookings = bookings.stream()
-                .anyMatch(booking -> "CONFIRMED".equals(booking.getStatus()));
+            // Check if there are any active bookings for this bus
+            List<com.busreservation.model.Booking> bookings = bookingDAO.getBookingsByBusId(busId);
+            boolean hasActiveBookings = bookings.stream()
+                    .anyMatch(booking -> "CONFIRMED".equals(booking.getStatus()));
 
-        if (hasActiveBookings) {
-            System.out.println("Cannot delete bus with active bookings!");
-            return false;
-        }
+            if (hasActiveBookings) {
+                System.out.println("Cannot delete bus with active bookings!");
+                return false;
+            }
 
-        boolean success = busDAO.deleteBus(busId);
-        
-        if (success) {
-            System.out.println("Bus deleted successfully!");
-        } else {
-            System.out.println("Failed to delete bus.");
+            boolean success = busDAO.deleteBus(busId);
+            
+            if (success) {
+                System.out.println("Bus deleted successfully!");
+            } else {
+                metrics.recordError("BusService.deleteBus");
+                System.out.println("Failed to delete bus.");
+            }
+            
+            return success;
+        } catch (RuntimeException e) {
+            metrics.recordError("BusService.deleteBus");
+            throw e;
+        } finally {
+            metrics.record("BusService.deleteBus", start);
         }
-        
-        return success;
     }
 
     public List<Bus> getAllBuses() {
-        return busDAO.getAllBuses();
+        long start = System.nanoTime();
+        try {
+            return busDAO.getAllBuses();
+        } catch (RuntimeException e) {
+            metrics.recordError("BusService.getAllBuses");
+            throw e;
+        } finally {
+            metrics.record("BusService.getAllBuses", start);
+        }
     }
 
     public List<Bus> getActiveBuses() {
-        return busDAO.getActiveBuses();
+        long start = System.nanoTime();
+        try {
+            return busDAO.getActiveBuses();
+        } catch (RuntimeException e) {
+            metrics.recordError("BusService.getActiveBuses");
+            throw e;
+        } finally {
+            metrics.record("BusService.getActiveBuses", start);
+        }
+    }
+
+    // Bus id -> name for every bus, read once without seats, for labelling booking lists
+    public Map<Integer, String> getBusNames() {
+        long start = System.nanoTime();
+        try {
+            Map<Integer, String> names = new HashMap<>();
+            for (Bus bus : busDAO.getAllBusesWithoutSeats()) {
+                names.put(bus.getId(), bus.getBusName());
+            }
+            return names;
+        } catch (RuntimeException e) {
+            metrics.recordError("BusService.getBusNames");
+            throw e;
+        } finally {
+            metrics.record("BusService.getBusNames", start);
+        }
     }
 
     public Bus getBusById(int busId) {
-        return busDAO.getBusById(busId);
+        long start = System.nanoTime();
+        try {
+            return busDAO.getBusById(busId);
+        } catch (RuntimeException e) {
+            metrics.recordError("BusService.getBusById");
+            throw e;
+        } finally {
+            metrics.record("BusService.getBusById", start);
+        }
     }
 
     public List<Seat> getAvailableSeats(int busId) {
-        Bus bus = busDAO.getBusById(busId);
-        if (bus == null) {
-            return List.of();
-        }
+        long start = System.nanoTime();
+        try {
+            Bus bus = busDAO.getBusById(busId);
+            if (bus == null) {
+                return List.of();
+            }
 
-        return bus.getSeats().stream()
-                .filter(seat -> "AVAILABLE".equals(seat.getStatus()))
-                .collect(Collectors.toList());
+            return bus.getSeats().stream()
+                    .filter(seat -> "AVAILABLE".equals(seat.getStatus()))
+                    .collect(Collectors.toList());
+        } catch (RuntimeException e) {
+            metrics.recordError("BusService.getAvailableSeats");
+            throw e;
+        } finally {
+            metrics.record("BusService.getAvailableSeats", start);
+        }
     }
 
     public List<Seat> getOccupiedSeats(int busId) {
-        Bus bus = busDAO.getBusById(busId);
-        if (bus == null) {
-            return List.of();
-        }
+        long start = System.nanoTime();
+        try {
+            Bus bus = busDAO.getBusById(busId);
+            if (bus == null) {
+                return List.of();
+            }
 
-        return bus.getSeats().stream()
-                .filter(seat -> "OCCUPIED".equals(seat.getStatus()) || "RESERVED".equals(seat.getStatus()))
-                .collect(Collectors.toList());
+            return bus.getSeats().stream()
+                    .filter(seat -> "OCCUPIED".equals(seat.getStatus()) || "RESERVED".equals(seat.getStatus()))
+                    .collect(Collectors.toList());
+        } catch (RuntimeException e) {
+            metrics.recordError("BusService.getOccupiedSeats");
+            throw e;
+        } finally {
+            metrics.record("BusService.getOccupiedSeats", start);
+        }
     }
 
     public boolean bookSeat(int busId, int seatNumber, int userId, String passengerName, String passengerPhone, double fare, LocalDateTime travelDate) {
-        Bus bus = busDAO.getBusById(busId);
-        if (bus == null) {
-            System.out.println("Bus not found!");
-            return false;
-        }
-
-        // Check if seat exists and is available
-        Seat seat = bus.getSeats().stream()
-                .filter(s -> s.getSeatNumber() == seatNumber)
-                .findFirst()
-                .orElse(null);
+        long start = System.nanoTime();
+        try {
+            Bus bus = busDAO.getBusById(busId);
+            if (bus == null) {
+                System.out.println("Bus not found!");
+                return false;
+            }
 
-        if (seat == null) {
-            System.out.println("Seat number " + seatNumber + " does not exist!");
-            return false;
-        }
+            // Check if seat exists and is available
+            Seat seat = bus.getSeats().stream()
+                    .filter(s -> s.getSeatNumber() == seatNumber)
+                    .findFirst()
+                    .orElse(null);
 
-        if (!"AVAILABLE".equals(seat.getStatus())) {
-            System.out.println("Seat number " + seatNumber + " is not available!");
-            return false;
-        }
+            if (seat == null) {
+                System.out.println("Seat number " + seatNumber + " does not exist!");
+                return false;
+            }
 
-        // Check if seat is available for the travel date
-        if (!bookingDAO.isSeatAvailable(busId, seatNumber, travelDate)) {
-            System.out.println("Seat number " + seatNumber + " is already booked for this date!");
-            return false;
-        }
+            if (!"AVAILABLE".equals(seat.getStatus())) {
+                System.out.println("Seat number " + seatNumber + " is not available!");
+                return false;
+            }
 
-        // Create booking
-        com.busreservation.model.Booking booking = new com.busreservation.model.Booking(
-                userId, busId, 1, seatNumber, passengerName, passengerPhone, fare, travelDate);
+            // The date-specific availability check happens in the pipeline's transaction
+            com.busreservation.model.Booking booking = new com.busreservation.model.Booking(
+                    userId, busId, 1, seatNumber, passengerName, passengerPhone, fare, travelDate);
 
-        boolean bookingSuccess = bookingDAO.createBooking(booking);
-        
-        if (bookingSuccess) {
-            // Update seat status
-            boolean seatUpdateSuccess = busDAO.updateSeatStatus(busId, seatNumber, "OCCUPIED", booking.getId());
-            
-            if (seatUpdateSuccess) {
+            BookingResult result = accepted("BusService.bookSeat", bookingPipeline.submitBooking(booking)).join();
+            if (result.isSuccess()) {
                 System.out.println("Seat " + seatNumber + " booked successfully!");
-                return true;
             } else {
-                // Rollback booking if seat update fails
-                bookingDAO.deleteBooking(booking.getId());
-                System.out.println("Failed to update seat status. Booking cancelled.");
+                System.out.println(result.getMessage());
             }
-        } else {
-            System.out.println("Failed to create booking.");
+            return result.isAccepted();
+        } catch (RuntimeException e) {
+            metrics.recordError("BusService.bookSeat");
+            throw e;
+        } finally {
+            metrics.record("BusService.bookSeat", start);
         }
-        
-        return false;
     }
 
     public boolean cancelSeat(int busId, int seatNumber, int bookingId) {
-        Bus bus = busDAO.getBusById(busId);
-        if (bus == null) {
-            System.out.println("Bus not found!");
-            return false;
-        }
+        long start = System.nanoTime();
+        try {
+            Bus bus = busDAO.getBusById(busId);
+            if (bus == null) {
+                System.out.println("Bus not found!");
+                return false;
+            }
 
-        // Cancel booking
-        boolean cancelSuccess = bookingDAO.cancelBooking(bookingId);
-        
-        if (cancelSuccess) {
-            // Update seat status back to available
-            boolean seatUpdateSuccess = busDAO.updateSeatStatus(busId, seatNumber, "AVAILABLE", -1);
-            
-            if (seatUpdateSuccess) {
+            com.busreservation.model.Booking booking = bookingDAO.getBookingById(bookingId);
+            if (booking == null || booking.getBusId() != busId || booking.getSeatNumber() != seatNumber) {
+                System.out.println("Booking not found for seat " + seatNumber + "!");
+                return false;
+            }
+
+            BookingResult result = accepted("BusService.cancelSeat",
+                    bookingPipeline.submitCancellation(bookingId, booking.getUserId())).join();
+            if (result.isSuccess()) {
                 System.out.println("Seat " + seatNumber + " cancelled successfully!");
-                return true;
             } else {
-                System.out.println("Failed to update seat status after cancellation.");
+                System.out.println(result.getMessage());
             }
-        } else {
-            System.out.println("Failed to cancel booking.");
+            return result.isAccepted();
+        } catch (RuntimeException e) {
+            metrics.recordError("BusService.cancelSeat");
+            throw e;
+        } finally {
+            metrics.record("BusService.cancelSeat", start);
         }
-        
-        return false;
+    }
+
+    // Callers wait until the request is recorded; a request that fails to apply still counts as an error
+    private CompletableFuture<BookingResult> accepted(String operation, BookingSubmission submission) {
+        seatChangeBus.publishOutcome(submission.getApplied()).thenAccept(result -> {
+            if (result.getStatus() == BookingResult.Status.ERROR) {
+                metrics.recordError(operation);
+            }
+        });
+        return submission.getAccepted();
     }
 
     public void displayBusDetails(Bus bus) {
-        if (bus == null) {
-            System.out.println("Bus not found!");
-            return;
-        }
+        long start = System.nanoTime();
+        try {
+            if (bus == null) {
+                System.out.println("Bus not found!");
+                return;
+            }
 
-        System.out.println("\n=== Bus Details ===");
-        System.out.println("ID: " + bus.getId());
-        System.out.println("Bus Number: " + bus.getBusNumber());
-        System.out.println("Bus Name: " + bus.getBusName());
-        System.out.println("Bus Type: " + bus.getBusType());
-        System.out.println("Total Seats: " + bus.getTotalSeats());
-        System.out.println("Available Seats: " + bus.getAvailableSeats());
-        System.out.println("Base Fare: $" + String.format("%.2f", bus.getBaseFare()));
-        System.out.println("Status: " + bus.getStatus());
-        System.out.println("==================\n");
+            System.out.println("\n=== Bus Details ===");
+            System.out.println("ID: " + bus.getId());
+            System.out.println("Bus Number: " + bus.getBusNumber());
+            System.out.println("Bus Name: " + bus.getBusName());
+            System.out.println("Bus Type: " + bus.getBusType());
+            System.out.println("Total Seats: " + bus.getTotalSeats());
+            System.out.println("Available Seats: " + bus.getAvailableSeats());
+            System.out.println("Base Fare: $" + String.format("%.2f", bus.getBaseFare()));
+            System.out.println("Status: " + bus.getStatus());
+            System.out.println("==================\n");
+        } catch (RuntimeException e) {
+            metrics.recordError("BusService.displayBusDetails");
+            throw e;
+        } finally {
+            metrics.record("BusService.displayBusDetails", start);
+        }
     }
 
     public void displaySeatLayout(Bus bus) {
-        if (bus == null) {
-            System.out.println("Bus not found!");
-            return;
+        try (ReportWriter out = ReportWriter.console()) {
+            displaySeatLayout(bus, out);
         }
+    }
+
+    public void displaySeatLayout(Bus bus, ReportWriter out) {
+        long start = System.nanoTime();
+        try {
+            if (bus == null) {
+                out.println("Bus not found!");
+                return;
+            }
 
-        System.out.println("\n=== Seat Layout for " + bus.getBusName() + " ===");
-        System.out.println("Legend: [A] = Available, [X] = Occupied, [R] = Reserved");
-        System.out.println("================================================");
-
-        List<Seat> seats = bus.getSeats();
-        int seatsPerRow = 4; // Assuming 4 seats per row
-        int totalRows = (int) Math.ceil((double) seats.size() / seatsPerRow);
-
-        for (int row = 0; row < totalRows; row++) {
-            System.out.print("Row " + String.format("%2d", row + 1) + ": ");
-            for (int col = 0; col < seatsPerRow; col++) {
-                int seatIndex = row * seatsPerRow + col;
-                if (seatIndex < seats.size()) {
-                    Seat seat = seats.get(seatIndex);
-                    String status = "A";
-                    if ("OCCUPIED".equals(seat.getStatus())) {
-                        status = "X";
-                    } else if ("RESERVED".equals(seat.getStatus())) {
-                        status = "R";
+            out.println();
+            out.println("=== Seat Layout for " + bus.getBusName() + " ===");
+            out.println("Legend: [A] = Available, [X] = Occupied, [R] = Reserved");
+            out.println("================================================");
+
+            List<Seat> seats = bus.getSeats();
+            int seatsPerRow = 4; // Assuming 4 seats per row
+            int totalRows = (int) Math.ceil((double) seats.size() / seatsPerRow);
+
+            for (int row = 0; row < totalRows; row++) {
+                StringBuilder line = out.line();
+                line.append("Row ").append(row + 1 < 10 ? " " : "").append(row + 1).append(": ");
+                for (int col = 0; col < seatsPerRow; col++) {
+                    int seatIndex = row * seatsPerRow + col;
+                    if (seatIndex < seats.size()) {
+                        Seat seat = seats.get(seatIndex);
+                        char status = 'A';
+                        if ("OCCUPIED".equals(seat.getStatus())) {
+                            status = 'X';
+                        } else if ("RESERVED".equals(seat.getStatus())) {
+                            status = 'R';
+                        }
+                        line.append('[').append(status).append("] ");
+                    } else {
+                        line.append("     ");
                     }
-                    System.out.print("[" + status + "] ");
-                } else {
-                    System.out.print("     ");
                 }
+                out.endLine();
             }
-            System.out.println();
+            out.println("================================================");
+            out.println();
+        } catch (RuntimeException e) {
+            metrics.recordError("BusService.displaySeatLayout");
+            throw e;
+        } finally {
+            metrics.record("BusService.displaySeatLayout", start);
         }
-        System.out.println("================================================\n");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,213 @@
+package com.busreservation.service;
+
+import com.busreservation.dao.RouteDAO;
+import com.busreservation.database.DataChangeListener;
+import com.busreservation.database.DatabaseManager;
+import com.busreservation.model.Route;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+public class CityAutocompleteService implements DataChangeListener {
+    private static CityAutocompleteService instance;
+    // Ranking: most routes first, then alphabetical
+    private static final Comparator<CityEntry> RANKING = Comparator.comparingInt((CityEntry entry) -> entry.routeCount)
+            .reversed()
+            .thenComparing(entry -> entry.displayName);
+
+    private RouteDAO routeDAO;
+    private final int maxSuggestions;
+
+    // normalized city name -> entry, ordered so a prefix maps to one contiguous range
+    private final ConcurrentSkipListMap<String, CityEntry> cities = new ConcurrentSkipListMap<>();
+    // normalized prefix -> its best maxSuggestions cities, ranked; built when the index changes so that a
+    // keystroke is a single lookup however many cities share the prefix
+    private final Map<String, List<String>> topByPrefix = new ConcurrentHashMap<>();
+    // route id -> {source, destination} as last indexed, needed to undo a route on update/delete
+    private final Map<Integer, String[]> indexedRoutes = new HashMap<>();
+    private volatile boolean loaded;
+
+    private CityAutocompleteService() {
+        this.routeDAO = new RouteDAO();
+        this.maxSuggestions = Math.max(1, Integer.getInteger("autocomplete.maxSuggestions", 10));
+        DatabaseManager.getInstance().addChangeListener(this);
+    }
+
+    public static synchronized CityAutocompleteService getInstance() {
+        if (instance == null) {
+            instance = new CityAutocompleteService();
+        }
+        return instance;
+    }
+
+    // At most -Dautocomplete.maxSuggestions (default 10) suggestions are kept per prefix
+    public List<String> suggest(String prefix, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        ensureLoaded();
+        List<String> top = topByPrefix.getOrDefault(RouteSearchService.normalizeCity(prefix), List.of());
+        return top.size() <= limit ? top : top.subList(0, limit);
+    }
+
+    public boolean isKnownCity(String city) {
+        ensureLoaded();
+        return cities.containsKey(RouteSearchService.normalizeCity(city));
+    }
+
+    @Override
+    public void onDataChanged(String table, ChangeType type, int id) {
+        if (!"routes".equals(table) || !loaded) {
+            return;
+        }
+
+        synchronized (this) {
+            List<String> changed = new ArrayList<>();
+            String[] endpoints = removeRoute(id);
+            if (endpoints != null) {
+                changed.addAll(List.of(endpoints));
+            }
+            if (type != ChangeType.DELETE) {
+                Route route = routeDAO.getRouteById(id);
+                if (route != null) {
+                    addRoute(route);
+                    changed.add(route.getSource());
+                    changed.add(route.getDestination());
+                }
+            }
+            for (String city : changed) {
+                refreshPrefixes(RouteSearchService.normalizeCity(city));
+            }
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                for (Route route : routeDAO.getAllRoutes()) {
+                    addRoute(route);
+                }
+                buildPrefixes();
+                loaded = true;
+            }
+        }
+    }
+
+    private void addRoute(Route route) {
+        indexedRoutes.put(route.getId(), new String[] {route.getSource(), route.getDestination()});
+        addCity(route.getSource());
+        addCity(route.getDestination());
+    }
+
+    // Returns the endpoints that were indexed for the route, or null
+    private String[] removeRoute(int routeId) {
+        String[] endpoints = indexedRoutes.remove(routeId);
+        if (endpoints != null) {
+            removeCity(endpoints[0]);
+            removeCity(endpoints[1]);
+        }
+        return endpoints;
+    }
+
+    // One pass over the cities, offering each to the bounded list of every prefix of its name
+    private void buildPrefixes() {
+        Map<String, List<CityEntry>> ranked = new HashMap<>();
+        for (Map.Entry<String, CityEntry> city : cities.entrySet()) {
+            String key = city.getKey();
+            for (int length = 0; length <= key.length(); length++) {
+                List<CityEntry> top = ranked.computeIfAbsent(key.substring(0, length), p -> new ArrayList<>());
+                int position = Collections.binarySearch(top, city.getValue(), RANKING);
+                position = position < 0 ? -position - 1 : position;
+                if (position < maxSuggestions) {
+                    top.add(position, city.getValue());
+                    if (top.size() > maxSuggestions) {
+                        top.remove(top.size() - 1);
+                    }
+                }
+            }
+        }
+        topByPrefix.clear();
+        for (Map.Entry<String, List<CityEntry>> prefix : ranked.entrySet()) {
+            topByPrefix.put(prefix.getKey(), displayNames(prefix.getValue()));
+        }
+    }
+
+    // Recomputes the lists of every prefix of one changed city from its range; routes change rarely
+    private void refreshPrefixes(String key) {
+        for (int length = 0; length <= key.length(); length++) {
+            String prefix = key.substring(0, length);
+            NavigableMap<String, CityEntry> range = prefix.isEmpty()
+                    ? cities
+                    : cities.subMap(prefix, true, prefix + Character.MAX_VALUE, true);
+
+            // Max-heap on the weakest entry, so the best maxSuggestions remain
+            PriorityQueue<CityEntry> top = new PriorityQueue<>(maxSuggestions + 1, RANKING.reversed());
+            for (CityEntry entry : range.values()) {
+                top.offer(entry);
+                if (top.size() > maxSuggestions) {
+                    top.poll();
+                }
+            }
+            if (top.isEmpty()) {
+                topByPrefix.remove(prefix);
+            } else {
+                List<CityEntry> ranked = new ArrayList<>(top);
+                ranked.sort(RANKING);
+                topByPrefix.put(prefix, displayNames(ranked));
+            }
+        }
+    }
+
+    private static List<String> displayNames(List<CityEntry> entries) {
+        List<String> names = new ArrayList<>(entries.size());
+        for (CityEntry entry : entries) {
+            names.add(entry.displayName);
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    private void addCity(String city) {
+        String key = RouteSearchService.normalizeCity(city);
+        if (key.isEmpty()) {
+            return;
+        }
+        CityEntry entry = cities.get(key);
+        int count = entry != null ? entry.routeCount + 1 : 1;
+        String displayName = entry != null ? entry.displayName : city.trim();
+        cities.put(key, new CityEntry(displayName, count));
+    }
+
+    private void removeCity(String city) {
+        String key = RouteSearchService.normalizeCity(city);
+        CityEntry entry = cities.get(key);
+        if (entry == null) {
+            return;
+        }
+        if (entry.routeCount <= 1) {
+            cities.remove(key);
+        } else {
+            cities.put(key, new CityEntry(entry.displayName, entry.routeCount - 1));
+        }
+    }
+
+    private static final class CityEntry {
+        private final String displayName;
+        private final int routeCount;
+
+        CityEntry(String displayName, int routeCount) {
+            this.displayName = displayName;
+            this.routeCount = routeCount;
+        }
+    }
+}
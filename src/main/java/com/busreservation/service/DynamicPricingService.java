@@ -0,0 +1,131 @@
+package com.busreservation.service;
+
+import com.busreservation.dao.BookingDAO;
+import com.busreservation.model.TripOccupancy;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DynamicPricingService {
+    // Load factor thresholds (ascending) and the fare multiplier applied from each threshold up
+    private static final String DEFAULT_PRICE_BANDS = "0.0:1.0,0.5:1.1,0.75:1.25,0.9:1.5";
+    private static DynamicPricingService instance;
+
+    private BookingDAO bookingDAO;
+    private FareQuoteEngine fareQuoteEngine;
+    private final double[] bandThresholds;
+    private final double[] bandMultipliers;
+
+    // "busId:scheduleId:travelDate" -> confirmed seats on that trip
+    private final Map<String, AtomicInteger> bookedSeats = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    private DynamicPricingService() {
+        this.bookingDAO = new BookingDAO();
+        this.fareQuoteEngine = FareQuoteEngine.getInstance();
+
+        String configured = System.getProperty("pricing.bands", DEFAULT_PRICE_BANDS);
+        double[][] bands;
+        try {
+            bands = parseBands(configured);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Ignoring pricing.bands \"" + configured + "\": " + e.getMessage()
+                + "; using " + DEFAULT_PRICE_BANDS);
+            bands = parseBands(DEFAULT_PRICE_BANDS);
+        }
+        this.bandThresholds = bands[0];
+        this.bandMultipliers = bands[1];
+    }
+
+    // Parses "threshold:multiplier,..." into {thresholds, multipliers}
+    static double[][] parseBands(String value) {
+        String[] bands = value.split(",");
+        double[] thresholds = new double[bands.length];
+        double[] multipliers = new double[bands.length];
+        for (int i = 0; i < bands.length; i++) {
+            String[] band = bands[i].trim().split(":");
+            if (band.length != 2) {
+                throw new IllegalArgumentException("expected threshold:multiplier but got \"" + bands[i].trim() + "\"");
+            }
+            thresholds[i] = parseNumber(band[0]);
+            multipliers[i] = parseNumber(band[1]);
+            if (multipliers[i] <= 0) {
+                throw new IllegalArgumentException("multiplier " + band[1].trim() + " must be positive");
+            }
+            if (i > 0 && thresholds[i] <= thresholds[i - 1]) {
+                throw new IllegalArgumentException("thresholds must be ascending");
+            }
+        }
+        return new double[][] {thresholds, multipliers};
+    }
+
+    private static double parseNumber(String text) {
+        double number = Double.parseDouble(text.trim());
+        if (!Double.isFinite(number)) {
+            throw new IllegalArgumentException(text.trim() + " is not a finite number");
+        }
+        return number;
+    }
+
+    public static synchronized DynamicPricingService getInstance() {
+        if (instance == null) {
+            instance = new DynamicPricingService();
+        }
+        return instance;
+    }
+
+    // Loads current occupancy with one aggregate query; everything after that is incremental
+    public void warmUp() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                for (TripOccupancy trip : bookingDAO.getConfirmedSeatCountsByTrip(LocalDate.now().atStartOfDay())) {
+                    counter(trip.getBusId(), trip.getScheduleId(), trip.getTravelDate()).addAndGet(trip.getBookedSeats());
+                }
+                loaded = true;
+            }
+        }
+    }
+
+    public void recordBooking(int busId, int scheduleId, LocalDateTime travelDate) {
+        warmUp();
+        counter(busId, scheduleId, travelDate.toLocalDate()).incrementAndGet();
+    }
+
+    public void recordCancellation(int busId, int scheduleId, LocalDateTime travelDate) {
+        warmUp();
+        counter(busId, scheduleId, travelDate.toLocalDate()).updateAndGet(count -> Math.max(0, count - 1));
+    }
+
+    public double getLoadFactor(int busId, int scheduleId, LocalDateTime travelDate) {
+        warmUp();
+        int totalSeats = fareQuoteEngine.getTotalSeats(busId);
+        if (totalSeats <= 0) {
+            return 0.0;
+        }
+        AtomicInteger booked = bookedSeats.get(tripKey(busId, scheduleId, travelDate.toLocalDate()));
+        return booked != null ? Math.min(1.0, (double) booked.get() / totalSeats) : 0.0;
+    }
+
+    public double getPriceMultiplier(int busId, int scheduleId, LocalDateTime travelDate) {
+        double loadFactor = getLoadFactor(busId, scheduleId, travelDate);
+        double multiplier = 1.0;
+        for (int i = 0; i < bandThresholds.length && loadFactor >= bandThresholds[i]; i++) {
+            multiplier = bandMultipliers[i];
+        }
+        return multiplier;
+    }
+
+    private AtomicInteger counter(int busId, int scheduleId, LocalDate travelDate) {
+        return bookedSeats.computeIfAbsent(tripKey(busId, scheduleId, travelDate), key -> new AtomicInteger());
+    }
+
+    private static String tripKey(int busId, int scheduleId, LocalDate travelDate) {
+        return busId + ":" + scheduleId + ":" + travelDate;
+    }
+}
@@ -0,0 +1,161 @@
+package com.busreservation.service;
+
+import com.busreservation.dao.BusDAO;
+import com.busreservation.dao.RouteDAO;
+import com.busreservation.dao.ScheduleDAO;
+import com.busreservation.database.DataChangeListener;
+import com.busreservation.database.DatabaseManager;
+import com.busreservation.model.Bus;
+import com.busreservation.model.Departure;
+import com.busreservation.model.Route;
+import com.busreservation.model.Schedule;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class FareQuoteEngine implements DataChangeListener {
+    private static final Map<String, Double> BUS_TYPE_MULTIPLIERS = Map.of(
+        "LUXURY", 1.5,
+        "STANDARD", 1.0,
+        "ECONOMY", 0.8
+    );
+    private static FareQuoteEngine instance;
+
+    private BusDAO busDAO;
+    private RouteDAO routeDAO;
+    private ScheduleDAO scheduleDAO;
+
+    private volatile FareMatrix matrix;
+    private final AtomicLong changeCount = new AtomicLong();
+
+    private FareQuoteEngine() {
+        this.busDAO = new BusDAO();
+        this.routeDAO = new RouteDAO();
+        this.scheduleDAO = new ScheduleDAO();
+        DatabaseManager.getInstance().addChangeListener(this);
+    }
+
+    public static synchronized FareQuoteEngine getInstance() {
+        if (instance == null) {
+            instance = new FareQuoteEngine();
+        }
+        return instance;
+    }
+
+    public double quote(int busId, int routeId) {
+        return currentMatrix().fare(busId, routeId);
+    }
+
+    public double[] quoteAll(List<Departure> departures) {
+        FareMatrix current = currentMatrix();
+        double[] fares = new double[departures.size()];
+        for (int i = 0; i < fares.length; i++) {
+            Departure departure = departures.get(i);
+            fares[i] = current.fare(departure.getBusId(), departure.getRouteId());
+        }
+        return fares;
+    }
+
+    public int getTotalSeats(int busId) {
+        BusFareProfile profile = currentMatrix().buses.get(busId);
+        return profile != null ? profile.totalSeats : 0;
+    }
+
+    public boolean isBusActive(int busId) {
+        BusFareProfile profile = currentMatrix().buses.get(busId);
+        return profile != null && profile.active;
+    }
+
+    public static double busTypeMultiplier(String busType) {
+        if (busType == null) {
+            return 1.0;
+        }
+        return BUS_TYPE_MULTIPLIERS.getOrDefault(busType.toUpperCase(Locale.ROOT), 1.0);
+    }
+
+    @Override
+    public void onDataChanged(String table, ChangeType type, int id) {
+        if ("buses".equals(table) || "routes".equals(table)) {
+            changeCount.incrementAndGet();
+            matrix = null;
+        }
+    }
+
+    private FareMatrix currentMatrix() {
+        FareMatrix current = matrix;
+        if (current == null) {
+            synchronized (this) {
+                current = matrix;
+                if (current == null) {
+                    long version = changeCount.get();
+                    current = buildMatrix();
+                    // Only cache it if nothing changed while it was being loaded
+                    if (version == changeCount.get()) {
+                        matrix = current;
+                    }
+                }
+            }
+        }
+        return current;
+    }
+
+    private FareMatrix buildMatrix() {
+        Map<Integer, BusFareProfile> buses = new HashMap<>();
+        for (Bus bus : busDAO.getAllBusesWithoutSeats()) {
+            buses.put(bus.getId(), new BusFareProfile(bus));
+        }
+
+        Map<Integer, Double> routeMultipliers = new HashMap<>();
+        for (Route route : routeDAO.getAllRoutes()) {
+            routeMultipliers.put(route.getId(), route.getFareMultiplier());
+        }
+
+        FareMatrix newMatrix = new FareMatrix(buses, routeMultipliers);
+        // Precompute every (bus, route) pair that is actually scheduled; others fill in on first quote
+        for (Schedule schedule : scheduleDAO.getAllSchedules()) {
+            newMatrix.fare(schedule.getBusId(), schedule.getRouteId());
+        }
+        return newMatrix;
+    }
+
+    private static final class BusFareProfile {
+        private final double typeAdjustedFare;
+        private final int totalSeats;
+        private final boolean active;
+
+        BusFareProfile(Bus bus) {
+            this.typeAdjustedFare = bus.getBaseFare() * busTypeMultiplier(bus.getBusType());
+            this.totalSeats = bus.getTotalSeats();
+            this.active = "ACTIVE".equals(bus.getStatus());
+        }
+    }
+
+    private static final class FareMatrix {
+        private final Map<Integer, BusFareProfile> buses;
+        private final Map<Integer, Double> routeMultipliers;
+        private final Map<Long, Double> fares = new ConcurrentHashMap<>();
+
+        FareMatrix(Map<Integer, BusFareProfile> buses, Map<Integer, Double> routeMultipliers) {
+            this.buses = buses;
+            this.routeMultipliers = routeMultipliers;
+        }
+
+        double fare(int busId, int routeId) {
+            long key = ((long) busId << 32) | (routeId & 0xffffffffL);
+            Double fare = fares.get(key);
+            if (fare == null) {
+                BusFareProfile bus = buses.get(busId);
+                if (bus == null) {
+                    return 0.0;
+                }
+                fare = bus.typeAdjustedFare * routeMultipliers.getOrDefault(routeId, 1.0);
+                fares.put(key, fare);
+            }
+            return fare;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.busreservation.service;
+
+import com.busreservation.dao.RouteDAO;
+import com.busreservation.dao.ScheduleDAO;
+import com.busreservation.database.DataChangeListener;
+import com.busreservation.database.DatabaseManager;
+import com.busreservation.model.Departure;
+import com.busreservation.model.Itinerary;
+import com.busreservation.model.Route;
+import com.busreservation.model.Schedule;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class JourneyPlannerService implements DataChangeListener {
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static JourneyPlannerService instance;
+
+    private RouteDAO routeDAO;
+    private ScheduleDAO scheduleDAO;
+    private FareQuoteEngine fareQuoteEngine;
+
+    // Connection networks are built per day of week on first use and dropped on any data change. Each one
+    // carries the data version it was built from, so a build that overlaps a change is never served again.
+    private final Map<DayOfWeek, Network> networks = new ConcurrentHashMap<>();
+    private final AtomicLong dataVersion = new AtomicLong();
+
+    private JourneyPlannerService() {
+        this.routeDAO = new RouteDAO();
+        this.scheduleDAO = new ScheduleDAO();
+        this.fareQuoteEngine = FareQuoteEngine.getInstance();
+        DatabaseManager.getInstance().addChangeListener(this);
+    }
+
+    public static synchronized JourneyPlannerService getInstance() {
+        if (instance == null) {
+            instance = new JourneyPlannerService();
+        }
+        return instance;
+    }
+
+    public Itinerary findFastest(String source, String destination, LocalDate travelDate, int maxTransfers, int minConnectionMinutes) {
+        List<Itinerary> itineraries = plan(source, destination, travelDate, LocalTime.MIDNIGHT, maxTransfers, minConnectionMinutes);
+        return itineraries.isEmpty() ? null : itineraries.get(0);
+    }
+
+    public Itinerary findCheapest(String source, String destination, LocalDate travelDate, int maxTransfers, int minConnectionMinutes) {
+        List<Itinerary> itineraries = plan(source, destination, travelDate, LocalTime.MIDNIGHT, maxTransfers, minConnectionMinutes);
+        return itineraries.stream()
+                .min(Comparator.comparingDouble(Itinerary::getTotalFare))
+                .orElse(null);
+    }
+
+    // Returns every itinerary that no other one beats on both arrival time and fare, earliest arrival first
+    public List<Itinerary> plan(String source, String destination, LocalDate travelDate, LocalTime earliestDeparture,
+                                int maxTransfers, int minConnectionMinutes) {
+        if (source == null || destination == null || travelDate == null || maxTransfers < 0) {
+            return List.of();
+        }
+
+        Network network = getNetwork(travelDate.getDayOfWeek());
+        Integer origin = network.stopIds.get(RouteSearchService.normalizeCity(source));
+        Integer target = network.stopIds.get(RouteSearchService.normalizeCity(destination));
+        if (origin == null || target == null || origin.equals(target)) {
+            return List.of();
+        }
+
+        int startMinute = earliestDeparture != null ? earliestDeparture.getHour() * 60 + earliestDeparture.getMinute() : 0;
+        int firstConnection = network.firstDepartingAtOrAfter(startMinute);
+
+        List<List<Label>> best = emptyBags(network.stopCount);
+        List<List<Label>> previous = emptyBags(network.stopCount);
+        previous.set(origin, new ArrayList<>());
+        previous.get(origin).add(new Label(startMinute, 0.0, -1, null));
+
+        // Round r extends the labels created in round r - 1 by exactly one more leg
+        for (int round = 0; round <= maxTransfers; round++) {
+            List<List<Label>> current = emptyBags(network.stopCount);
+            boolean improved = false;
+
+            for (int c = firstConnection; c < network.size; c++) {
+                List<Label> boarding = previous.get(network.depStop[c]);
+                if (boarding == null) {
+                    continue;
+                }
+
+                Label cheapestParent = null;
+                for (Label label : boarding) {
+                    int ready = label.connection < 0 ? label.arrival : label.arrival + minConnectionMinutes;
+                    if (network.depMinute[c] >= ready && (cheapestParent == null || label.cost < cheapestParent.cost)) {
+                        cheapestParent = label;
+                    }
+                }
+                if (cheapestParent == null) {
+                    continue;
+                }
+
+                int stop = network.arrStop[c];
+                if (stop == origin) {
+                    continue;
+                }
+
+                Label candidate = new Label(network.arrMinute[c], cheapestParent.cost + network.fare[c], c, cheapestParent);
+                // Anything dominated by a known arrival at the target can never lead to a better one
+                if (isDominated(best.get(target), candidate) || !insertIfNonDominated(best, stop, candidate)) {
+                    continue;
+                }
+
+                if (current.get(stop) == null) {
+                    current.set(stop, new ArrayList<>());
+                }
+                current.get(stop).add(candidate);
+                improved = true;
+            }
+
+            if (!improved) {
+                break;
+            }
+            previous = current;
+        }
+
+        List<Label> arrivals = best.get(target);
+        if (arrivals == null) {
+            return List.of();
+        }
+
+        arrivals.sort(Comparator.comparingInt((Label label) -> label.arrival).thenComparingDouble(label -> label.cost));
+
+        List<Itinerary> itineraries = new ArrayList<>(arrivals.size());
+        for (Label label : arrivals) {
+            itineraries.add(toItinerary(network, label, travelDate));
+        }
+        return itineraries;
+    }
+
+    @Override
+    public void onDataChanged(String table, ChangeType type, int id) {
+        if ("routes".equals(table) || "schedules".equals(table) || "buses".equals(table)) {
+            dataVersion.incrementAndGet();
+            networks.clear();
+        }
+    }
+
+    private Itinerary toItinerary(Network network, Label last, LocalDate travelDate) {
+        LinkedList<Departure> legs = new LinkedList<>();
+        int departureMinute = last.arrival;
+        for (Label label = last; label != null && label.connection >= 0; label = label.parent) {
+            int c = label.connection;
+            legs.addFirst(new Departure(network.schedules[c], network.routes[c], travelDate));
+            departureMinute = network.depMinute[c];
+        }
+        return new Itinerary(new ArrayList<>(legs), last.cost, last.arrival - departureMinute);
+    }
+
+    private static boolean isDominated(List<Label> bag, Label candidate) {
+        if (bag == null) {
+            return false;
+        }
+        for (Label label : bag) {
+            if (label.arrival <= candidate.arrival && label.cost <= candidate.cost) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // One bag of labels per stop; null until a label reaches it
+    private static List<List<Label>> emptyBags(int stopCount) {
+        return new ArrayList<>(Collections.nCopies(stopCount, null));
+    }
+
+    private static boolean insertIfNonDominated(List<List<Label>> bags, int stop, Label candidate) {
+        List<Label> bag = bags.get(stop);
+        if (bag == null) {
+            bag = new ArrayList<>();
+            bags.set(stop, bag);
+        } else if (isDominated(bag, candidate)) {
+            return false;
+        }
+
+        Iterator<Label> iterator = bag.iterator();
+        while (iterator.hasNext()) {
+            Label label = iterator.next();
+            if (candidate.arrival <= label.arrival && candidate.cost <= label.cost) {
+                iterator.remove();
+            }
+        }
+        bag.add(candidate);
+        return true;
+    }
+
+    // Builds outside the map, so the database reads never run inside a map update; of two racing builds the
+    // one from newer data is kept
+    private Network getNetwork(DayOfWeek day) {
+        long version = dataVersion.get();
+        Network network = networks.get(day);
+        if (network != null && network.version == version) {
+            return network;
+        }
+        Network built = buildNetwork(day, version);
+        networks.merge(day, built, (cached, fresh) -> cached.version >= fresh.version ? cached : fresh);
+        return built;
+    }
+
+    private Network buildNetwork(DayOfWeek day, long version) {
+        Map<Integer, Route> routesById = new HashMap<>();
+        for (Route route : routeDAO.getAllRoutes()) {
+            routesById.put(route.getId(), route);
+        }
+
+        Map<String, Integer> stopIds = new HashMap<>();
+        List<Schedule> daySchedules = new ArrayList<>();
+        for (Schedule schedule : scheduleDAO.getAllSchedules()) {
+            Route route = routesById.get(schedule.getRouteId());
+            if (route == null || !fareQuoteEngine.isBusActive(schedule.getBusId())
+                    || schedule.getDepartureTime() == null || schedule.getArrivalTime() == null
+                    || RouteSearchService.parseDayOfWeek(schedule.getDayOfWeek()) != day) {
+                continue;
+            }
+            stopIds.putIfAbsent(RouteSearchService.normalizeCity(route.getSource()), stopIds.size());
+            stopIds.putIfAbsent(RouteSearchService.normalizeCity(route.getDestination()), stopIds.size());
+            daySchedules.add(schedule);
+        }
+        daySchedules.sort(Comparator.comparing(Schedule::getDepartureTime));
+
+        Network network = new Network(version, stopIds, daySchedules.size());
+        for (Schedule schedule : daySchedules) {
+            Route route = routesById.get(schedule.getRouteId());
+            int c = network.size++;
+            network.depStop[c] = stopIds.get(RouteSearchService.normalizeCity(route.getSource()));
+            network.arrStop[c] = stopIds.get(RouteSearchService.normalizeCity(route.getDestination()));
+            network.depMinute[c] = toMinute(schedule.getDepartureTime());
+            int arrival = toMinute(schedule.getArrivalTime());
+            // Arrivals earlier than the departure run past midnight
+            network.arrMinute[c] = arrival < network.depMinute[c] ? arrival + MINUTES_PER_DAY : arrival;
+            network.fare[c] = fareQuoteEngine.quote(schedule.getBusId(), route.getId());
+            network.schedules[c] = schedule;
+            network.routes[c] = route;
+        }
+        return network;
+    }
+
+    private static int toMinute(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static final class Label {
+        private final int arrival;
+        private final double cost;
+        private final int connection;
+        private final Label parent;
+
+        Label(int arrival, double cost, int connection, Label parent) {
+            this.arrival = arrival;
+            this.cost = cost;
+            this.connection = connection;
+            this.parent = parent;
+        }
+    }
+
+    // Connections stored column-wise and sorted by departure minute
+    private static final class Network {
+        private final long version;
+        private final Map<String, Integer> stopIds;
+        private final int stopCount;
+        private final int[] depStop;
+        private final int[] arrStop;
+        private final int[] depMinute;
+        private final int[] arrMinute;
+        private final double[] fare;
+        private final Schedule[] schedules;
+        private final Route[] routes;
+        private int size;
+
+        Network(long version, Map<String, Integer> stopIds, int capacity) {
+            this.version = version;
+            this.stopIds = stopIds;
+            this.stopCount = stopIds.size();
+            this.depStop = new int[capacity];
+            this.arrStop = new int[capacity];
+            this.depMinute = new int[capacity];
+            this.arrMinute = new int[capacity];
+            this.fare = new double[capacity];
+            this.schedules = new Schedule[capacity];
+            this.routes = new Route[capacity];
+        }
+
+        int firstDepartingAtOrAfter(int minute) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (depMinute[mid] < minute) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.busreservation.service;
+
+import com.busreservation.dao.UserDAO;
+import com.busreservation.database.DatabaseManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Buffers last_login timestamps so a login costs no write. Repeated logins by one user collapse
+// into a single row update, and each flush is one batched transaction on its own connection.
+public class LastLoginRecorder {
+    private static LastLoginRecorder instance;
+
+    private DatabaseManager dbManager;
+    private UserDAO userDAO;
+    private final Map<Integer, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    private LastLoginRecorder() {
+        this.dbManager = DatabaseManager.getInstance();
+        this.userDAO = new UserDAO();
+        long flushSeconds = Long.getLong("login.flushSeconds", 5);
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "last-login-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flush, flushSeconds, flushSeconds, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "last-login-final-flush"));
+    }
+
+    public static synchronized LastLoginRecorder getInstance() {
+        if (instance == null) {
+            instance = new LastLoginRecorder();
+        }
+        return instance;
+    }
+
+    public void record(int userId, LocalDateTime loginTime) {
+        pending.merge(userId, loginTime, (current, latest) -> latest.isAfter(current) ? latest : current);
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, LocalDateTime> batch = new HashMap<>();
+        Iterator<Map.Entry<Integer, LocalDateTime>> entries = pending.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Integer, LocalDateTime> entry = entries.next();
+            batch.put(entry.getKey(), entry.getValue());
+            // Only drop the entry if no newer login arrived since it was read
+            pending.remove(entry.getKey(), entry.getValue());
+        }
+
+        try (Connection conn = dbManager.openConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                userDAO.updateLastLogins(conn, batch);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error flushing last login times: " + e.getMessage());
+            // Keep them for the next flush
+            batch.forEach(this::record);
+        }
+    }
+}
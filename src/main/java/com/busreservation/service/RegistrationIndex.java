@@ -0,0 +1,47 @@
+package com.busreservation.service;
+
+import com.busreservation.dao.UserDAO;
+
+// In-memory Bloom filters of taken usernames and emails. A negative answer means the name is
+// definitely free, so registration can skip the lookup; a positive answer still needs the
+// database, and the UNIQUE constraints remain the final guard against concurrent inserts.
+public class RegistrationIndex {
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static RegistrationIndex instance;
+
+    private final BloomFilter usernames;
+    private final BloomFilter emails;
+
+    private RegistrationIndex() {
+        UserDAO userDAO = new UserDAO();
+        // Leave headroom for growth; past capacity the false-positive rate rises until the next start
+        long capacity = Math.max(Long.getLong("registration.expectedUsers", 100_000), 2L * userDAO.countUsers());
+        this.usernames = new BloomFilter(capacity, FALSE_POSITIVE_RATE);
+        this.emails = new BloomFilter(capacity, FALSE_POSITIVE_RATE);
+
+        userDAO.forEachUsernameAndEmail((username, email) -> {
+            usernames.add(username);
+            emails.add(email);
+        });
+    }
+
+    public static synchronized RegistrationIndex getInstance() {
+        if (instance == null) {
+            instance = new RegistrationIndex();
+        }
+        return instance;
+    }
+
+    public boolean mightHaveUsername(String username) {
+        return usernames.mightContain(username);
+    }
+
+    public boolean mightHaveEmail(String email) {
+        return emails.mightContain(email);
+    }
+
+    public void add(String username, String email) {
+        usernames.add(username);
+        emails.add(email);
+    }
+}
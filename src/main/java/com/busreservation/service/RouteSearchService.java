@@ -0,0 +1,183 @@
+package com.busreservation.service;
+
+import com.busreservation.dao.RouteDAO;
+import com.busreservation.dao.ScheduleDAO;
+import com.busreservation.database.DataChangeListener;
+import com.busreservation.database.DatabaseManager;
+import com.busreservation.model.Departure;
+import com.busreservation.model.Route;
+import com.busreservation.model.Schedule;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+public class RouteSearchService implements DataChangeListener {
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static RouteSearchService instance;
+
+    private RouteDAO routeDAO;
+    private ScheduleDAO scheduleDAO;
+    private TimetableIndex timetableIndex;
+
+    // normalized "source|destination" -> day of week -> schedules sorted by departure time
+    private volatile Map<String, Map<DayOfWeek, List<ScheduledRoute>>> index;
+    // normalized "source|destination" -> routes serving that pair
+    private volatile Map<String, List<Route>> routesByPair;
+    private volatile boolean stale = true;
+
+    private RouteSearchService() {
+        this.routeDAO = new RouteDAO();
+        this.scheduleDAO = new ScheduleDAO();
+        this.timetableIndex = TimetableIndex.getInstance();
+        DatabaseManager.getInstance().addChangeListener(this);
+    }
+
+    public static synchronized RouteSearchService getInstance() {
+        if (instance == null) {
+            instance = new RouteSearchService();
+        }
+        return instance;
+    }
+
+    public List<Departure> search(String source, String destination, LocalDate travelDate) {
+        if (source == null || destination == null || travelDate == null) {
+            return List.of();
+        }
+
+        Map<DayOfWeek, List<ScheduledRoute>> byDay = currentIndex().get(pairKey(source, destination));
+        if (byDay == null) {
+            return List.of();
+        }
+
+        List<ScheduledRoute> scheduled = byDay.get(travelDate.getDayOfWeek());
+        if (scheduled == null) {
+            return List.of();
+        }
+
+        List<Departure> departures = new ArrayList<>(scheduled.size());
+        for (ScheduledRoute entry : scheduled) {
+            departures.add(new Departure(entry.schedule, entry.route, travelDate));
+        }
+        return departures;
+    }
+
+    public List<Departure> searchBetween(String source, String destination, LocalDate travelDate, LocalTime from, LocalTime to) {
+        if (source == null || destination == null || travelDate == null) {
+            return List.of();
+        }
+
+        currentIndex();
+        List<Route> routes = routesByPair.get(pairKey(source, destination));
+        if (routes == null) {
+            return List.of();
+        }
+
+        List<Departure> departures = new ArrayList<>();
+        for (Route route : routes) {
+            for (Schedule schedule : timetableIndex.findDepartures(route.getId(), travelDate.getDayOfWeek(), from, to)) {
+                departures.add(new Departure(schedule, route, travelDate));
+            }
+        }
+        if (routes.size() > 1) {
+            departures.sort(Comparator.comparing(Departure::getDepartureTime));
+        }
+        return departures;
+    }
+
+    public synchronized void refresh() {
+        // Cleared before loading so a change that lands mid-refresh triggers another one
+        stale = false;
+
+        Map<Integer, Route> routesById = new HashMap<>();
+        Map<String, List<Route>> newRoutesByPair = new HashMap<>();
+        for (Route route : routeDAO.getAllRoutes()) {
+            routesById.put(route.getId(), route);
+            newRoutesByPair.computeIfAbsent(pairKey(route.getSource(), route.getDestination()), key -> new ArrayList<>()).add(route);
+        }
+
+        Map<String, Map<DayOfWeek, List<ScheduledRoute>>> newIndex = new HashMap<>();
+        for (Schedule schedule : scheduleDAO.getAllSchedules()) {
+            Route route = routesById.get(schedule.getRouteId());
+            DayOfWeek day = parseDayOfWeek(schedule.getDayOfWeek());
+            if (route == null || day == null || schedule.getDepartureTime() == null) {
+                continue;
+            }
+
+            newIndex.computeIfAbsent(pairKey(route.getSource(), route.getDestination()), key -> new EnumMap<>(DayOfWeek.class))
+                    .computeIfAbsent(day, key -> new ArrayList<>())
+                    .add(new ScheduledRoute(schedule, route));
+        }
+
+        Comparator<ScheduledRoute> byDeparture = Comparator.comparing(entry -> entry.schedule.getDepartureTime());
+        for (Map<DayOfWeek, List<ScheduledRoute>> byDay : newIndex.values()) {
+            for (Map.Entry<DayOfWeek, List<ScheduledRoute>> entry : byDay.entrySet()) {
+                List<ScheduledRoute> sorted = entry.getValue();
+                sorted.sort(byDeparture);
+                entry.setValue(Collections.unmodifiableList(sorted));
+            }
+        }
+
+        routesByPair = newRoutesByPair;
+        index = newIndex;
+    }
+
+    @Override
+    public void onDataChanged(String table, ChangeType type, int id) {
+        if ("routes".equals(table) || "schedules".equals(table)) {
+            stale = true;
+        }
+    }
+
+    public static String normalizeCity(String city) {
+        if (city == null) {
+            return "";
+        }
+        return WHITESPACE.matcher(city.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    static DayOfWeek parseDayOfWeek(String dayOfWeek) {
+        if (dayOfWeek == null) {
+            return null;
+        }
+        try {
+            return DayOfWeek.valueOf(dayOfWeek.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private Map<String, Map<DayOfWeek, List<ScheduledRoute>>> currentIndex() {
+        if (stale || index == null) {
+            synchronized (this) {
+                if (stale || index == null) {
+                    refresh();
+                }
+            }
+        }
+        return index;
+    }
+
+    private static String pairKey(String source, String destination) {
+        return normalizeCity(source) + "|" + normalizeCity(destination);
+    }
+
+    private static class ScheduledRoute {
+        private final Schedule schedule;
+        private final Route route;
+
+        ScheduledRoute(Schedule schedule, Route route) {
+            this.schedule = schedule;
+            this.route = route;
+        }
+    }
+}
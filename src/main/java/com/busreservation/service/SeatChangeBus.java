@@ -0,0 +1,174 @@
+package com.busreservation.service;
+
+import com.busreservation.model.Booking;
+import com.busreservation.model.BookingResult;
+import com.busreservation.model.SeatChange;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In-process fan-out of seat changes per trip (bus and travel date). Publishing only records the change;
+// after a short coalescing window each seat touched in that window is delivered once, in its latest state,
+// so a burst of bookings on a busy trip reaches every listener as a single batch.
+public class SeatChangeBus {
+    private static SeatChangeBus instance;
+
+    private final long coalesceMillis;
+    private final Map<Trip, Channel> channels = new ConcurrentHashMap<>();
+    // Batch versions come from one sequence so they keep increasing even if a trip's channel is dropped
+    private final AtomicLong versions = new AtomicLong();
+    private final ScheduledExecutorService dispatcher;
+
+    SeatChangeBus(long coalesceMillis) {
+        this.coalesceMillis = coalesceMillis;
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "seat-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static synchronized SeatChangeBus getInstance() {
+        if (instance == null) {
+            instance = new SeatChangeBus(Long.getLong("seatEvents.coalesceMillis", 100));
+        }
+        return instance;
+    }
+
+    public Subscription subscribe(int busId, LocalDate travelDate, SeatChangeListener listener) {
+        Trip trip = new Trip(busId, travelDate);
+        // Added inside compute so it cannot race with flush dropping an idle channel
+        channels.compute(trip, (key, channel) -> {
+            Channel target = channel != null ? channel : new Channel();
+            target.listeners.add(listener);
+            return target;
+        });
+        return new Subscription(trip, listener);
+    }
+
+    // Version of the trip's last delivered batch; 0 if nothing has changed since startup
+    public long getVersion(int busId, LocalDate travelDate) {
+        Channel channel = channels.get(new Trip(busId, travelDate));
+        return channel != null ? channel.version : 0;
+    }
+
+    public void publish(SeatChange change) {
+        Trip trip = new Trip(change.getBusId(), change.getTravelDate());
+        boolean[] schedule = new boolean[1];
+        // Recorded inside compute, like subscribe, so the change never lands on a channel being dropped
+        Channel channel = channels.compute(trip, (key, current) -> {
+            Channel target = current != null ? current : new Channel();
+            synchronized (target) {
+                target.pending.put(change.getSeatNumber(), change);
+                schedule[0] = !target.flushScheduled;
+                target.flushScheduled = true;
+            }
+            return target;
+        });
+        if (schedule[0]) {
+            dispatcher.schedule(() -> flush(trip, channel), coalesceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Publishes the seat a booking or cancellation freed or took once it has committed; returns the same outcome
+    public CompletableFuture<BookingResult> publishOutcome(CompletableFuture<BookingResult> outcome) {
+        return outcome.whenComplete((result, failure) -> {
+            if (failure != null || result == null || result.getBooking() == null) {
+                return;
+            }
+            Booking booking = result.getBooking();
+            if (result.getStatus() == BookingResult.Status.CONFIRMED || result.getStatus() == BookingResult.Status.CANCELLED) {
+                publish(new SeatChange(booking.getBusId(), booking.getTravelDate().toLocalDate(), booking.getSeatNumber(),
+                        result.getStatus() == BookingResult.Status.CANCELLED, booking.getId()));
+            }
+        });
+    }
+
+    private void flush(Trip trip, Channel channel) {
+        List<SeatChange> changes;
+        long version;
+        synchronized (channel) {
+            changes = new ArrayList<>(channel.pending.values());
+            channel.pending.clear();
+            channel.flushScheduled = false;
+            version = versions.incrementAndGet();
+            channel.version = version;
+        }
+
+        for (SeatChangeListener listener : channel.listeners) {
+            try {
+                listener.onSeatsChanged(trip.busId, trip.travelDate, version, changes);
+            } catch (RuntimeException e) {
+                System.err.println("Seat change listener failed: " + e.getMessage());
+            }
+        }
+
+        // A trip nobody is watching no longer needs a channel; versions come from the shared sequence, so one
+        // created later still hands out versions above anything a client has seen
+        channels.computeIfPresent(trip, (key, current) -> current == channel && current.isIdle() ? null : current);
+    }
+
+    public final class Subscription {
+        private final Trip trip;
+        private final SeatChangeListener listener;
+
+        private Subscription(Trip trip, SeatChangeListener listener) {
+            this.trip = trip;
+            this.listener = listener;
+        }
+
+        public void cancel() {
+            channels.computeIfPresent(trip, (key, channel) -> {
+                channel.listeners.remove(listener);
+                return channel.isIdle() ? null : channel;
+            });
+        }
+    }
+
+    private static final class Channel {
+        private final List<SeatChangeListener> listeners = new CopyOnWriteArrayList<>();
+        // Seat number -> latest change not yet delivered; guarded by the channel
+        private final Map<Integer, SeatChange> pending = new LinkedHashMap<>();
+        private boolean flushScheduled;
+        private volatile long version;
+
+        // No listeners and nothing waiting to be delivered
+        synchronized boolean isIdle() {
+            return listeners.isEmpty() && !flushScheduled && pending.isEmpty();
+        }
+    }
+
+    private static final class Trip {
+        private final int busId;
+        private final LocalDate travelDate;
+
+        Trip(int busId, LocalDate travelDate) {
+            this.busId = busId;
+            this.travelDate = travelDate;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Trip)) return false;
+            Trip trip = (Trip) o;
+            return busId == trip.busId && travelDate.equals(trip.travelDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(busId, travelDate);
+        }
+    }
+}
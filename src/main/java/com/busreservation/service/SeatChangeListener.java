@@ -0,0 +1,11 @@
+package com.busreservation.service;
+
+import com.busreservation.model.SeatChange;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface SeatChangeListener {
+    // Called on the dispatcher thread with each changed seat once, in its latest state
+    void onSeatsChanged(int busId, LocalDate travelDate, long version, List<SeatChange> changes);
+}
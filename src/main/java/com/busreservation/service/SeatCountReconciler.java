@@ -0,0 +1,54 @@
+package com.busreservation.service;
+
+import com.busreservation.dao.BusDAO;
+
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class SeatCountReconciler {
+    private BusDAO busDAO;
+    private ScheduledExecutorService scheduler;
+
+    public SeatCountReconciler() {
+        this.busDAO = new BusDAO();
+    }
+
+    public synchronized void start(long periodMinutes) {
+        if (scheduler != null) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "seat-count-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::reconcileNow, periodMinutes, periodMinutes, TimeUnit.MINUTES);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    public int reconcileNow() {
+        // Counters are maintained incrementally by a trigger; this only repairs buses that drifted
+        Map<Integer, int[]> drift = busDAO.findAvailableSeatsDrift();
+        int repaired = 0;
+
+        for (Map.Entry<Integer, int[]> entry : drift.entrySet()) {
+            int busId = entry.getKey();
+            int[] counts = entry.getValue();
+            if (busDAO.recountAvailableSeats(busId)) {
+                System.err.println("Repaired available seat count for bus " + busId +
+                                   ": recorded " + counts[0] + ", actual " + counts[1]);
+                repaired++;
+            }
+        }
+        return repaired;
+    }
+}
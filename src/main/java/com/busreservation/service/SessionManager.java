@@ -0,0 +1,96 @@
+package com.busreservation.service;
+
+import com.busreservation.model.Session;
+import com.busreservation.model.User;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Opaque-token sessions for any number of concurrent users. Lookups only check the one session
+// they touch; expired sessions are removed by a background sweeper rather than per-request scans.
+public class SessionManager {
+    private static final int TOKEN_BYTES = 32;
+    private static SessionManager instance;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final long idleTimeoutMillis;
+    private final ScheduledExecutorService sweeper;
+
+    private SessionManager() {
+        this.idleTimeoutMillis = TimeUnit.MINUTES.toMillis(Long.getLong("session.idleMinutes", 30));
+        long sweepSeconds = Long.getLong("session.sweepSeconds", 60);
+
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sweeper.scheduleAtFixedRate(this::sweep, sweepSeconds, sweepSeconds, TimeUnit.SECONDS);
+    }
+
+    public static synchronized SessionManager getInstance() {
+        if (instance == null) {
+            instance = new SessionManager();
+        }
+        return instance;
+    }
+
+    public Session createSession(User user) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        Session session = new Session(token, user, System.currentTimeMillis());
+        sessions.put(token, session);
+        return session;
+    }
+
+    // Returns the live session for the token and extends its expiry, or null if unknown or expired
+    public Session getSession(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        if (session.isExpired(now, idleTimeoutMillis)) {
+            // Expired between sweeps
+            sessions.remove(token, session);
+            return null;
+        }
+        session.touch(now);
+        return session;
+    }
+
+    public void invalidate(String token) {
+        if (token != null) {
+            sessions.remove(token);
+        }
+    }
+
+    public long getExpiresAtMillis(Session session) {
+        return session.getLastAccessMillis() + idleTimeoutMillis;
+    }
+
+    public int getActiveSessionCount() {
+        return sessions.size();
+    }
+
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        sessions.values().removeIf(session -> session.isExpired(now, idleTimeoutMillis));
+    }
+
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+}
@@ -0,0 +1,123 @@
+package com.busreservation.service;
+
+import com.busreservation.dao.SummaryDAO;
+import com.busreservation.metrics.MetricsRegistry;
+import com.busreservation.model.DailySummary;
+import com.busreservation.report.ReportTable;
+import com.busreservation.report.ReportWriter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Revenue and occupancy dashboards, read from summary tables the database keeps current on every booking write
+public class SummaryService {
+    private SummaryDAO summaryDAO;
+    private MetricsRegistry metrics;
+
+    public SummaryService() {
+        this.summaryDAO = new SummaryDAO();
+        this.metrics = MetricsRegistry.getInstance();
+    }
+
+    public List<DailySummary> getDailyBusSummaries(LocalDate from, LocalDate to) {
+        long start = System.nanoTime();
+        try {
+            return summaryDAO.getBusSummaries(from, to);
+        } catch (RuntimeException e) {
+            metrics.recordError("SummaryService.getDailyBusSummaries");
+            throw e;
+        } finally {
+            metrics.record("SummaryService.getDailyBusSummaries", start);
+        }
+    }
+
+    public List<DailySummary> getDailyRouteSummaries(LocalDate from, LocalDate to) {
+        long start = System.nanoTime();
+        try {
+            return summaryDAO.getRouteSummaries(from, to);
+        } catch (RuntimeException e) {
+            metrics.recordError("SummaryService.getDailyRouteSummaries");
+            throw e;
+        } finally {
+            metrics.record("SummaryService.getDailyRouteSummaries", start);
+        }
+    }
+
+    // Occupancy of one bus on one day, or null if nothing was ever booked on it
+    public DailySummary getTripSummary(int busId, LocalDate travelDate) {
+        long start = System.nanoTime();
+        try {
+            return summaryDAO.getBusSummary(busId, travelDate);
+        } catch (RuntimeException e) {
+            metrics.recordError("SummaryService.getTripSummary");
+            throw e;
+        } finally {
+            metrics.record("SummaryService.getTripSummary", start);
+        }
+    }
+
+    public void displaySummaryReport(LocalDate from, LocalDate to) {
+        try (ReportWriter out = ReportWriter.console()) {
+            displaySummaryReport(from, to, out);
+        }
+    }
+
+    public void displaySummaryReport(LocalDate from, LocalDate to, ReportWriter out) {
+        long start = System.nanoTime();
+        try {
+            List<DailySummary> byBus = getDailyBusSummaries(from, to);
+            List<DailySummary> byRoute = getDailyRouteSummaries(from, to);
+
+            out.println();
+            out.println("=== Revenue & Occupancy " + from + " to " + to + " ===");
+            if (byBus.isEmpty()) {
+                out.println("No bookings in this period.");
+                out.println();
+                return;
+            }
+
+            out.println();
+            out.println("By bus");
+            ReportTable busTable = summaryTable("Bus", true);
+            for (DailySummary summary : byBus) {
+                busTable.addRow(summary.getTravelDate(), summary.getGroupName(), summary.getSeatsSold(),
+                                summary.getCapacity(), String.format("%.0f%%", summary.getLoadFactor() * 100),
+                                summary.getCancellations(), ReportTable.money(summary.getRevenue()));
+            }
+            busTable.render(out);
+
+            out.println();
+            out.println("By route");
+            ReportTable routeTable = summaryTable("Route", false);
+            for (DailySummary summary : byRoute) {
+                routeTable.addRow(summary.getTravelDate(), summary.getGroupName(), summary.getSeatsSold(),
+                                  summary.getCancellations(), ReportTable.money(summary.getRevenue()));
+            }
+            routeTable.render(out);
+
+            long seats = 0;
+            long revenueCents = 0;
+            for (DailySummary summary : byBus) {
+                seats += summary.getSeatsSold();
+                revenueCents += summary.getRevenueCents();
+            }
+            out.println("Total: " + seats + " seats sold, " + ReportTable.money(revenueCents / 100.0) + " revenue");
+            out.println();
+        } catch (RuntimeException e) {
+            metrics.recordError("SummaryService.displaySummaryReport");
+            throw e;
+        } finally {
+            metrics.record("SummaryService.displaySummaryReport", start);
+        }
+    }
+
+    private static ReportTable summaryTable(String group, boolean withCapacity) {
+        ReportTable table = withCapacity
+            ? new ReportTable("Date", group, "Sold", "Seats", "Load", "Cancelled", "Revenue")
+            : new ReportTable("Date", group, "Sold", "Cancelled", "Revenue");
+        for (int column = 2; column < (withCapacity ? 7 : 5); column++) {
+            table.align(column, ReportTable.Align.RIGHT);
+        }
+        return table;
+    }
+}
@@ -0,0 +1,146 @@
+package com.busreservation.service;
+
+import com.busreservation.dao.ScheduleDAO;
+import com.busreservation.database.DataChangeListener;
+import com.busreservation.database.DatabaseManager;
+import com.busreservation.model.Schedule;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TimetableIndex implements DataChangeListener {
+    private static TimetableIndex instance;
+
+    private ScheduleDAO scheduleDAO;
+    private final ExecutorService rebuildExecutor;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    // (route id, day of week) -> departures sorted by minute of day
+    private volatile Map<Long, Timetable> timetables;
+    private volatile boolean stale = true;
+
+    private TimetableIndex() {
+        this.scheduleDAO = new ScheduleDAO();
+        this.rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "timetable-index-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        DatabaseManager.getInstance().addChangeListener(this);
+    }
+
+    public static synchronized TimetableIndex getInstance() {
+        if (instance == null) {
+            instance = new TimetableIndex();
+        }
+        return instance;
+    }
+
+    public List<Schedule> findDepartures(int routeId, DayOfWeek day, LocalTime from, LocalTime to) {
+        if (day == null || from == null || to == null || from.isAfter(to)) {
+            return List.of();
+        }
+
+        Map<Long, Timetable> current = timetables;
+        if (stale || current == null) {
+            // Serve from the database while the index is rebuilt in the background
+            requestRebuild();
+            return scheduleDAO.getSchedulesByRouteAndDay(routeId, day.name(), from, to);
+        }
+
+        Timetable timetable = current.get(key(routeId, day));
+        if (timetable == null) {
+            return List.of();
+        }
+
+        int start = timetable.lowerBound(toMinute(from));
+        int end = timetable.lowerBound(toMinute(to) + 1);
+        List<Schedule> departures = new ArrayList<>(Math.max(0, end - start));
+        for (int i = start; i < end; i++) {
+            departures.add(timetable.schedules[i]);
+        }
+        return departures;
+    }
+
+    public synchronized void rebuild() {
+        stale = false;
+
+        Map<Long, List<Schedule>> grouped = new HashMap<>();
+        for (Schedule schedule : scheduleDAO.getAllSchedules()) {
+            DayOfWeek day = RouteSearchService.parseDayOfWeek(schedule.getDayOfWeek());
+            if (day == null || schedule.getDepartureTime() == null) {
+                continue;
+            }
+            grouped.computeIfAbsent(key(schedule.getRouteId(), day), k -> new ArrayList<>()).add(schedule);
+        }
+
+        Map<Long, Timetable> newTimetables = new HashMap<>();
+        for (Map.Entry<Long, List<Schedule>> entry : grouped.entrySet()) {
+            newTimetables.put(entry.getKey(), new Timetable(entry.getValue()));
+        }
+        timetables = newTimetables;
+    }
+
+    @Override
+    public void onDataChanged(String table, ChangeType type, int id) {
+        if ("schedules".equals(table)) {
+            stale = true;
+        }
+    }
+
+    private void requestRebuild() {
+        if (rebuilding.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                try {
+                    rebuild();
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+        }
+    }
+
+    private static long key(int routeId, DayOfWeek day) {
+        return ((long) routeId << 3) | day.ordinal();
+    }
+
+    private static int toMinute(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static final class Timetable {
+        private final int[] departureMinutes;
+        private final Schedule[] schedules;
+
+        Timetable(List<Schedule> daySchedules) {
+            daySchedules.sort(Comparator.comparing(Schedule::getDepartureTime));
+            this.departureMinutes = new int[daySchedules.size()];
+            this.schedules = daySchedules.toArray(new Schedule[0]);
+            for (int i = 0; i < schedules.length; i++) {
+                departureMinutes[i] = toMinute(schedules[i].getDepartureTime());
+            }
+        }
+
+        int lowerBound(int minute) {
+            int low = 0;
+            int high = departureMinutes.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (departureMinutes[mid] < minute) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
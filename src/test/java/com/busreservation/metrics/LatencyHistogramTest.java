@@ -0,0 +1,77 @@
+package com.busreservation.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+    
+    private LatencyHistogram histogram;
+    
+    @BeforeEach
+    void setUp() {
+        histogram = new LatencyHistogram();
+    }
+    
+    @Test
+    void testPercentile_SmallValues_ShouldBeExact() {
+        // Given
+        for (long value = 1; value <= 50; value++) {
+            histogram.record(value);
+        }
+        
+        // When
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        
+        // Then
+        assertEquals(50, snapshot.getCount());
+        assertEquals(25, snapshot.getValueAtPercentile(50));
+        assertEquals(50, snapshot.getValueAtPercentile(100));
+        assertEquals(25.5, snapshot.getMean(), 0.001);
+    }
+    
+    @Test
+    void testPercentile_LargeValues_ShouldBeWithinBucketError() {
+        // Given
+        for (long value = 1_000; value <= 100_000; value += 1_000) {
+            histogram.record(value);
+        }
+        
+        // When
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        
+        // Then
+        assertEquals(50_000, snapshot.getValueAtPercentile(50), 50_000 * 0.04);
+        assertEquals(99_000, snapshot.getValueAtPercentile(99), 99_000 * 0.04);
+        assertEquals(100_000, snapshot.getMax());
+    }
+    
+    @Test
+    void testPercentile_NeverExceedsMax() {
+        // Given
+        histogram.record(1_234_567);
+        
+        // When
+        long p99 = histogram.snapshot().getValueAtPercentile(99);
+        
+        // Then
+        assertEquals(1_234_567, p99);
+    }
+    
+    @Test
+    void testReset_ShouldClearCounts() {
+        // Given
+        histogram.record(10);
+        histogram.record(20);
+        
+        // When
+        histogram.reset();
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        
+        // Then
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getValueAtPercentile(50));
+        assertEquals(0, snapshot.getMax());
+    }
+}
@@ -0,0 +1,72 @@
+package com.busreservation.report;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportTableTest {
+
+    @Test
+    void testRender_ShouldSizeColumnsToWidestCell() {
+        // Given
+        ReportTable table = new ReportTable("ID", "Passenger", "Fare")
+            .align(0, ReportTable.Align.RIGHT)
+            .align(2, ReportTable.Align.RIGHT);
+        table.addRow(7, "Ann", "$12.50");
+        table.addRow(1024, "Bartholomew", "$9.00");
+        StringWriter target = new StringWriter();
+
+        // When
+        try (ReportWriter out = new ReportWriter(target, true)) {
+            table.render(out);
+        }
+
+        // Then
+        String n = System.lineSeparator();
+        String rule = "=".repeat(23);
+        assertEquals("  ID Passenger     Fare" + n
+                   + rule + n
+                   + "   7 Ann         $12.50" + n
+                   + "1024 Bartholomew  $9.00" + n
+                   + rule + n, target.toString());
+        assertEquals(23, table.getLineWidth());
+    }
+
+    @Test
+    void testAddRow_WrongCellCount_ShouldThrowException() {
+        // Given
+        ReportTable table = new ReportTable("ID", "Passenger");
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> table.addRow(1));
+    }
+
+    @Test
+    void testAddRow_NullCell_ShouldRenderBlank() {
+        // Given
+        ReportTable table = new ReportTable("A", "B");
+        table.addRow(null, "x");
+        StringWriter target = new StringWriter();
+
+        // When
+        try (ReportWriter out = new ReportWriter(target, true)) {
+            table.render(out);
+        }
+
+        // Then
+        assertTrue(target.toString().contains("  x"));
+    }
+
+    @Test
+    void testMoney_ShouldMatchPrintfRounding() {
+        // Given
+        double[] amounts = {0, 1.005, 2.675, 45.555, 99.995, 1234.5};
+
+        // When & Then
+        for (double amount : amounts) {
+            assertEquals("$" + String.format("%.2f", amount), ReportTable.money(amount));
+        }
+    }
+}
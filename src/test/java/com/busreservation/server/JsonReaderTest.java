@@ -0,0 +1,63 @@
+package com.busreservation.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonReaderTest {
+
+    @Test
+    void testParseObject_BookingRequest_ShouldReturnTypedFields() {
+        // Given
+        String body = "{ \"userId\": 12, \"fare\": 45.5, \"passengerName\": \"Jane \\\"JD\\\" Doe\", \"paid\": true, \"note\": null }";
+
+        // When
+        Map<String, Object> fields = JsonReader.parseObject(body);
+
+        // Then
+        assertEquals(12L, fields.get("userId"));
+        assertEquals(45.5, fields.get("fare"));
+        assertEquals("Jane \"JD\" Doe", fields.get("passengerName"));
+        assertEquals(Boolean.TRUE, fields.get("paid"));
+        assertTrue(fields.containsKey("note"));
+        assertNull(fields.get("note"));
+    }
+
+    @Test
+    void testParseObject_WriterOutput_ShouldRoundTrip() {
+        // Given
+        String json = new JsonWriter().beginObject()
+            .field("message", "line one\nline two\t\u0001")
+            .name("seats").beginArray().value(1).value(2).endArray()
+            .endObject()
+            .toString();
+
+        // When
+        Map<String, Object> fields = JsonReader.parseObject(json);
+
+        // Then
+        assertEquals("line one\nline two\t\u0001", fields.get("message"));
+        assertEquals(Arrays.asList(1L, 2L), fields.get("seats"));
+    }
+
+    @Test
+    void testParseObject_TrailingComma_ShouldThrowException() {
+        // Given
+        String body = "{\"userId\": 1,}";
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> JsonReader.parseObject(body));
+    }
+
+    @Test
+    void testParseObject_NotAnObject_ShouldThrowException() {
+        // Given
+        String body = "[1, 2, 3]";
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> JsonReader.parseObject(body));
+    }
+}
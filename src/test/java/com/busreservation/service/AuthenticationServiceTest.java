@@ -74,7 +74,7 @@ class AuthenticationServiceTest {
         user.setUsername(username);
         user.setPassword(password);
         
-        when(userDAO.authenticateUser(username, password)).thenReturn(true);
+        when(userDAO.authenticate(username, password)).thenReturn(user);
         when(userDAO.getUserByUsername(username)).thenReturn(user);
         
         // When
@@ -92,7 +92,7 @@ class AuthenticationServiceTest {
         String username = "testuser";
         String password = "wrongpassword";
         
-        when(userDAO.authenticateUser(username, password)).thenReturn(false);
+        when(userDAO.authenticate(username, password)).thenReturn(null);
         
         // When
         boolean result = authService.loginUser(username, password);
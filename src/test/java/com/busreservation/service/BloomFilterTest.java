@@ -0,0 +1,54 @@
+package com.busreservation.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void testMightContain_AddedValues_ShouldAlwaysReturnTrue() {
+        // Given
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("user" + i);
+        }
+
+        // Then
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("user" + i));
+        }
+    }
+
+    @Test
+    void testMightContain_UnseenValues_ShouldStayNearFalsePositiveRate() {
+        // Given
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("user" + i + "@example.com");
+        }
+
+        // When
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain("new" + i + "@example.com")) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void testMightContain_EmptyFilter_ShouldReturnFalse() {
+        // Given
+        BloomFilter filter = new BloomFilter(100, 0.01);
+
+        // When & Then
+        assertFalse(filter.mightContain("admin"));
+        assertTrue(filter.getHashCount() > 0);
+    }
+}
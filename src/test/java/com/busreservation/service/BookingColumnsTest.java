@@ -0,0 +1,86 @@
+package com.busreservation.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingColumnsTest {
+
+    @Test
+    void testPut_SameBookingTwice_ShouldOverwriteRow() {
+        // Given
+        BookingColumns columns = new BookingColumns();
+        columns.put(7, 1, 100, 25.0, "CONFIRMED");
+
+        // When
+        columns.put(7, 1, 100, 25.0, "CANCELLED");
+
+        // Then
+        assertEquals(1, columns.size());
+        assertEquals(BookingColumns.CANCELLED, columns.status(0));
+    }
+
+    @Test
+    void testRemove_ExistingBooking_ShouldLeaveTombstoneOutOfAggregates() {
+        // Given
+        BookingColumns columns = new BookingColumns();
+        columns.put(1, 1, 100, 10.0, "CONFIRMED");
+        columns.put(2, 1, 100, 20.0, "CONFIRMED");
+
+        // When
+        columns.remove(1);
+        BookingColumns.Totals totals = columns.aggregate(row -> 0, 1, Integer.MIN_VALUE, Integer.MAX_VALUE);
+
+        // Then
+        assertEquals(1, columns.liveCount());
+        assertEquals(1, totals.bookings[0]);
+        assertEquals(2000, totals.revenueCents[0]);
+    }
+
+    @Test
+    void testAggregate_ByBusWithinDates_ShouldCountSoldAndCancelled() {
+        // Given
+        BookingColumns columns = new BookingColumns();
+        columns.put(1, 1, 100, 10.0, "CONFIRMED");
+        columns.put(2, 1, 101, 12.5, "COMPLETED");
+        columns.put(3, 1, 101, 30.0, "CANCELLED");
+        columns.put(4, 2, 101, 40.0, "CONFIRMED");
+        columns.put(5, 2, 200, 99.0, "CONFIRMED");
+
+        // When
+        BookingColumns.Totals totals = columns.aggregate(columns::busId, columns.maxBusId() + 1, 100, 101);
+
+        // Then
+        assertEquals(3, totals.bookings[1]);
+        assertEquals(2, totals.seatsSold[1]);
+        assertEquals(1, totals.cancellations[1]);
+        assertEquals(2250, totals.revenueCents[1]);
+        assertEquals(10.0, totals.minFare[1]);
+        assertEquals(30.0, totals.maxFare[1]);
+        assertEquals(1, totals.bookings[2]);
+        assertEquals(4000, totals.revenueCents[2]);
+    }
+
+    @Test
+    void testAggregate_AboveParallelThreshold_ShouldMatchSequentialTotals() {
+        // Given
+        BookingColumns columns = new BookingColumns();
+        int rows = BookingColumns.PARALLEL_THRESHOLD * 5;
+        long expectedRevenueCents = 0;
+        for (int id = 1; id <= rows; id++) {
+            String status = id % 4 == 0 ? "CANCELLED" : "CONFIRMED";
+            columns.put(id, id % 3, id % 7, id % 50 + 0.25, status);
+            if (id % 3 == 2 && id % 4 != 0) {
+                expectedRevenueCents += Math.round((id % 50 + 0.25) * 100);
+            }
+        }
+
+        // When
+        BookingColumns.Totals totals = columns.aggregate(columns::busId, 3, Integer.MIN_VALUE, Integer.MAX_VALUE);
+
+        // Then
+        assertEquals(rows, totals.bookings[0] + totals.bookings[1] + totals.bookings[2]);
+        assertEquals(expectedRevenueCents, totals.revenueCents[2]);
+        assertEquals(rows / 4, totals.cancellations[0] + totals.cancellations[1] + totals.cancellations[2]);
+    }
+}
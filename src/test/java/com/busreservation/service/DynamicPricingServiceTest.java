@@ -0,0 +1,48 @@
+package com.busreservation.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DynamicPricingServiceTest {
+
+    @Test
+    void testParseBands_ValidBands_ShouldSplitThresholdsAndMultipliers() {
+        // Given
+        String value = "0.0:1.0, 0.5:1.2,0.9:1.5";
+
+        // When
+        double[][] bands = DynamicPricingService.parseBands(value);
+
+        // Then
+        assertArrayEquals(new double[] {0.0, 0.5, 0.9}, bands[0]);
+        assertArrayEquals(new double[] {1.0, 1.2, 1.5}, bands[1]);
+    }
+
+    @Test
+    void testParseBands_MissingMultiplier_ShouldThrow() {
+        // Given
+        String value = "0.0:1.0,0.5";
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> DynamicPricingService.parseBands(value));
+    }
+
+    @Test
+    void testParseBands_NotANumber_ShouldThrow() {
+        // Given
+        String value = "0.0:1.0,half:1.2";
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> DynamicPricingService.parseBands(value));
+    }
+
+    @Test
+    void testParseBands_DescendingThresholds_ShouldThrow() {
+        // Given
+        String value = "0.0:1.0,0.9:1.5,0.5:1.2";
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> DynamicPricingService.parseBands(value));
+    }
+}
@@ -0,0 +1,118 @@
+package com.busreservation.service;
+
+import com.busreservation.model.SeatChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatChangeBusTest {
+
+    private SeatChangeBus seatChangeBus;
+    private LocalDate travelDate;
+
+    @BeforeEach
+    void setUp() {
+        seatChangeBus = new SeatChangeBus(50);
+        travelDate = LocalDate.now().plusDays(1);
+    }
+
+    @Test
+    void testPublish_BurstOnOneSeat_ShouldDeliverLatestStateOnce() throws InterruptedException {
+        // Given
+        List<List<SeatChange>> batches = new CopyOnWriteArrayList<>();
+        CountDownLatch delivered = new CountDownLatch(1);
+        seatChangeBus.subscribe(7, travelDate, (busId, date, version, changes) -> {
+            batches.add(new ArrayList<>(changes));
+            delivered.countDown();
+        });
+
+        // When
+        seatChangeBus.publish(new SeatChange(7, travelDate, 12, false, 100));
+        seatChangeBus.publish(new SeatChange(7, travelDate, 12, true, 100));
+        seatChangeBus.publish(new SeatChange(7, travelDate, 12, false, 101));
+        seatChangeBus.publish(new SeatChange(7, travelDate, 3, false, 102));
+
+        // Then
+        assertTrue(delivered.await(2, TimeUnit.SECONDS));
+        Thread.sleep(150);
+        assertEquals(1, batches.size());
+        List<SeatChange> batch = batches.get(0);
+        assertEquals(2, batch.size());
+        assertEquals(12, batch.get(0).getSeatNumber());
+        assertFalse(batch.get(0).isAvailable());
+        assertEquals(101, batch.get(0).getBookingId());
+        assertEquals(3, batch.get(1).getSeatNumber());
+    }
+
+    @Test
+    void testPublish_OtherTrip_ShouldNotNotifySubscriber() throws InterruptedException {
+        // Given
+        List<SeatChange> received = new CopyOnWriteArrayList<>();
+        CountDownLatch otherTrip = new CountDownLatch(1);
+        seatChangeBus.subscribe(7, travelDate, (busId, date, version, changes) -> received.addAll(changes));
+        seatChangeBus.subscribe(7, travelDate.plusDays(1), (busId, date, version, changes) -> otherTrip.countDown());
+
+        // When
+        seatChangeBus.publish(new SeatChange(7, travelDate.plusDays(1), 1, false, 200));
+
+        // Then
+        assertTrue(otherTrip.await(2, TimeUnit.SECONDS));
+        assertTrue(received.isEmpty());
+        assertEquals(0, seatChangeBus.getVersion(7, travelDate));
+        assertTrue(seatChangeBus.getVersion(7, travelDate.plusDays(1)) > 0);
+    }
+
+    @Test
+    void testSubscription_Cancelled_ShouldStopDelivery() throws InterruptedException {
+        // Given
+        List<SeatChange> received = new CopyOnWriteArrayList<>();
+        CountDownLatch watcher = new CountDownLatch(1);
+        SeatChangeBus.Subscription subscription =
+            seatChangeBus.subscribe(9, travelDate, (busId, date, version, changes) -> received.addAll(changes));
+        seatChangeBus.subscribe(9, travelDate, (busId, date, version, changes) -> watcher.countDown());
+
+        // When
+        subscription.cancel();
+        seatChangeBus.publish(new SeatChange(9, travelDate, 4, false, 300));
+
+        // Then
+        assertTrue(watcher.await(2, TimeUnit.SECONDS));
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void testSubscription_LastCancelled_ShouldDropTripAndKeepVersionsIncreasing() throws InterruptedException {
+        // Given
+        CountDownLatch first = new CountDownLatch(1);
+        SeatChangeBus.Subscription subscription =
+            seatChangeBus.subscribe(5, travelDate, (busId, date, version, changes) -> first.countDown());
+        seatChangeBus.publish(new SeatChange(5, travelDate, 1, false, 400));
+        assertTrue(first.await(2, TimeUnit.SECONDS));
+        long seen = seatChangeBus.getVersion(5, travelDate);
+
+        // When
+        subscription.cancel();
+        List<Long> versions = new CopyOnWriteArrayList<>();
+        CountDownLatch second = new CountDownLatch(1);
+        seatChangeBus.subscribe(5, travelDate, (busId, date, version, changes) -> {
+            versions.add(version);
+            second.countDown();
+        });
+        long afterDrop = seatChangeBus.getVersion(5, travelDate);
+        seatChangeBus.publish(new SeatChange(5, travelDate, 2, false, 401));
+
+        // Then
+        assertTrue(seen > 0);
+        assertEquals(0, afterDrop);
+        assertTrue(second.await(2, TimeUnit.SECONDS));
+        assertTrue(versions.get(0) > seen);
+    }
+}
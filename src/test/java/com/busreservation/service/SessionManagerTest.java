@@ -0,0 +1,77 @@
+package com.busreservation.service;
+
+import com.busreservation.model.Session;
+import com.busreservation.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionManagerTest {
+
+    private SessionManager sessionManager;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        sessionManager = SessionManager.getInstance();
+        user = new User("testuser", "test@example.com", "password123", "Test User", "1234567890", User.UserRole.ADMIN);
+        user.setId(42);
+    }
+
+    @Test
+    void testCreateSession_ShouldResolveByToken() {
+        // Given
+        Session session = sessionManager.createSession(user);
+
+        // When
+        Session resolved = sessionManager.getSession(session.getToken());
+
+        // Then
+        assertSame(session, resolved);
+        assertEquals(42, resolved.getUserId());
+        assertTrue(resolved.isAdmin());
+    }
+
+    @Test
+    void testCreateSession_ShouldIssueDistinctTokens() {
+        // When
+        Session first = sessionManager.createSession(user);
+        Session second = sessionManager.createSession(user);
+
+        // Then
+        assertNotEquals(first.getToken(), second.getToken());
+        assertTrue(first.getToken().length() >= 40);
+    }
+
+    @Test
+    void testInvalidate_ShouldRejectToken() {
+        // Given
+        Session session = sessionManager.createSession(user);
+
+        // When
+        sessionManager.invalidate(session.getToken());
+
+        // Then
+        assertNull(sessionManager.getSession(session.getToken()));
+    }
+
+    @Test
+    void testGetSession_UnknownToken_ShouldReturnNull() {
+        // When & Then
+        assertNull(sessionManager.getSession("not-a-token"));
+        assertNull(sessionManager.getSession(null));
+    }
+
+    @Test
+    void testIsExpired_IdleLongerThanTimeout_ShouldReturnTrue() {
+        // Given
+        Session session = new Session("token", user, 1_000);
+
+        // When & Then
+        assertFalse(session.isExpired(1_500, 1_000));
+        assertTrue(session.isExpired(2_000, 1_000));
+        session.touch(1_900);
+        assertFalse(session.isExpired(2_000, 1_000));
+    }
+}
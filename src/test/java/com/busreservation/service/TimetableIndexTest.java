@@ -0,0 +1,60 @@
+package com.busreservation.service;
+
+import com.busreservation.dao.ScheduleDAO;
+import com.busreservation.database.DataChangeListener;
+import com.busreservation.database.DatabaseManager;
+import com.busreservation.model.Schedule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimetableIndexTest {
+
+    private TimetableIndex timetableIndex;
+
+    @BeforeEach
+    void setUp() {
+        DatabaseManager.getInstance().insertSampleData();
+        timetableIndex = TimetableIndex.getInstance();
+        // A schedule change marks the index stale, so lookups are served from the database
+        timetableIndex.onDataChanged("schedules", DataChangeListener.ChangeType.UPDATE, 0);
+    }
+
+    @Test
+    void testFindDepartures_StaleIndex_ShouldMatchSeededTextTimes() {
+        // Given: the sample data seeds route 1 on Monday at '08:00' and '14:00'
+
+        // When
+        List<Schedule> departures = timetableIndex.findDepartures(1, DayOfWeek.MONDAY, LocalTime.of(7, 0), LocalTime.of(9, 0));
+
+        // Then
+        assertTrue(departures.stream().anyMatch(schedule -> LocalTime.of(8, 0).equals(schedule.getDepartureTime())));
+        assertTrue(departures.stream().noneMatch(schedule -> LocalTime.of(14, 0).equals(schedule.getDepartureTime())));
+    }
+
+    @Test
+    void testFindDepartures_StaleIndexWithStoredTime_ShouldMergeBothFormatsInOrder() {
+        // Given
+        ScheduleDAO scheduleDAO = new ScheduleDAO();
+        Schedule added = new Schedule(1, 1, LocalTime.of(8, 30), LocalTime.of(12, 30), "MONDAY");
+        assertTrue(scheduleDAO.createSchedule(added));
+
+        try {
+            // When
+            List<Schedule> departures = timetableIndex.findDepartures(1, DayOfWeek.MONDAY, LocalTime.of(7, 0), LocalTime.of(9, 0));
+
+            // Then
+            assertTrue(departures.stream().anyMatch(schedule -> schedule.getId() == added.getId()));
+            for (int i = 1; i < departures.size(); i++) {
+                assertFalse(departures.get(i).getDepartureTime().isBefore(departures.get(i - 1).getDepartureTime()));
+            }
+        } finally {
+            scheduleDAO.deleteSchedule(added.getId());
+        }
+    }
+}